@@ -0,0 +1,32 @@
+package com.isaaclins.homeserver.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Runs the selected benchmarks (all by default,
+ * any regular JMH command-line option is honoured) with the GC/allocation
+ * profiler attached and writes machine-readable JSON results, so runs from
+ * different commits can be diffed.
+ *
+ * <p>
+ * The result file defaults to {@code jmh-result.json}; override it with
+ * {@code -Djmh.result=path} (e.g. {@code jmh-$(git rev-parse --short HEAD).json}).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.isaaclins.homeserver.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.RequestLog;
+import com.isaaclins.homeserver.entity.SystemMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of monitoring payloads. 2880 metrics rows is one day
+ * at the 30 s collection interval, i.e. the /metrics/24h response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "2880", "20000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<SystemMetrics> metrics;
+    private List<RequestLog> requestLogs;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to its auto-configured ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        metrics = new ArrayList<>(size);
+        requestLogs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            metrics.add(new SystemMetrics((long) i, start.plusSeconds(30L * i), 12.5 + i % 80, 3.0,
+                    8_000_000_000L + i, 16_000_000_000L, 1_024L * i, 512L * i, "node-1"));
+            requestLogs.add(new RequestLog((long) i, start.plusSeconds(i), "user" + (i % 50), "GET",
+                    "/api/users/" + i, 200, (long) (i % 250), "Mozilla/5.0 (X11; Linux x86_64)", "10.0.0." + (i % 255),
+                    3, 2L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeMetrics() throws Exception {
+        return objectMapper.writeValueAsBytes(metrics);
+    }
+
+    @Benchmark
+    public byte[] serializeRequestLogs() throws Exception {
+        return objectMapper.writeValueAsBytes(requestLogs);
+    }
+}
@@ -0,0 +1,18 @@
+package com.isaaclins.homeserver.benchmarks;
+
+import org.mockito.Mockito;
+
+/**
+ * Mock factory for benchmarks. Mocks are stub-only so Mockito does not record
+ * every invocation, which would otherwise grow the heap for the whole run and
+ * skew the allocation numbers.
+ */
+public final class Mocks {
+
+    private Mocks() {
+    }
+
+    public static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+}
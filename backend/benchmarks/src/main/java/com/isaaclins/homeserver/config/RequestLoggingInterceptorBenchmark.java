@@ -0,0 +1,99 @@
+package com.isaaclins.homeserver.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.benchmarks.Mocks;
+import com.isaaclins.homeserver.repository.RequestLogRepository;
+import com.isaaclins.homeserver.repository.RevokedTokenRepository;
+import com.isaaclins.homeserver.service.ArchiveService;
+import com.isaaclins.homeserver.service.ClusterEvents;
+import com.isaaclins.homeserver.service.FilteredRequestLogPublisher;
+import com.isaaclins.homeserver.service.JwtService;
+import com.isaaclins.homeserver.service.RequestLogService;
+import com.isaaclins.homeserver.service.RequestLogSubscriptionIndex;
+import com.isaaclins.homeserver.service.TokenRevocationService;
+import com.isaaclins.homeserver.service.TrafficSketchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full interceptor path for one request: preHandle, then afterCompletion
+ * with JWT subject extraction, client IP resolution, RequestLogService
+ * (repository and messaging template are stubbed, buffered logs flushed every
+ * 1000 requests) and the traffic sketches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestLoggingInterceptorBenchmark {
+
+    @Param({"anonymous", "bearer"})
+    public String auth;
+
+    // Buffered logs are flushed inline so the queue never fills up
+    private static final int FLUSH_EVERY = 1000;
+
+    private RequestLogService requestLogService;
+    private RequestLoggingInterceptor interceptor;
+    private int invocations;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        RequestLogRepository repository = Mocks.stub(RequestLogRepository.class);
+        Mockito.when(repository.insertAll(Mockito.any())).thenReturn(FLUSH_EVERY);
+        requestLogService = new RequestLogService(repository, Mocks.stub(SimpMessagingTemplate.class),
+                new FilteredRequestLogPublisher(new RequestLogSubscriptionIndex(), Mocks.stub(MessageChannel.class),
+                        new ObjectMapper(), Mocks.stub(ObjectProvider.class)), Mocks.stub(ArchiveService.class),
+                FLUSH_EVERY, FLUSH_EVERY, 1000);
+
+        JwtService jwtService = new JwtService(
+                new TokenRevocationService(Mocks.stub(RevokedTokenRepository.class),
+                        Mocks.stub(ClusterEvents.class), 10000));
+        jwtService.init();
+
+        SqlStatementMonitor sqlStatementMonitor = new SqlStatementMonitor(new SimpleMeterRegistry(), 20, 5, 200, 20);
+
+        interceptor = new RequestLoggingInterceptor(requestLogService, jwtService, sqlStatementMonitor,
+                new TrafficSketchService(64, 12, 60, 24));
+
+        request = new MockHttpServletRequest("GET", "/api/users/42");
+        request.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64)");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        if ("bearer".equals(auth)) {
+            request.addHeader("Authorization", "Bearer " + jwtService.generateToken("benchmark-user"));
+        }
+        response = new MockHttpServletResponse();
+        response.setStatus(200);
+    }
+
+    @Benchmark
+    public void preHandleAndAfterCompletion() {
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        if (++invocations % FLUSH_EVERY == 0) {
+            requestLogService.flushPendingLogs();
+        }
+    }
+}
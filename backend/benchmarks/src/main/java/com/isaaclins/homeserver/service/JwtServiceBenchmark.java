@@ -0,0 +1,60 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.benchmarks.Mocks;
+import com.isaaclins.homeserver.repository.RevokedTokenRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and the per-request validation path, including the
+ * revocation Bloom-filter check (with an empty and a populated filter).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        TokenRevocationService revocations = new TokenRevocationService(Mocks.stub(RevokedTokenRepository.class),
+                Mocks.stub(ClusterEvents.class), 10000);
+        // Populate the filter so lookups exercise realistic bit density
+        for (int i = 0; i < 5000; i++) {
+            revocations.revokeAllForSubject("revoked-user-" + i, 60_000);
+        }
+        jwtService = new JwtService(revocations);
+        jwtService.init();
+        token = jwtService.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtService.validate(token);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtService.getSubject(token);
+    }
+}
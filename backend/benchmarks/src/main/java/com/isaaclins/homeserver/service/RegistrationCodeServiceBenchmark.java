@@ -0,0 +1,60 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.benchmarks.Mocks;
+import com.isaaclins.homeserver.entity.RegistrationCode;
+import com.isaaclins.homeserver.repository.RegistrationCodeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration code generation with the database stubbed out, so the numbers
+ * cover random generation, in-memory de-duplication and expiry scheduling.
+ * Every generated code is consumed again to keep the active set (and the
+ * six-digit code space) from filling up over the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationCodeServiceBenchmark {
+
+    private RegistrationCodeService codeService;
+
+    @Setup
+    public void setUp() {
+        codeService = new RegistrationCodeService(Mocks.stub(RegistrationCodeRepository.class),
+                Mocks.stub(JdbcTemplate.class), Mocks.stub(TransactionTemplate.class), Mocks.stub(ClusterEvents.class));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean generateAndConsumeCode() {
+        return codeService.consumeCode(codeService.generateCode());
+    }
+
+    @Benchmark
+    public int generateBatchOf1000() {
+        List<RegistrationCode> codes = new ArrayList<>(1000);
+        codeService.generateCodes(1000, Duration.ofMinutes(5), 8, codes::addAll);
+        codes.forEach(c -> codeService.consumeCode(c.getCode()));
+        return codes.size();
+    }
+}
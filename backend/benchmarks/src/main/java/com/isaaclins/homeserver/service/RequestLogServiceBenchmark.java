@@ -0,0 +1,52 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.benchmarks.Mocks;
+import com.isaaclins.homeserver.entity.RequestLog;
+import com.isaaclins.homeserver.repository.RequestLogRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of the live request-log line pushed to WebSocket subscribers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestLogServiceBenchmark {
+
+    private RequestLogService requestLogService;
+    private RequestLog requestLog;
+
+    @Setup
+    public void setUp() {
+        requestLogService = new RequestLogService(Mocks.stub(RequestLogRepository.class),
+                Mocks.stub(SimpMessagingTemplate.class),
+                new FilteredRequestLogPublisher(new RequestLogSubscriptionIndex(), Mocks.stub(MessageChannel.class),
+                        new ObjectMapper(), Mocks.stub(ObjectProvider.class)), Mocks.stub(ArchiveService.class), 1, 1, 1000);
+        requestLog = new RequestLog(1L, LocalDateTime.now(), "benchmark-user", "GET", "/api/users/42",
+                200, 12L, "Mozilla/5.0", "10.0.0.1", 3, 2L);
+    }
+
+    @Benchmark
+    public String formatRequestLog() {
+        return requestLogService.formatRequestLog(requestLog);
+    }
+}
@@ -0,0 +1,86 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.RequestLogFilter;
+import com.isaaclins.homeserver.entity.RequestLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching one request-log event against {@code subscriptions} filtered
+ * subscriptions: the compiled index versus evaluating every filter.
+ * Filters are mostly per-user, so few match any given event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestLogSubscriptionIndexBenchmark {
+
+    @Param({"10", "1000"})
+    public int subscriptions;
+
+    private final RequestLogSubscriptionIndex index = new RequestLogSubscriptionIndex();
+    private final List<RequestLogFilter> filters = new ArrayList<>();
+    private RequestLog[] events;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] routes = { "/api/users", "/api/admin", "/api/monitoring", "/api/login" };
+        for (int i = 0; i < subscriptions; i++) {
+            RequestLogFilter filter = new RequestLogFilter(
+                    i % 3 == 0 ? 1 << 5 : 0,
+                    "user" + random.nextInt(subscriptions),
+                    i % 2 == 0 ? routes[random.nextInt(routes.length)] : null,
+                    i % 4 == 0 ? (long) random.nextInt(500) : null);
+            filters.add(filter);
+            index.subscribe("session" + i, "sub-0", filter);
+        }
+        events = new RequestLog[1024];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new RequestLog((long) i, LocalDateTime.now(), "user" + random.nextInt(subscriptions), "GET",
+                    routes[random.nextInt(routes.length)] + "/" + i, random.nextInt(10) == 0 ? 500 : 200,
+                    (long) random.nextInt(1000), "Mozilla/5.0", "10.0.0.1", 3, 2L);
+        }
+    }
+
+    @Benchmark
+    public void compiledIndex(Blackhole blackhole) {
+        blackhole.consume(index.match(nextEvent()));
+    }
+
+    @Benchmark
+    public void evaluateEveryFilter(Blackhole blackhole) {
+        RequestLog event = nextEvent();
+        List<RequestLogFilter> matched = new ArrayList<>();
+        for (RequestLogFilter filter : filters) {
+            if (filter.matches(event)) {
+                matched.add(filter);
+            }
+        }
+        blackhole.consume(matched);
+    }
+
+    private RequestLog nextEvent() {
+        return events[next++ & (events.length - 1)];
+    }
+}
@@ -0,0 +1,66 @@
+#!/bin/bash
+set -uo pipefail
+# -----------------------------------------------------------------------------
+# Purpose : Compare throughput and tail latency of the backend running on
+#           platform threads vs. virtual threads under the same load.
+#
+# Starts the packaged jar twice (once per mode) against the database given by
+# the usual SPRING_DATASOURCE_* variables, drives the same request mix with
+# `hey` and prints both summaries. Requires JDK 21 (JAVA_HOME) and `hey`.
+#
+# Tunables (environment):
+#   JAR           – jar to run (default target/backend-0.0.1-SNAPSHOT.jar,
+#                   build it with: mvn -Pvirtual-threads package -DskipTests)
+#   PORT          – port for the app under test (default 18080)
+#   REQUESTS      – requests per endpoint per mode (default 20000)
+#   CONCURRENCY   – concurrent clients (default 200)
+#   PROFILE       – base Spring profile (default docker)
+# -----------------------------------------------------------------------------
+
+SCRIPT_DIR="$(cd -- "$(dirname -- "${BASH_SOURCE[0]}")" && pwd)"
+JAR="${JAR:-$SCRIPT_DIR/../target/backend-0.0.1-SNAPSHOT.jar}"
+PORT="${PORT:-18080}"
+REQUESTS="${REQUESTS:-20000}"
+CONCURRENCY="${CONCURRENCY:-200}"
+PROFILE="${PROFILE:-docker}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+BASE_URL="http://localhost:$PORT"
+
+log(){ echo "[PERF] $*"; }
+
+command -v hey >/dev/null || { log "❌ 'hey' not found (go install github.com/rakyll/hey@latest)"; exit 1; }
+[[ -f "$JAR" ]] || { log "❌ Jar not found: $JAR"; exit 1; }
+
+wait_for_health(){
+  for _ in $(seq 1 60); do
+    curl -sf "$BASE_URL/actuator/health" >/dev/null && return 0
+    sleep 1
+  done
+  return 1
+}
+
+run_mode(){
+  local mode=$1 profiles=$2
+  log "=== Mode: $mode (profiles: $profiles) ==="
+  "$JAVA" -Djdk.tracePinnedThreads=short -jar "$JAR" \
+    --server.port="$PORT" --spring.profiles.active="$profiles" > "perf-$mode.log" 2>&1 &
+  local pid=$!
+  if ! wait_for_health; then
+    log "❌ Backend did not become healthy, see perf-$mode.log"; kill "$pid"; return 1
+  fi
+
+  # Warm up the JIT before measuring
+  hey -n 2000 -c 50 "$BASE_URL/api/users" >/dev/null
+
+  for endpoint in /health /api/users "/api/users/search?prefix=a"; do
+    log "--- $mode $endpoint ---"
+    hey -n "$REQUESTS" -c "$CONCURRENCY" "$BASE_URL$endpoint" \
+      | grep -E "Requests/sec|Average|Slowest|50%|99%|Status code|\[[0-9]{3}\]"
+  done
+
+  log "Pinned-thread warnings: $(grep -c 'Virtual thread pinned' "perf-$mode.log")"
+  kill "$pid"; wait "$pid" 2>/dev/null
+}
+
+run_mode platform "$PROFILE"
+run_mode virtual "$PROFILE,virtual"
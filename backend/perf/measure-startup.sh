@@ -0,0 +1,65 @@
+#!/bin/bash
+set -uo pipefail
+# -----------------------------------------------------------------------------
+# Purpose : Measure time-to-first-request of the packaged backend, e.g. to
+#           compare the default start against the fast-start setup.
+#
+# Extracts the jar the same way the Dockerfile does, optionally trains an
+# AppCDS archive, then starts the app RUNS times against the database given by
+# the usual SPRING_DATASOURCE_* variables and reports the time from launch
+# until GET /api/users first answers 200.
+#
+# Tunables (environment):
+#   JAR         – jar to run (default target/backend-0.0.1-SNAPSHOT.jar; build
+#                 with -Pfast-start for AOT)
+#   PROFILE     – Spring profiles (default docker; add ,fast-start)
+#   AOT         – true to start with -Dspring.aot.enabled=true (default false)
+#   CDS         – true to train and use an AppCDS archive (default false)
+#   JAVA_OPTS   – extra JVM flags, e.g. -XX:TieredStopAtLevel=1
+#   PORT        – port for the app under test (default 18080)
+#   RUNS        – number of starts (default 3)
+# -----------------------------------------------------------------------------
+
+SCRIPT_DIR="$(cd -- "$(dirname -- "${BASH_SOURCE[0]}")" && pwd)"
+JAR="${JAR:-$SCRIPT_DIR/../target/backend-0.0.1-SNAPSHOT.jar}"
+PROFILE="${PROFILE:-docker}"
+AOT="${AOT:-false}"
+CDS="${CDS:-false}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+PORT="${PORT:-18080}"
+RUNS="${RUNS:-3}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+WORK_DIR="$(mktemp -d)"
+
+log(){ echo "[STARTUP] $*"; }
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+[[ -f "$JAR" ]] || { log "❌ Jar not found: $JAR"; exit 1; }
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$WORK_DIR/app" --application-filename app.jar >/dev/null \
+  || { log "❌ Could not extract $JAR"; exit 1; }
+cd "$WORK_DIR/app" || exit 1
+
+# shellcheck disable=SC2206
+FLAGS=($JAVA_OPTS)
+[[ "$AOT" == "true" ]] && FLAGS+=(-Dspring.aot.enabled=true)
+
+if [[ "$CDS" == "true" ]]; then
+  log "Training AppCDS archive..."
+  "$JAVA" "${FLAGS[@]}" -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -Dspring.context.exit=onRefresh -Dspring.profiles.active=cds-training -jar app.jar > cds-training.log 2>&1
+  [[ -f app.jsa ]] || { log "❌ Training run failed, see $WORK_DIR/app/cds-training.log"; exit 1; }
+  FLAGS+=(-XX:SharedArchiveFile=app.jsa)
+fi
+
+log "Profiles: $PROFILE | JVM flags: ${FLAGS[*]:-<none>}"
+for run in $(seq 1 "$RUNS"); do
+  start=$(date +%s%N)
+  "$JAVA" "${FLAGS[@]}" -jar app.jar --server.port="$PORT" --spring.profiles.active="$PROFILE" > "run-$run.log" 2>&1 &
+  pid=$!
+  until curl -sf "http://localhost:$PORT/api/users" >/dev/null; do
+    kill -0 "$pid" 2>/dev/null || { log "❌ Backend exited, see run-$run.log"; exit 1; }
+    sleep 0.05
+  done
+  log "Run $run: first request after $(( ($(date +%s%N) - start) / 1000000 )) ms"
+  kill "$pid"; wait "$pid" 2>/dev/null
+done
@@ -48,7 +48,7 @@ public class AdminInitializer implements CommandLineRunner {
             return;
         }
 
-        if (userService.existsByUsername(username) || userService.existsByEmail(email)) {
+        if (userService.existsByUsernameOrEmail(username, email)) {
             logger.info("AdminInitializer: Admin user already exists - skipping creation");
             return; // Admin already exists
         }
@@ -0,0 +1,52 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.service.ClusterEventBus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies every {@code /topic} and {@code /user} message published on this
+ * node's broker channel to the {@link ClusterEventBus}. A user message is
+ * resolved again on each node, so it reaches the user's sessions wherever
+ * they are connected. Messages that arrived from another node carry
+ * {@link ClusterEventBus#ORIGIN_HEADER} and are skipped. Registered by
+ * {@link WebSocketConfig} in cluster mode only.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.mode", havingValue = "tcp")
+public class ClusterForwardingInterceptor implements ChannelInterceptor {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String USER_PREFIX = "/user/";
+
+    // The bus needs the broker channel, which is built with this interceptor
+    private final ObjectProvider<ClusterEventBus> clusterEventBus;
+
+    public ClusterForwardingInterceptor(ObjectProvider<ClusterEventBus> clusterEventBus) {
+        this.clusterEventBus = clusterEventBus;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (message.getHeaders().containsKey(ClusterEventBus.ORIGIN_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null && (destination.startsWith(TOPIC_PREFIX) || destination.startsWith(USER_PREFIX))) {
+            ClusterEventBus bus = clusterEventBus.getIfAvailable();
+            if (bus != null) {
+                bus.publishBrokerMessage(destination, payload,
+                        SimpMessageHeaderAccessor.wrap(message).getContentType());
+            }
+        }
+        return message;
+    }
+}
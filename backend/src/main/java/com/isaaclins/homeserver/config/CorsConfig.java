@@ -17,6 +17,7 @@ public class CorsConfig {
                         .allowedOrigins("*")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("ETag", "X-Next-Cursor")
                         .allowCredentials(false);
             }
         };
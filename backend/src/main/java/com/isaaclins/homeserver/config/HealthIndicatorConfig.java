@@ -0,0 +1,44 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.service.HealthProbeService;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Actuator health contributors backed by {@link HealthProbeService}'s cached
+ * probe results. {@code dbHealthIndicator} and
+ * {@code diskSpaceHealthIndicator} take the bean names Spring Boot's own
+ * indicators use, which replaces those (they query the database and the
+ * filesystem on every call) while keeping the {@code db} and
+ * {@code diskSpace} component names. Liveness and readiness groups are
+ * composed from these in application.properties.
+ */
+@Configuration
+public class HealthIndicatorConfig {
+
+    @Bean
+    public HealthIndicator dbHealthIndicator(HealthProbeService probes) {
+        return () -> probes.getHealth(HealthProbeService.DB);
+    }
+
+    @Bean
+    public HealthIndicator connectionPoolHealthIndicator(HealthProbeService probes) {
+        return () -> probes.getHealth(HealthProbeService.CONNECTION_POOL);
+    }
+
+    @Bean
+    public HealthIndicator schedulerHealthIndicator(HealthProbeService probes) {
+        return () -> probes.getHealth(HealthProbeService.SCHEDULER);
+    }
+
+    @Bean
+    public HealthIndicator brokerHealthIndicator(HealthProbeService probes) {
+        return () -> probes.getHealth(HealthProbeService.BROKER);
+    }
+
+    @Bean
+    public HealthIndicator diskSpaceHealthIndicator(HealthProbeService probes) {
+        return () -> probes.getHealth(HealthProbeService.DISK_SPACE);
+    }
+}
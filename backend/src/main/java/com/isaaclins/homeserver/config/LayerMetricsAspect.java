@@ -0,0 +1,72 @@
+package com.isaaclins.homeserver.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every controller method and every public method of a {@code *Service}
+ * class as {@code homeserver.invocations}, tagged with the layer, class,
+ * method and exception (if any). Together with Spring Data's
+ * {@code spring.data.repository.invocations} and {@code http.server.requests}
+ * this shows which layer a slow request spends its time in. Calls a service
+ * makes on itself bypass the proxy and are not timed separately.
+ */
+@Aspect
+@Component
+public class LayerMetricsAspect {
+
+    static final String METRIC_NAME = "homeserver.invocations";
+
+    private final MeterRegistry meterRegistry;
+
+    // Successful calls dominate; cache their timer instead of rebuilding tags per call
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    public LayerMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.isaaclins.homeserver.controller..*) "
+            + "&& @within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("controller", joinPoint);
+    }
+
+    @Around("within(com.isaaclins.homeserver.service..*Service) && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("service", joinPoint);
+    }
+
+    private Object time(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            sample.stop(successTimers.computeIfAbsent(method, m -> timer(layer, m, "none")));
+            return result;
+        } catch (Throwable e) {
+            sample.stop(timer(layer, method, e.getClass().getSimpleName()));
+            throw e;
+        }
+    }
+
+    private Timer timer(String layer, Method method, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("Controller and service method invocations")
+                .tags(Tags.of("layer", layer,
+                        "class", method.getDeclaringClass().getSimpleName(),
+                        "method", method.getName(),
+                        "exception", exception))
+                .register(meterRegistry);
+    }
+}
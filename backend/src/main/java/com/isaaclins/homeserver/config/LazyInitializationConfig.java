@@ -0,0 +1,38 @@
+package com.isaaclins.homeserver.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Keeps beans with startup side effects eager when
+ * {@code spring.main.lazy-initialization} is on (fast-start profile). A lazy
+ * bean's {@code @Scheduled} jobs would never be registered, and
+ * {@code @PostConstruct} loaders (registration codes, token revocations,
+ * the pinning monitor) would run on the first request instead of at startup.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter startupHookBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && hasStartupHook(beanType);
+    }
+
+    private static boolean hasStartupHook(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(beanType))) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || method.isAnnotationPresent(PostConstruct.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.isaaclins.homeserver.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Iterator;
+
+/**
+ * Publishes {@link RingBufferLogAppender} state: {@code logging.events.dropped}
+ * per level and the current {@code logging.buffer.events}.
+ */
+@Configuration
+public class LoggingMetricsConfig {
+
+    @Bean
+    public MeterBinder ringBufferLogAppenderMetrics() {
+        return registry -> {
+            if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+                return;
+            }
+            Iterator<Appender<ILoggingEvent>> appenders =
+                    context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+            while (appenders.hasNext()) {
+                if (appenders.next() instanceof RingBufferLogAppender appender) {
+                    for (Level level : RingBufferLogAppender.levels()) {
+                        FunctionCounter.builder("logging.events.dropped", appender, a -> a.getDroppedCount(level))
+                                .description("Log events discarded because the async log buffer was full")
+                                .tag("appender", appender.getName())
+                                .tag("level", level.levelStr.toLowerCase())
+                                .register(registry);
+                    }
+                    Gauge.builder("logging.buffer.events", appender, RingBufferLogAppender::getBufferedCount)
+                            .description("Log events waiting to be written")
+                            .tag("appender", appender.getName())
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.isaaclins.homeserver.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the STOMP statistics Spring otherwise only logs every 30 minutes:
+ * open sessions per transport and CONNECT/DISCONNECT totals. The channel
+ * executors are already bound by Spring Boot as {@code executor.*}, tagged
+ * with their bean names ({@code clientInboundChannelExecutor} etc.), in
+ * pooled mode; virtual-thread executors have no pool to report.
+ */
+@Configuration
+public class MessagingMetricsConfig {
+
+    @Bean
+    public MeterBinder stompMetrics(WebSocketMessageBrokerStats stats) {
+        return registry -> {
+            Map<String, ToDoubleFunction<SubProtocolWebSocketHandler.Stats>> transports = Map.of(
+                    "websocket", SubProtocolWebSocketHandler.Stats::getWebSocketSessions,
+                    "http-streaming", SubProtocolWebSocketHandler.Stats::getHttpStreamingSessions,
+                    "http-polling", SubProtocolWebSocketHandler.Stats::getHttpPollingSessions);
+            transports.forEach((transport, sessions) -> Gauge
+                    .builder("websocket.sessions", stats, s -> sessions.applyAsDouble(s.getWebSocketSessionStats()))
+                    .description("Open WebSocket/SockJS sessions")
+                    .tag("transport", transport)
+                    .register(registry));
+
+            Map<String, ToDoubleFunction<StompSubProtocolHandler.Stats>> frames = Map.of(
+                    "CONNECT", StompSubProtocolHandler.Stats::getTotalConnect,
+                    "CONNECTED", StompSubProtocolHandler.Stats::getTotalConnected,
+                    "DISCONNECT", StompSubProtocolHandler.Stats::getTotalDisconnect);
+            frames.forEach((command, total) -> FunctionCounter
+                    .builder("stomp.frames", stats, s -> total.applyAsDouble(s.getStompSubProtocolStats()))
+                    .description("STOMP frames handled since startup")
+                    .tag("command", command)
+                    .register(registry));
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.isaaclins.homeserver.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write splitting, enabled by setting {@code datasource.replica.url}
+ * (e.g. via the DATASOURCE_REPLICA_URL environment variable). Replaces the
+ * auto-configured pool with two Hikari pools behind a
+ * {@link LazyConnectionDataSourceProxy}: connections of
+ * {@code @Transactional(readOnly = true)} methods come from the replica,
+ * everything else from the primary. Because the proxy fetches the physical
+ * connection lazily, the read-only flag is already known when the pool is
+ * chosen. A lagging or unreachable replica falls back to the primary (see
+ * {@link ReplicaLagMonitor}).
+ *
+ * <p>
+ * Pool settings: {@code spring.datasource.hikari.*} for the primary,
+ * {@code datasource.replica.hikari.*} for the replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        // A dead replica must neither block startup nor hold reads for the default 30 s
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setConnectionTimeout(1000);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${datasource.replica.max-lag-ms:5000}") long maxLagMillis, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primary, replica, maxLagMillis, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica, ReplicaLagMonitor monitor) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaFallbackDataSource(replica, primary, monitor));
+        return dataSource;
+    }
+}
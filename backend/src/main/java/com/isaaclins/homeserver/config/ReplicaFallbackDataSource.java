@@ -0,0 +1,51 @@
+package com.isaaclins.homeserver.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read-only target of the routing proxy: hands out replica connections while
+ * the {@link ReplicaLagMonitor} considers the replica usable and primary
+ * connections otherwise, or when the replica refuses a connection.
+ */
+class ReplicaFallbackDataSource extends AbstractDataSource {
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final ReplicaLagMonitor monitor;
+
+    ReplicaFallbackDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor monitor) {
+        this.replica = replica;
+        this.primary = primary;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (monitor.isReplicaAvailable()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                monitor.markUnavailable(e);
+            }
+        }
+        monitor.recordFallback();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (monitor.isReplicaAvailable()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                monitor.markUnavailable(e);
+            }
+        }
+        monitor.recordFallback();
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,145 @@
+package com.isaaclins.homeserver.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replication lag with a heartbeat: the current time is written to
+ * {@code replication_heartbeat} on the primary and read back from the replica.
+ * The lag is the difference between the newest stamp written and the one the
+ * replica returns, so it works with any database and needs no replication
+ * privileges. The replica is used for reads only while it answers and lags by
+ * at most {@code datasource.replica.max-lag-ms}.
+ *
+ * <p>
+ * Exposed as {@code db.replica.lag}, {@code db.replica.available} and
+ * {@code db.replica.fallbacks}, and via {@code /api/monitoring/replica}.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int HEARTBEAT_ID = 1;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final Counter fallbacks;
+
+    private volatile long lastBeatMillis;
+    private volatile long lagMillis = -1;
+    private volatile boolean available;
+    private volatile String lastError;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, long maxLagMillis,
+            MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxLagMillis = maxLagMillis;
+        this.fallbacks = Counter.builder("db.replica.fallbacks")
+                .description("Read-only connections served by the primary because the replica was unusable")
+                .register(meterRegistry);
+        TimeGauge.builder("db.replica.lag", this, TimeUnit.MILLISECONDS, m -> Math.max(m.lagMillis, 0))
+                .description("Replication lag measured via the heartbeat table")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.available", this, m -> m.available ? 1 : 0)
+                .description("1 while read-only queries are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-ms:1000}")
+    public void heartbeat() {
+        beat();
+        measureLag();
+    }
+
+    /**
+     * Stamps the current time on the primary.
+     */
+    public void beat() {
+        try {
+            long now = System.currentTimeMillis();
+            int updated = primary.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = ?", now, HEARTBEAT_ID);
+            if (updated == 0) {
+                primary.update("INSERT INTO replication_heartbeat (id, beat_millis) VALUES (?, ?)", HEARTBEAT_ID, now);
+            }
+            lastBeatMillis = now;
+        } catch (Exception e) {
+            log.warn("Could not write replication heartbeat", e);
+        }
+    }
+
+    /**
+     * Reads the heartbeat back from the replica and decides whether reads may
+     * go there.
+     */
+    public void measureLag() {
+        try {
+            Long replicaBeat = replica.query("SELECT beat_millis FROM replication_heartbeat WHERE id = ?",
+                    rs -> rs.next() ? rs.getLong(1) : null, HEARTBEAT_ID);
+            if (replicaBeat == null) {
+                update(-1, false, "No heartbeat replicated yet");
+                return;
+            }
+            long lag = Math.max(0, lastBeatMillis - replicaBeat);
+            update(lag, lag <= maxLagMillis, lag <= maxLagMillis ? null : "Replica lags " + lag + " ms");
+        } catch (Exception e) {
+            update(-1, false, e.getMessage());
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return available;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * Called when handing out a replica connection failed; reads stay on the
+     * primary until the next heartbeat sees the replica healthy again.
+     */
+    void markUnavailable(Exception e) {
+        update(lagMillis, false, e.getMessage());
+    }
+
+    void recordFallback() {
+        fallbacks.increment();
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", true);
+        status.put("available", available);
+        status.put("lagMillis", lagMillis);
+        status.put("maxLagMillis", maxLagMillis);
+        status.put("fallbacks", (long) fallbacks.count());
+        if (lastError != null) {
+            status.put("error", lastError);
+        }
+        return status;
+    }
+
+    private synchronized void update(long lag, boolean usable, String error) {
+        if (usable != available) {
+            if (usable) {
+                log.info("Read replica available (lag {} ms), routing read-only transactions to it", lag);
+            } else {
+                log.warn("Read replica unusable ({}), routing read-only transactions to the primary", error);
+            }
+        }
+        lagMillis = lag;
+        available = usable;
+        lastError = error;
+    }
+}
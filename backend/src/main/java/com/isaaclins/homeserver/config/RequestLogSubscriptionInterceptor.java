@@ -0,0 +1,57 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.dto.RequestLogFilter;
+import com.isaaclins.homeserver.service.FilteredRequestLogPublisher;
+import com.isaaclins.homeserver.service.RequestLogSubscriptionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link RequestLogSubscriptionIndex} in sync with the STOMP
+ * sessions: SUBSCRIBE frames for the filtered request-log destination register
+ * their filter headers, UNSUBSCRIBE and DISCONNECT (also sent when a
+ * connection drops) remove them. Malformed filters reject the SUBSCRIBE, which
+ * the client receives as an ERROR frame.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLogSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final RequestLogSubscriptionIndex index;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        String sessionId = accessor.getSessionId();
+        switch (accessor.getCommand()) {
+            case SUBSCRIBE:
+                if (FilteredRequestLogPublisher.DESTINATION.equals(accessor.getDestination())) {
+                    try {
+                        index.subscribe(sessionId, accessor.getSubscriptionId(),
+                                RequestLogFilter.fromHeaders(accessor::getFirstNativeHeader));
+                    } catch (IllegalArgumentException e) {
+                        throw new MessageDeliveryException(message, e.getMessage());
+                    }
+                }
+                break;
+            case UNSUBSCRIBE:
+                index.unsubscribe(sessionId, accessor.getSubscriptionId());
+                break;
+            case DISCONNECT:
+                index.removeSession(sessionId);
+                break;
+            default:
+                break;
+        }
+        return message;
+    }
+}
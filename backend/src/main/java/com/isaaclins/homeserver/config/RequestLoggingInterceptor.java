@@ -2,34 +2,78 @@ package com.isaaclins.homeserver.config;
 
 import com.isaaclins.homeserver.service.JwtService;
 import com.isaaclins.homeserver.service.RequestLogService;
+import com.isaaclins.homeserver.service.TrafficSketchService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Records every request in the request log and the traffic sketches and,
+ * while the request is handled, puts {@value #MDC_REQUEST_ID},
+ * {@value #MDC_USER} and {@value #MDC_ROUTE} into the logging MDC. The request id comes from the X-Request-Id header
+ * when the caller sends a sane one and is echoed in the response.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class RequestLoggingInterceptor implements HandlerInterceptor {
+public class RequestLoggingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
+    public static final String MDC_USER = "user";
+    public static final String MDC_ROUTE = "route";
+
+    private static final String USERNAME_ATTRIBUTE = RequestLoggingInterceptor.class.getName() + ".username";
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
 
     private final RequestLogService requestLogService;
     private final JwtService jwtService;
+    private final SqlStatementMonitor sqlStatementMonitor;
+    private final TrafficSketchService trafficSketchService;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         // Store start time for response time calculation
         request.setAttribute("startTime", System.currentTimeMillis());
+        sqlStatementMonitor.beginRequest();
+
+        String username = extractUsernameFromRequest(request);
+        request.setAttribute(USERNAME_ATTRIBUTE, username);
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put(MDC_REQUEST_ID, requestId);
+        MDC.put(MDC_USER, username);
+        MDC.put(MDC_ROUTE, route(request));
         return true;
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        // The rest of the request runs on another thread; don't leak this one's counters or MDC
+        sqlStatementMonitor.detachRequest();
+        clearMdc();
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
             Object handler, Exception ex) {
         try {
-            // Skip health check endpoints and static resources
             String uri = request.getRequestURI();
+            SqlStatementMonitor.RequestSqlStats sqlStats = sqlStatementMonitor.endRequest(request.getMethod() + " " + uri);
+
+            // Skip health check endpoints and static resources
             if (uri.startsWith("/actuator") || uri.startsWith("/ws") ||
                     uri.startsWith("/static") || uri.endsWith(".ico")) {
                 return;
@@ -39,8 +83,11 @@ public class RequestLoggingInterceptor implements HandlerInterceptor {
             Long startTime = (Long) request.getAttribute("startTime");
             Long responseTime = startTime != null ? System.currentTimeMillis() - startTime : 0L;
 
-            // Extract username from JWT token
-            String username = extractUsernameFromRequest(request);
+            // Extracted from the JWT in preHandle
+            String username = (String) request.getAttribute(USERNAME_ATTRIBUTE);
+            if (username == null) {
+                username = extractUsernameFromRequest(request);
+            }
 
             // Get client IP
             String clientIp = getClientIpAddress(request);
@@ -53,13 +100,30 @@ public class RequestLoggingInterceptor implements HandlerInterceptor {
                     response.getStatus(),
                     responseTime,
                     request.getHeader("User-Agent"),
-                    clientIp);
+                    clientIp,
+                    sqlStats != null ? sqlStats.getStatementCount() : null,
+                    sqlStats != null ? sqlStats.getDbTimeMillis() : null);
+            trafficSketchService.record(route(request), clientIp, username);
 
         } catch (Exception e) {
             log.warn("Error in request logging interceptor", e);
+        } finally {
+            clearMdc();
         }
     }
 
+    // The mapped pattern (/api/users/{id}) rather than the raw path, so routes can be grouped
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private static void clearMdc() {
+        MDC.remove(MDC_REQUEST_ID);
+        MDC.remove(MDC_USER);
+        MDC.remove(MDC_ROUTE);
+    }
+
     private String extractUsernameFromRequest(HttpServletRequest request) {
         try {
             String authHeader = request.getHeader("Authorization");
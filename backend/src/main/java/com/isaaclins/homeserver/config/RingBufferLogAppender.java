@@ -0,0 +1,235 @@
+package com.isaaclins.homeserver.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.isaaclins.homeserver.util.RingBuffer;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logback appender that never blocks the logging thread. Events go into a
+ * lock-free {@link RingBuffer}; a single "log-writer" thread drains it into
+ * the nested appenders (see logback-spring.xml). When the buffer cannot take
+ * an event, the event is dropped and counted per level:
+ *
+ * <ul>
+ * <li>{@code drop-newest}: drop only when the buffer is full</li>
+ * <li>{@code drop-below-warn} (default): once the buffer is
+ * {@code nearlyFullPercent} full, also drop TRACE to INFO events, keeping
+ * room for warnings and errors</li>
+ * </ul>
+ *
+ * The writer reports drops as a WARN event at most once per second;
+ * {@link #getDroppedCount(Level)} feeds the {@code logging.events.dropped}
+ * meter.
+ */
+public class RingBufferLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final Level[] LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR };
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final AtomicLongArray dropped = new AtomicLongArray(LEVELS.length);
+
+    private int bufferSize = 8192;
+    private String discardPolicy = "drop-below-warn";
+    private int nearlyFullPercent = 80;
+    private long maxFlushTimeMillis = 1000;
+
+    private RingBuffer<ILoggingEvent> buffer;
+    private boolean dropBelowWarn;
+    private int nearlyFullSize;
+    private Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean running;
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setDiscardPolicy(String discardPolicy) {
+        this.discardPolicy = discardPolicy;
+    }
+
+    public void setNearlyFullPercent(int nearlyFullPercent) {
+        this.nearlyFullPercent = nearlyFullPercent;
+    }
+
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender-ref configured for " + getName());
+            return;
+        }
+        switch (discardPolicy) {
+            case "drop-newest" -> dropBelowWarn = false;
+            case "drop-below-warn" -> dropBelowWarn = true;
+            default -> {
+                addError("Unknown discardPolicy " + discardPolicy + ", expected drop-newest or drop-below-warn");
+                return;
+            }
+        }
+        buffer = new RingBuffer<>(bufferSize);
+        nearlyFullSize = buffer.capacity() * nearlyFullPercent / 100;
+        running = true;
+        writer = new Thread(this::drain, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(maxFlushTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            addWarn(buffer.size() + " log events were not written within " + maxFlushTimeMillis + "ms");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (dropBelowWarn && event.getLevel().toInt() < Level.WARN_INT && buffer.size() >= nearlyFullSize) {
+            countDrop(event);
+            return;
+        }
+        // Formats the message and copies MDC now, while they still belong to this thread
+        event.prepareForDeferredProcessing();
+        if (!buffer.offer(event)) {
+            countDrop(event);
+            return;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public long getDroppedCount(Level level) {
+        return dropped.get(levelIndex(level));
+    }
+
+    public long getDroppedCount() {
+        long total = 0;
+        for (int i = 0; i < LEVELS.length; i++) {
+            total += dropped.get(i);
+        }
+        return total;
+    }
+
+    public int getBufferedCount() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    private void drain() {
+        long reportedDrops = 0;
+        long nextReport = System.nanoTime();
+        while (running || !buffer.isEmpty()) {
+            ILoggingEvent event = buffer.poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+            long drops = getDroppedCount();
+            if (drops != reportedDrops && System.nanoTime() - nextReport >= 0) {
+                reportDrops(drops - reportedDrops);
+                reportedDrops = drops;
+                nextReport = System.nanoTime() + DROP_REPORT_INTERVAL_NANOS;
+            }
+            writerParked = true;
+            // Re-check after announcing the park, so an event offered in between is not missed
+            if (running && buffer.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+
+    private void reportDrops(long count) {
+        Logger logger = ((LoggerContext) getContext()).getLogger(RingBufferLogAppender.class);
+        LoggingEvent warning = new LoggingEvent(RingBufferLogAppender.class.getName(), logger, Level.WARN,
+                "Log buffer full, dropped {} events", null, new Object[] { count });
+        appenders.appendLoopOnAppenders(warning);
+    }
+
+    private void countDrop(ILoggingEvent event) {
+        dropped.incrementAndGet(levelIndex(event.getLevel()));
+    }
+
+    private static int levelIndex(Level level) {
+        return switch (level.toInt()) {
+            case Level.TRACE_INT -> 0;
+            case Level.DEBUG_INT -> 1;
+            case Level.INFO_INT -> 2;
+            case Level.WARN_INT -> 3;
+            default -> 4;
+        };
+    }
+
+    static Level[] levels() {
+        return LEVELS.clone();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,76 @@
+package com.isaaclins.homeserver.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Map;
+
+/**
+ * On databases without native sequences (MySQL) Hibernate emulates the id
+ * sequences of {@code RequestLog} and {@code SystemMetrics} with single-row
+ * tables. When those tables are first created on an existing database (ddl-auto
+ * update) they start at 1 while the entity tables already hold AUTO_INCREMENT
+ * ids, so the next value is moved past the current maximum id before anything
+ * is inserted. Databases with real sequences (H2) are left alone.
+ */
+@Component
+@Slf4j
+public class SequenceTableAligner {
+
+    // sequence table -> entity table
+    private static final Map<String, String> SEQUENCE_TABLES = Map.of(
+            "request_logs_seq", "request_logs",
+            "system_metrics_seq", "system_metrics");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SequenceTableAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void align() {
+        // Blocks until Hibernate (including schema update) has finished bootstrapping
+        entityManagerFactory.getMetamodel();
+
+        SEQUENCE_TABLES.forEach((sequenceTable, entityTable) -> {
+            try {
+                if (!tableExists(sequenceTable)) {
+                    return;
+                }
+                long next = jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(MAX(id), 0) + 1 FROM " + entityTable, Long.class);
+                Long current = jdbcTemplate.query("SELECT next_val FROM " + sequenceTable,
+                        rs -> rs.next() ? rs.getLong(1) : null);
+                if (current == null) {
+                    jdbcTemplate.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", next);
+                } else if (current < next) {
+                    jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = ?", next);
+                } else {
+                    return;
+                }
+                log.info("Moved id sequence {} to {}", sequenceTable, next);
+            } catch (Exception e) {
+                log.warn("Could not align id sequence table {}", sequenceTable, e);
+            }
+        });
+    }
+
+    private boolean tableExists(String table) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, table, new String[] { "TABLE" })) {
+                return rs.next();
+            }
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,34 @@
+package com.isaaclins.homeserver.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's {@code dataSource} bean through
+ * {@link StatementCountingDataSource}. Disable with
+ * {@code sql-monitor.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql-monitor.enabled", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    // Static and lazily resolved: a BeanPostProcessor must not pull regular beans in early
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(
+            ObjectProvider<SqlStatementMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return new StatementCountingDataSource(dataSource, monitor.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.dto.SlowQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Collects what {@link StatementCountingDataSource} reports about every JDBC
+ * statement. Within an HTTP request (opened and closed by
+ * {@link RequestLoggingInterceptor}) statements and database time are summed
+ * per thread. A warning is logged when a request runs more than
+ * {@code sql-monitor.statement-budget} statements or repeats one statement
+ * shape {@code sql-monitor.repeat-threshold} times or more, the usual sign of
+ * an N+1 query. Independently of requests, statements slower than
+ * {@code sql-monitor.slow-query-ms} are kept in a table of the
+ * {@code sql-monitor.slow-query-table-size} slowest shapes.
+ */
+@Component
+@Slf4j
+public class SqlStatementMonitor {
+
+    private static final int MAX_SHAPE_LENGTH = 1000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ThreadLocal<RequestSqlStats> current = new ThreadLocal<>();
+    private final Map<String, SlowQueryStats> slowQueries = new HashMap<>();
+
+    private final int statementBudget;
+    private final int repeatThreshold;
+    private final long slowQueryNanos;
+    private final int slowQueryTableSize;
+
+    private final DistributionSummary statementsPerRequest;
+    private final Counter budgetExceeded;
+    private final Counter repeatedStatements;
+
+    public SqlStatementMonitor(MeterRegistry meterRegistry,
+            @Value("${sql-monitor.statement-budget:20}") int statementBudget,
+            @Value("${sql-monitor.repeat-threshold:5}") int repeatThreshold,
+            @Value("${sql-monitor.slow-query-ms:200}") long slowQueryMillis,
+            @Value("${sql-monitor.slow-query-table-size:20}") int slowQueryTableSize) {
+        this.statementBudget = statementBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.slowQueryTableSize = slowQueryTableSize;
+        this.statementsPerRequest = DistributionSummary.builder("sql.request.statements")
+                .description("JDBC statements executed per HTTP request")
+                .register(meterRegistry);
+        this.budgetExceeded = Counter.builder("sql.request.warnings").tag("type", "budget")
+                .description("Requests exceeding the statement budget or repeating a statement shape")
+                .register(meterRegistry);
+        this.repeatedStatements = Counter.builder("sql.request.warnings").tag("type", "repeat")
+                .description("Requests exceeding the statement budget or repeating a statement shape")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts counting statements on the current thread.
+     */
+    public void beginRequest() {
+        current.set(new RequestSqlStats());
+    }
+
+    /**
+     * Stops counting on the current thread, logs budget and repeat warnings
+     * for {@code request} and returns the totals, or null if no request was
+     * open on this thread.
+     */
+    public RequestSqlStats endRequest(String request) {
+        RequestSqlStats stats = current.get();
+        if (stats == null) {
+            return null;
+        }
+        current.remove();
+        statementsPerRequest.record(stats.statementCount);
+        if (stats.statementCount > statementBudget) {
+            budgetExceeded.increment();
+            log.warn("{} ran {} SQL statements ({} ms), budget is {}",
+                    request, stats.statementCount, stats.getDbTimeMillis(), statementBudget);
+        }
+        stats.shapeCounts.forEach((shape, count) -> {
+            if (count >= repeatThreshold) {
+                repeatedStatements.increment();
+                log.warn("{} ran the same statement {} times (possible N+1): {}", request, count, shape);
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * Abandons the current request scope without reporting, e.g. when the
+     * request continues asynchronously on another thread.
+     */
+    public void detachRequest() {
+        current.remove();
+    }
+
+    void record(String sql, long elapsedNanos) {
+        RequestSqlStats stats = current.get();
+        String shape = null;
+        if (stats != null) {
+            shape = shape(sql);
+            stats.statementCount++;
+            stats.dbTimeNanos += elapsedNanos;
+            stats.shapeCounts.merge(shape, 1, Integer::sum);
+        }
+        if (elapsedNanos >= slowQueryNanos) {
+            recordSlow(shape != null ? shape : shape(sql), elapsedNanos);
+        }
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return slowQueries.entrySet().stream()
+                    .sorted(Map.Entry.<String, SlowQueryStats>comparingByValue(
+                            Comparator.comparingLong(s -> s.maxNanos)).reversed())
+                    .map(e -> e.getValue().toSlowQuery(e.getKey()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public void clearSlowQueries() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    private void recordSlow(String shape, long elapsedNanos) {
+        synchronized (slowQueries) {
+            SlowQueryStats stats = slowQueries.get(shape);
+            if (stats == null) {
+                if (slowQueries.size() >= slowQueryTableSize && !evictFasterThan(elapsedNanos)) {
+                    return;
+                }
+                stats = new SlowQueryStats();
+                slowQueries.put(shape, stats);
+            }
+            stats.count++;
+            stats.totalNanos += elapsedNanos;
+            stats.maxNanos = Math.max(stats.maxNanos, elapsedNanos);
+            stats.lastSeen = LocalDateTime.now();
+        }
+    }
+
+    // Table is small (tens of entries) and only touched by slow statements
+    private boolean evictFasterThan(long elapsedNanos) {
+        Map.Entry<String, SlowQueryStats> fastest = null;
+        for (Map.Entry<String, SlowQueryStats> entry : slowQueries.entrySet()) {
+            if (fastest == null || entry.getValue().maxNanos < fastest.getValue().maxNanos) {
+                fastest = entry;
+            }
+        }
+        if (fastest == null || fastest.getValue().maxNanos >= elapsedNanos) {
+            return false;
+        }
+        slowQueries.remove(fastest.getKey());
+        return true;
+    }
+
+    /**
+     * Reduces a statement to its shape: literals become {@code ?}, IN lists
+     * collapse to a single placeholder and whitespace is normalized, so the
+     * same query with different arguments counts as one.
+     */
+    static String shape(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) : shape;
+    }
+
+    public static final class RequestSqlStats {
+        private int statementCount;
+        private long dbTimeNanos;
+        private final Map<String, Integer> shapeCounts = new HashMap<>();
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        public long getDbTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(dbTimeNanos);
+        }
+    }
+
+    private static final class SlowQueryStats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        LocalDateTime lastSeen;
+
+        SlowQuery toSlowQuery(String shape) {
+            return new SlowQuery(shape, count, maxNanos / 1_000_000.0,
+                    totalNanos / 1_000_000.0 / count, lastSeen);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.isaaclins.homeserver.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.SpringApplicationEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs the slowest beans of the startup once the application is ready.
+ * Enabled with {@code startup.report.enabled=true} (on in the fast-start
+ * profile): the listener then switches the application to a
+ * {@link BufferingApplicationStartup} before the context is created and, on
+ * {@link ApplicationReadyEvent}, ranks the recorded
+ * {@code spring.beans.instantiate} steps by their own time, i.e. excluding the
+ * time spent creating their dependencies.
+ *
+ * <p>
+ * Registered in {@code BackendApplication#main} rather than as a bean, because
+ * the startup recorder has to be installed before the context exists. The
+ * timeline stays available to the actuator {@code startup} endpoint.
+ */
+@Slf4j
+public class StartupReport implements ApplicationListener<SpringApplicationEvent> {
+
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private BufferingApplicationStartup startup;
+    private int top;
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        if (event instanceof ApplicationEnvironmentPreparedEvent prepared) {
+            Environment environment = prepared.getEnvironment();
+            if (environment.getProperty("startup.report.enabled", Boolean.class, false)) {
+                top = environment.getProperty("startup.report.top", Integer.class, 15);
+                startup = new BufferingApplicationStartup(BUFFER_CAPACITY);
+                prepared.getSpringApplication().setApplicationStartup(startup);
+            }
+        } else if (event instanceof ApplicationReadyEvent ready && startup != null) {
+            report(ready.getTimeTaken());
+        }
+    }
+
+    private void report(Duration timeTaken) {
+        List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+
+        // Subtract each step's duration from its parent to get the bean's own time
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (StartupTimeline.TimelineEvent e : events) {
+            Long parentId = e.getStartupStep().getParentId();
+            if (parentId != null) {
+                childNanos.merge(parentId, e.getDuration().toNanos(), Long::sum);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Startup report: ready in %d ms, JVM uptime %d ms, %d steps recorded%n",
+                timeTaken.toMillis(), ManagementFactory.getRuntimeMXBean().getUptime(), events.size()));
+        sb.append(String.format("  %10s %10s  %s%n", "self ms", "total ms", "bean"));
+        events.stream()
+                .filter(e -> BEAN_STEP.equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparingLong((StartupTimeline.TimelineEvent e) -> selfNanos(e, childNanos)).reversed())
+                .limit(top)
+                .forEach(e -> sb.append(String.format("  %10.1f %10.1f  %s%n",
+                        selfNanos(e, childNanos) / 1e6, e.getDuration().toNanos() / 1e6, beanName(e.getStartupStep()))));
+        log.info(sb.toString());
+    }
+
+    private static long selfNanos(StartupTimeline.TimelineEvent event, Map<Long, Long> childNanos) {
+        return event.getDuration().toNanos() - childNanos.getOrDefault(event.getStartupStep().getId(), 0L);
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
@@ -0,0 +1,115 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.service.FilteredRequestLogPublisher;
+import com.isaaclins.homeserver.service.JwtService;
+import com.isaaclins.homeserver.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP connections and limits what clients may subscribe and
+ * send to:
+ *
+ * <ul>
+ * <li>CONNECT may carry {@code Authorization: Bearer <jwt>}. A valid token
+ * makes its subject the session's user; an invalid one rejects the
+ * connection. Without the header the session stays anonymous.</li>
+ * <li>SUBSCRIBE is allowed to {@code /topic/**}, and to {@code /user/**} for
+ * authenticated sessions only. Subscribing to {@code /queue/**} directly (or
+ * a pattern covering it) would match other users' resolved queues. The
+ * request-log topics ({@code /topic/request-logs/**}, or a pattern that
+ * matches them) carry what the admin monitoring API serves, so they need a
+ * session whose user is an admin.</li>
+ * <li>SEND is allowed to {@code /app/**} only, so clients cannot publish into
+ * broker destinations.</li>
+ * </ul>
+ *
+ * Rejected frames reach the client as an ERROR frame.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER = "Bearer ";
+    private static final String REQUEST_LOG_TOPIC = "/topic/request-logs";
+
+    private final JwtService jwtService;
+    private final UserService userService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT:
+                String authorization = accessor.getFirstNativeHeader("Authorization");
+                if (authorization != null) {
+                    String token = authorization.startsWith(BEARER) ? authorization.substring(BEARER.length()) : "";
+                    if (!jwtService.validate(token)) {
+                        throw new MessageDeliveryException(message, "Invalid token");
+                    }
+                    accessor.setUser(new StompUser(jwtService.getSubject(token)));
+                }
+                break;
+            case SUBSCRIBE:
+                String destination = accessor.getDestination();
+                if (destination == null
+                        || !(destination.startsWith("/topic/") || destination.startsWith("/user/"))) {
+                    throw new MessageDeliveryException(message, "Cannot subscribe to " + destination);
+                }
+                if (destination.startsWith("/user/") && accessor.getUser() == null) {
+                    throw new MessageDeliveryException(message, "Subscribing to " + destination
+                            + " needs an authenticated connection");
+                }
+                if (isRequestLogTopic(destination) && !isAdmin(accessor.getUser())) {
+                    throw new MessageDeliveryException(message, "Subscribing to " + destination
+                            + " needs an admin connection");
+                }
+                break;
+            case SEND:
+                if (accessor.getDestination() == null || !accessor.getDestination().startsWith("/app/")) {
+                    throw new MessageDeliveryException(message, "Cannot send to " + accessor.getDestination());
+                }
+                break;
+            default:
+                break;
+        }
+        return message;
+    }
+
+    private boolean isRequestLogTopic(String destination) {
+        if (destination.equals(REQUEST_LOG_TOPIC) || destination.startsWith(REQUEST_LOG_TOPIC + "/")) {
+            return true;
+        }
+        // The simple broker treats subscription destinations as patterns, e.g. /topic/**
+        return pathMatcher.isPattern(destination) && (pathMatcher.match(destination, REQUEST_LOG_TOPIC)
+                || pathMatcher.match(destination, FilteredRequestLogPublisher.DESTINATION));
+    }
+
+    private boolean isAdmin(Principal user) {
+        return user != null && userService.getUserByUsername(user.getName())
+                .map(User::getIsAdmin)
+                .orElse(false);
+    }
+
+    private record StompUser(String name) implements Principal {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
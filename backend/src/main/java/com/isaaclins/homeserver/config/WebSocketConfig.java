@@ -1,6 +1,11 @@
 package com.isaaclins.homeserver.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -8,13 +13,44 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Same switch Spring Boot uses for Tomcat and @Scheduled (see application-virtual.properties)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
+    private final RequestLogSubscriptionInterceptor requestLogSubscriptionInterceptor;
+    private final ObjectProvider<ClusterForwardingInterceptor> clusterForwardingInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        // Chat tokens must reach each session in the order they were published
+        config.setPreservePublishOrder(true);
+        if (virtualThreads) {
+            config.configureBrokerChannel().executor(virtualThreadExecutor("ws-broker-"));
+        }
+        // Cluster mode: topic and user messages published here are copied to the other nodes
+        clusterForwardingInterceptor.ifAvailable(config.configureBrokerChannel()::interceptors);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthenticationInterceptor, requestLogSubscriptionInterceptor);
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-outbound-"));
+        }
     }
 
     @Override
@@ -24,4 +60,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*") // Allow frontend connection
                 .withSockJS(); // Enable SockJS fallback options
     }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
@@ -1,19 +1,49 @@
 package com.isaaclins.homeserver.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.RegistrationCode;
 import com.isaaclins.homeserver.service.RegistrationCodeService;
+import com.isaaclins.homeserver.service.UserBulkService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private static final int MAX_BATCH_CODES = 100_000;
+    private static final long MAX_CODE_TTL_SECONDS = Duration.ofDays(30).toSeconds();
+
     private final RegistrationCodeService codeService;
+    private final UserBulkService userBulkService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public AdminController(RegistrationCodeService codeService) {
+    public AdminController(RegistrationCodeService codeService, UserBulkService userBulkService,
+            ObjectMapper objectMapper) {
         this.codeService = codeService;
+        this.userBulkService = userBulkService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -40,4 +70,137 @@ public class AdminController {
         }
         return ResponseEntity.ok(codeService.listActiveCodes());
     }
+
+    /**
+     * Generates a batch of one-time registration codes, e.g. for onboarding
+     * events. Each code is valid for ttlSeconds (default 60) and has the given
+     * number of digits (default 6). Codes are streamed back as a JSON array or,
+     * with format=csv, as CSV while later batches are still being inserted.
+     */
+    @PostMapping("/registration-codes/batch")
+    public ResponseEntity<?> generateCodes(@RequestHeader("X-Admin-Secret") String adminSecret,
+            @RequestBody BatchCodeRequest request,
+            @RequestParam(required = false) String format) {
+        if (!isValidSecret(adminSecret)) {
+            return ResponseEntity.status(403).body("Forbidden: invalid admin secret");
+        }
+        if (request.getCount() < 1 || request.getCount() > MAX_BATCH_CODES
+                || request.getTtlSeconds() < 1 || request.getTtlSeconds() > MAX_CODE_TTL_SECONDS
+                || request.getLength() < RegistrationCodeService.DEFAULT_CODE_LENGTH
+                || request.getLength() > RegistrationCodeService.MAX_CODE_LENGTH) {
+            return ResponseEntity.badRequest().body("Invalid batch parameters");
+        }
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> {
+            if (csv) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write("code,expiresAt\n");
+                codeService.generateCodes(request.getCount(), Duration.ofSeconds(request.getTtlSeconds()),
+                        request.getLength(), codes -> {
+                            try {
+                                for (RegistrationCode code : codes) {
+                                    writer.write(code.getCode() + "," + code.getExpiresAt() + "\n");
+                                }
+                                writer.flush();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                writer.flush();
+            } else {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+                json.writeStartArray();
+                codeService.generateCodes(request.getCount(), Duration.ofSeconds(request.getTtlSeconds()),
+                        request.getLength(), codes -> {
+                            try {
+                                for (RegistrationCode code : codes) {
+                                    json.writeStartObject();
+                                    json.writeStringField("code", code.getCode());
+                                    json.writeStringField("expiresAt", code.getExpiresAt().toString());
+                                    json.writeEndObject();
+                                }
+                                json.flush();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                json.writeEndArray();
+                json.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Bulk-imports users from an NDJSON (default) or CSV request body
+     * (format=csv or Content-Type text/csv). The response is streamed as
+     * NDJSON: one result per input row, followed by a summary line.
+     */
+    @PostMapping("/users/import")
+    public void importUsers(@RequestHeader("X-Admin-Secret") String adminSecret,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!isValidSecret(adminSecret)) {
+            response.setStatus(403);
+            response.getWriter().write("Forbidden: invalid admin secret");
+            return;
+        }
+
+        String contentType = request.getContentType();
+        UserBulkService.Format inputFormat = format != null
+                ? UserBulkService.Format.parse(format)
+                : UserBulkService.Format.parse(contentType != null && contentType.contains("csv") ? "csv" : null);
+
+        response.setStatus(200);
+        response.setContentType(NDJSON.toString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = response.getWriter();
+        Map<String, Long> summary = userBulkService.importUsers(request.getInputStream(), inputFormat, result -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(result));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException("Client stopped reading import results", e);
+            }
+        });
+        writer.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Streams every user as NDJSON (default) or CSV (format=csv). Passwords
+     * are not exported; add a password column before feeding the output back
+     * into {@link #importUsers}.
+     */
+    @GetMapping("/users/export")
+    public ResponseEntity<?> exportUsers(@RequestHeader("X-Admin-Secret") String adminSecret,
+            @RequestParam(required = false) String format) {
+        if (!isValidSecret(adminSecret)) {
+            return ResponseEntity.status(403).body("Forbidden: invalid admin secret");
+        }
+
+        UserBulkService.Format outputFormat = UserBulkService.Format.parse(format);
+        StreamingResponseBody body = out -> userBulkService.exportUsers(outputFormat, out);
+        return ResponseEntity.ok()
+                .contentType(outputFormat == UserBulkService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users."
+                        + (outputFormat == UserBulkService.Format.CSV ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    private boolean isValidSecret(String adminSecret) {
+        String expectedSecret = System.getenv("ADMIN_SECRET");
+        return expectedSecret != null && expectedSecret.equals(adminSecret);
+    }
+
+    @Data
+    public static class BatchCodeRequest {
+        private int count;
+        private long ttlSeconds = 60;
+        private int length = RegistrationCodeService.DEFAULT_CODE_LENGTH;
+    }
 }
@@ -36,10 +36,7 @@ public class AuthController {
             return ResponseEntity.badRequest().body("Missing credentials");
         }
 
-        Optional<User> optionalUser = userService.getUserByUsername(request.getUsernameOrEmail());
-        if (optionalUser.isEmpty()) {
-            optionalUser = userService.getUserByEmail(request.getUsernameOrEmail());
-        }
+        Optional<User> optionalUser = userService.getUserByUsernameOrEmail(request.getUsernameOrEmail());
 
         if (optionalUser.isEmpty()) {
             logger.warn("Login failed: User not found for username/email: {}", request.getUsernameOrEmail());
@@ -67,6 +64,22 @@ public class AuthController {
         return ResponseEntity.ok(resp);
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing token");
+        }
+
+        String token = authHeader.substring(7);
+        if (!jwtService.validate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+        }
+
+        jwtService.revoke(token);
+        logger.info("Logout successful for user: {}", jwtService.getSubject(token));
+        return ResponseEntity.noContent().build();
+    }
+
     @Data
     public static class LoginRequest {
         private String usernameOrEmail;
@@ -0,0 +1,49 @@
+package com.isaaclins.homeserver.controller;
+
+import com.isaaclins.homeserver.dto.ChatRequest;
+import com.isaaclins.homeserver.service.JwtService;
+import com.isaaclins.homeserver.service.OllamaChatService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/chat")
+@RequiredArgsConstructor
+public class ChatController {
+
+    private final OllamaChatService chatService;
+    private final JwtService jwtService;
+
+    /**
+     * Queues a chat completion and answers right away; the reply streams to
+     * the returned STOMP user destination, so the STOMP connection must be
+     * authenticated with the same user. Subscribe before posting (with your
+     * own chatId) to be sure to receive the first tokens.
+     */
+    @PostMapping
+    public ResponseEntity<?> chat(@RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody ChatRequest request) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Missing token"));
+        }
+        String token = authHeader.substring(7);
+        if (!jwtService.validate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid token"));
+        }
+
+        try {
+            String chatId = chatService.submit(request, jwtService.getSubject(token));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "chatId", chatId,
+                    "destination", "/user" + OllamaChatService.DESTINATION_PREFIX + chatId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (OllamaChatService.QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.isaaclins.homeserver.controller;
 
+import com.isaaclins.homeserver.service.HealthProbeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -8,8 +12,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@RequiredArgsConstructor
 public class HealthController {
 
+    private final HealthProbeService healthProbeService;
+
     @GetMapping("/")
     public Map<String, Object> root() {
         Map<String, Object> response = new HashMap<>();
@@ -21,11 +28,16 @@ public class HealthController {
         return response;
     }
 
+    /**
+     * Overall status from the cached dependency probes; 503 only when a probe
+     * is DOWN. Details are on /actuator/health.
+     */
     @GetMapping("/health")
-    public Map<String, String> simpleHealth() {
+    public ResponseEntity<Map<String, String>> simpleHealth() {
+        Status status = healthProbeService.getOverallStatus();
         Map<String, String> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", status.getCode());
         health.put("timestamp", LocalDateTime.now().toString());
-        return health;
+        return ResponseEntity.status(Status.DOWN.equals(status) ? 503 : 200).body(health);
     }
 }
@@ -1,16 +1,24 @@
 package com.isaaclins.homeserver.controller;
 
+import com.isaaclins.homeserver.config.ReplicaLagMonitor;
+import com.isaaclins.homeserver.config.SqlStatementMonitor;
 import com.isaaclins.homeserver.entity.RequestLog;
 import com.isaaclins.homeserver.entity.SystemMetrics;
 import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.service.ArchiveService;
+import com.isaaclins.homeserver.service.DashboardSnapshotService;
 import com.isaaclins.homeserver.service.RequestLogService;
 import com.isaaclins.homeserver.service.SystemMetricsService;
+import com.isaaclins.homeserver.service.TrafficSketchService;
 import com.isaaclins.homeserver.service.UserService;
 import com.isaaclins.homeserver.service.JwtService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,16 +35,23 @@ public class MonitoringController {
     private final RequestLogService requestLogService;
     private final UserService userService;
     private final JwtService jwtService;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+    private final SqlStatementMonitor sqlStatementMonitor;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final TrafficSketchService trafficSketchService;
+    private final ArchiveService archiveService;
 
+    // System metrics are per host: node defaults to this instance (see NodeIdentity)
     @GetMapping("/metrics/24h")
     public ResponseEntity<?> getSystemMetrics24h(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(required = false) String node) {
         if (!isAdminUser(authHeader)) {
             return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
         }
 
         try {
-            List<SystemMetrics> metrics = systemMetricsService.getMetricsForLast24Hours();
+            List<SystemMetrics> metrics = systemMetricsService.getMetricsForLast24Hours(node);
             return ResponseEntity.ok(metrics);
         } catch (Exception e) {
             log.error("Error fetching 24h metrics", e);
@@ -46,13 +61,14 @@ public class MonitoringController {
 
     @GetMapping("/metrics/latest")
     public ResponseEntity<?> getLatestMetrics(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(required = false) String node) {
         if (!isAdminUser(authHeader)) {
             return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
         }
 
         try {
-            SystemMetrics metrics = systemMetricsService.getLatestMetrics();
+            SystemMetrics metrics = systemMetricsService.getLatestMetrics(node);
             return ResponseEntity.ok(metrics);
         } catch (Exception e) {
             log.error("Error fetching latest metrics", e);
@@ -95,31 +111,165 @@ public class MonitoringController {
         }
     }
 
+    /**
+     * Everything the admin dashboard needs in one response, served from the
+     * shared snapshot. Carries an ETag, so a poll that finds the snapshot
+     * unchanged is answered with 304. System metrics are this instance's
+     * unless {@code node} names another one.
+     */
     @GetMapping("/dashboard/data")
     public ResponseEntity<?> getDashboardData(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(required = false) String node,
+            WebRequest webRequest) {
         if (!isAdminUser(authHeader)) {
             return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
         }
 
         try {
-            // Get all dashboard data in one request
-            List<SystemMetrics> metrics24h = systemMetricsService.getMetricsForLast24Hours();
-            SystemMetrics latestMetrics = systemMetricsService.getLatestMetrics();
-            List<RequestLog> recentRequests = requestLogService.getRecentRequestLogs(50);
-
-            Map<String, Object> dashboardData = Map.of(
-                    "metrics24h", metrics24h,
-                    "latestMetrics", latestMetrics != null ? latestMetrics : new SystemMetrics(),
-                    "recentRequests", recentRequests);
-
-            return ResponseEntity.ok(dashboardData);
+            DashboardSnapshotService.DashboardSnapshot snapshot = dashboardSnapshotService.getSnapshot(node);
+            if (webRequest.checkNotModified(snapshot.getEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(snapshot.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.getJson());
         } catch (Exception e) {
             log.error("Error fetching dashboard data", e);
             return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch dashboard data"));
         }
     }
 
+    /**
+     * Top routes, IPs and users and distinct counts over the last
+     * {@code minutes}, from the in-memory sketches rather than request_logs.
+     */
+    @GetMapping("/traffic")
+    public ResponseEntity<?> getTraffic(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        return ResponseEntity.ok(trafficSketchService.getSummary(minutes, Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/traffic/hourly")
+    public ResponseEntity<?> getHourlyTraffic(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(defaultValue = "24") int hours) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        return ResponseEntity.ok(trafficSketchService.getHourly(hours));
+    }
+
+    /**
+     * Archived rows of {@code request-logs} or {@code system-metrics} in
+     * [from, to). Only archive files overlapping the range are read.
+     */
+    @GetMapping("/archive/{dataset}")
+    public ResponseEntity<?> queryArchive(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @PathVariable String dataset,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        Optional<ArchiveService.Dataset> archived = archiveDataset(dataset);
+        if (archived.isEmpty()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Unknown archive " + dataset));
+        }
+        LocalDateTime fromDateTime;
+        LocalDateTime toDateTime;
+        try {
+            fromDateTime = LocalDateTime.parse(from);
+            toDateTime = LocalDateTime.parse(to);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from and to must be ISO date-times"));
+        }
+
+        try {
+            return ResponseEntity.ok(archiveService.query(archived.get(), fromDateTime, toDateTime,
+                    Math.max(1, Math.min(limit, 10000))));
+        } catch (Exception e) {
+            log.error("Error querying the {} archive", dataset, e);
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to read the archive"));
+        }
+    }
+
+    @GetMapping("/archive/{dataset}/files")
+    public ResponseEntity<?> getArchiveFiles(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @PathVariable String dataset) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        return archiveDataset(dataset)
+                .<ResponseEntity<?>>map(archived -> ResponseEntity.ok(archiveService.getFiles(archived)))
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Unknown archive " + dataset)));
+    }
+
+    @GetMapping("/cache/users")
+    public ResponseEntity<?> getUserCacheStats(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        return ResponseEntity.ok(userService.getCacheStats());
+    }
+
+    @GetMapping("/sql/slow")
+    public ResponseEntity<?> getSlowQueries(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        return ResponseEntity.ok(sqlStatementMonitor.getSlowQueries());
+    }
+
+    @DeleteMapping("/sql/slow")
+    public ResponseEntity<?> clearSlowQueries(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        sqlStatementMonitor.clearSlowQueries();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/replica")
+    public ResponseEntity<?> getReplicaStatus(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        return ResponseEntity.ok(monitor != null ? monitor.getStatus() : Map.of("enabled", false));
+    }
+
+    // URL form of the dataset: request-logs, system-metrics
+    private static Optional<ArchiveService.Dataset> archiveDataset(String name) {
+        for (ArchiveService.Dataset dataset : ArchiveService.Dataset.values()) {
+            if (dataset.getDirectory().replace('_', '-').equals(name)) {
+                return Optional.of(dataset);
+            }
+        }
+        return Optional.empty();
+    }
+
     private boolean isAdminUser(String authHeader) {
         try {
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -1,5 +1,8 @@
 package com.isaaclins.homeserver.controller;
 
+import com.isaaclins.homeserver.dto.UserCursor;
+import com.isaaclins.homeserver.dto.UserPage;
+import com.isaaclins.homeserver.dto.UserSummary;
 import com.isaaclins.homeserver.entity.User;
 import com.isaaclins.homeserver.service.UserService;
 import jakarta.validation.Valid;
@@ -8,6 +11,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,13 +20,63 @@ import java.util.Optional;
 @RequestMapping("/api")
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     @Autowired
     private UserService userService;
 
+    /**
+     * Lists users one keyset page at a time, sorted by username or createdAt.
+     * The body stays a plain JSON array; the cursor for the following page is
+     * returned in the X-Next-Cursor header. The response carries the
+     * collection version as ETag, so an unchanged If-None-Match is answered
+     * with 304 without touching the database.
+     */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserSummary>> getAllUsers(
+            @RequestParam(defaultValue = "username") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            WebRequest webRequest) {
+        String etag = "\"" + userService.getCollectionVersion() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        UserPage page;
+        try {
+            UserCursor.SortField sortField = UserCursor.SortField.parse(sort);
+            UserCursor after = cursor != null && !cursor.isEmpty() ? UserCursor.decode(cursor, sortField) : null;
+            page = userService.getUserSummaryPage(sortField, !"desc".equalsIgnoreCase(direction), after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Type-ahead search: users whose username or email starts with the given
+     * prefix (case-insensitive), served from the in-memory prefix index.
+     */
+    @GetMapping("/users/search")
+    public ResponseEntity<List<UserSummary>> searchUsers(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.searchByPrefix(prefix, limit));
     }
 
     @GetMapping("/users/{id}")
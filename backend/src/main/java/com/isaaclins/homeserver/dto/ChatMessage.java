@@ -0,0 +1,17 @@
+package com.isaaclins.homeserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One turn of a chat conversation in Ollama's format; role is system, user or
+ * assistant.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessage {
+    private String role;
+    private String content;
+}
@@ -0,0 +1,21 @@
+package com.isaaclins.homeserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A chat completion to stream. The client may pick {@code chatId} itself and
+ * subscribe to {@code /topic/chat/{chatId}} before submitting, so no token is
+ * missed; otherwise one is generated and returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatRequest {
+    private String chatId;
+    private String model;
+    private List<ChatMessage> messages;
+}
@@ -0,0 +1,105 @@
+package com.isaaclins.homeserver.dto;
+
+import com.isaaclins.homeserver.entity.RequestLog;
+import lombok.Value;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Filter a client attaches to its live request-log subscription through
+ * SUBSCRIBE headers. Every criterion is optional; an event matches if it
+ * satisfies all criteria that are set.
+ *
+ * <ul>
+ * <li>{@code status}: comma-separated status classes, e.g. {@code 4xx,5xx}</li>
+ * <li>{@code username}: exact username</li>
+ * <li>{@code route-prefix}: endpoint prefix, e.g. {@code /api/admin}</li>
+ * <li>{@code min-latency-ms}: minimum response time</li>
+ * </ul>
+ */
+@Value
+public class RequestLogFilter {
+
+    public static final String STATUS_HEADER = "status";
+    public static final String USERNAME_HEADER = "username";
+    public static final String ROUTE_PREFIX_HEADER = "route-prefix";
+    public static final String MIN_LATENCY_HEADER = "min-latency-ms";
+
+    /** Bit {@code n} set: status class {@code n}xx accepted. 0 means any status. */
+    int statusClasses;
+    String username;
+    String routePrefix;
+    Long minLatencyMs;
+
+    /**
+     * Parses the filter headers.
+     *
+     * @throws IllegalArgumentException if a header value is malformed
+     */
+    public static RequestLogFilter fromHeaders(Function<String, String> header) {
+        return new RequestLogFilter(
+                parseStatusClasses(header.apply(STATUS_HEADER)),
+                emptyToNull(header.apply(USERNAME_HEADER)),
+                emptyToNull(header.apply(ROUTE_PREFIX_HEADER)),
+                parseMinLatency(header.apply(MIN_LATENCY_HEADER)));
+    }
+
+    public boolean acceptsStatusClass(int statusClass) {
+        return statusClasses == 0 || (statusClasses & (1 << statusClass)) != 0;
+    }
+
+    /**
+     * Evaluates the filter directly against one event. The subscription index
+     * produces the same result without visiting every filter.
+     */
+    public boolean matches(RequestLog requestLog) {
+        return acceptsStatusClass(statusClass(requestLog.getStatusCode()))
+                && (username == null || username.equals(requestLog.getUsername()))
+                && (routePrefix == null || (requestLog.getEndpoint() != null
+                        && requestLog.getEndpoint().startsWith(routePrefix)))
+                && (minLatencyMs == null || latency(requestLog) >= minLatencyMs);
+    }
+
+    public static int statusClass(Integer statusCode) {
+        return statusCode == null ? 0 : Math.floorDiv(statusCode, 100);
+    }
+
+    public static long latency(RequestLog requestLog) {
+        return requestLog.getResponseTimeMs() != null ? requestLog.getResponseTimeMs() : 0L;
+    }
+
+    private static int parseStatusClasses(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        int classes = 0;
+        for (String part : value.split(",")) {
+            String statusClass = part.trim().toLowerCase(Locale.ROOT);
+            if (!statusClass.matches("[1-5](xx)?")) {
+                throw new IllegalArgumentException("Invalid status class: " + part.trim());
+            }
+            classes |= 1 << (statusClass.charAt(0) - '0');
+        }
+        return classes;
+    }
+
+    private static Long parseMinLatency(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            long minLatency = Long.parseLong(value.trim());
+            if (minLatency < 0) {
+                throw new IllegalArgumentException("min-latency-ms must not be negative");
+            }
+            return minLatency;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid min-latency-ms: " + value);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
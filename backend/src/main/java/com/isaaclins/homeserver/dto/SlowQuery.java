@@ -0,0 +1,22 @@
+package com.isaaclins.homeserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the slow query table: a statement shape (literals replaced by
+ * {@code ?}) and how often and how slowly it ran above the threshold.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQuery {
+    private String sql;
+    private long count;
+    private double maxMillis;
+    private double avgMillis;
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,85 @@
+package com.isaaclins.homeserver.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paging through users. Encodes the sort key of the
+ * last row of a page (plus the id as tie-breaker for createdAt) so the next
+ * page can be fetched with an indexed range predicate instead of OFFSET.
+ */
+@Getter
+public class UserCursor {
+
+    public enum SortField {
+        USERNAME, CREATED_AT;
+
+        public static SortField parse(String value) {
+            if (value == null || value.equalsIgnoreCase("username")) {
+                return USERNAME;
+            }
+            if (value.equalsIgnoreCase("createdAt")) {
+                return CREATED_AT;
+            }
+            throw new IllegalArgumentException("Unsupported sort field: " + value);
+        }
+    }
+
+    private final SortField sortField;
+    private final String username;
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private UserCursor(SortField sortField, String username, LocalDateTime createdAt, Long id) {
+        this.sortField = sortField;
+        this.username = username;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static UserCursor after(SortField sortField, UserSummary last) {
+        return new UserCursor(sortField, last.getUsername(), last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        String raw = sortField == SortField.USERNAME
+                ? "u:" + username
+                : "c:" + id + ":" + createdAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued
+     *                                  for a different sort field
+     */
+    public static UserCursor decode(String cursor, SortField expected) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        if (expected == SortField.USERNAME && raw.startsWith("u:")) {
+            return new UserCursor(expected, raw.substring(2), null, null);
+        }
+        if (expected == SortField.CREATED_AT && raw.startsWith("c:")) {
+            int sep = raw.indexOf(':', 2);
+            if (sep > 0) {
+                try {
+                    Long id = Long.parseLong(raw.substring(2, sep));
+                    LocalDateTime createdAt = LocalDateTime.parse(raw.substring(sep + 1));
+                    return new UserCursor(expected, null, createdAt, id);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+            }
+        }
+        throw new IllegalArgumentException("Cursor does not match sort field");
+    }
+}
@@ -0,0 +1,35 @@
+package com.isaaclins.homeserver.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of importing a single row in a bulk user import. Streamed back to
+ * the caller as one NDJSON line per input row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+
+    public static final String CREATED = "created";
+    public static final String INVALID = "invalid";
+    public static final String CONFLICT = "conflict";
+
+    private long line;
+    private String status;
+    private Long id;
+    private String username;
+    private String error;
+
+    public static UserImportResult created(long line, String username, Long id) {
+        return new UserImportResult(line, CREATED, id, username, null);
+    }
+
+    public static UserImportResult failed(long line, String status, String username, String error) {
+        return new UserImportResult(line, status, null, username, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.isaaclins.homeserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page of user summaries. {@code nextCursor} is null on the last
+ * page.
+ */
+@Data
+@AllArgsConstructor
+public class UserPage {
+    private List<UserSummary> items;
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.isaaclins.homeserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read-only view of a user for list endpoints. Selected directly
+ * by JPQL constructor expressions so the password column is never loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private Boolean isAdmin;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,75 @@
+package com.isaaclins.homeserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A unit of background work in the persistent job queue (see JobService).
+ * Workers claim PENDING jobs whose {@code runAt} has passed, highest
+ * {@code priority} first. A failed job goes back to PENDING with a later
+ * {@code runAt} until {@code maxAttempts} is used up. {@code dedupKey} is
+ * unique while a job is queued or running and cleared once it finishes, so
+ * the same key can be enqueued again afterwards.
+ */
+@Entity
+@Table(name = "jobs", indexes = @Index(name = "status_run_at_idx", columnList = "status, runAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class Job {
+
+    public enum Status {
+        PENDING, RUNNING, SUCCEEDED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String type;
+
+    @Column(length = 2000)
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private Integer maxAttempts;
+
+    @Column(unique = true)
+    private String dedupKey;
+
+    @Column(nullable = false)
+    private LocalDateTime runAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime heartbeatAt; // Last lease renewal by the worker running it
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    @Column
+    private String lockedBy; // Worker that claimed the job (node id plus a per-run suffix)
+
+    @Column(length = 2000)
+    private String lastError;
+}
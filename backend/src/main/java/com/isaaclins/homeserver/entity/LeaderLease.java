@@ -0,0 +1,35 @@
+package com.isaaclins.homeserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A named lease one instance holds until {@code expiresAt} and keeps renewing
+ * (see LeaderElectionService). {@code fencingToken} goes up by one every time
+ * the lease changes hands. A former holder can therefore tell that it has been
+ * replaced, even if it was paused past its expiry.
+ */
+@Entity
+@Table(name = "leader_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+public class LeaderLease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private String holder; // node id plus a per-start suffix
+
+    @Column(nullable = false)
+    private Long fencingToken;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
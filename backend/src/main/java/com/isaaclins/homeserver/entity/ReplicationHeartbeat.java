@@ -0,0 +1,25 @@
+package com.isaaclins.homeserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Single-row table the application stamps on the primary database; reading the
+ * row back from a replica shows how far replication lags behind. Only used
+ * when a read replica is configured (see ReplicaLagMonitor).
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReplicationHeartbeat {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long beatMillis;
+}
@@ -14,8 +14,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class RequestLog {
 
+    // IDENTITY would force one INSERT round-trip per row. A pooled-lo sequence
+    // hands out ids in blocks of 1000, so buffered logs are written as JDBC batches.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_logs_seq")
+    @SequenceGenerator(name = "request_logs_seq", sequenceName = "request_logs_seq", allocationSize = 1000)
     private Long id;
 
     @Column(nullable = false)
@@ -41,4 +44,10 @@ public class RequestLog {
 
     @Column
     private String ipAddress; // Client IP address
+
+    @Column
+    private Integer statementCount; // JDBC statements executed while handling the request
+
+    @Column
+    private Long dbTimeMs; // Time spent in those statements
 }
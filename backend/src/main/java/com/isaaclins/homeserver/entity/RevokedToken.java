@@ -0,0 +1,46 @@
+package com.isaaclins.homeserver.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * RevokedToken records a JWT that must no longer be accepted. The token id is
+ * either a token's jti claim or a "sub:" prefixed subject, the latter
+ * revoking every token issued to that subject before {@code revokedAt}.
+ * Rows are purged once {@code expiresAt} passes, since the revoked tokens
+ * would be rejected as expired by then anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String tokenId;
+
+    @Column
+    private String subject;
+
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public RevokedToken(String tokenId, String subject, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.subject = subject;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -8,14 +8,18 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "system_metrics")
+@Table(name = "system_metrics", indexes = {
+        @Index(name = "idx_system_metrics_node_timestamp", columnList = "nodeId, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SystemMetrics {
 
+    // Sequence rather than IDENTITY so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "system_metrics_seq")
+    @SequenceGenerator(name = "system_metrics_seq", sequenceName = "system_metrics_seq", allocationSize = 100)
     private Long id;
 
     @Column(nullable = false)
@@ -38,4 +42,7 @@ public class SystemMetrics {
 
     @Column(nullable = false)
     private Long networkBytesSent; // Bytes
+
+    @Column
+    private String nodeId; // Instance that measured these (every instance collects its own host's)
 }
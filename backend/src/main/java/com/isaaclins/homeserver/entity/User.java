@@ -9,7 +9,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_at", columnList = "createdAt, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
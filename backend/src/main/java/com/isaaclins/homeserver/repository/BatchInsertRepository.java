@@ -0,0 +1,17 @@
+package com.isaaclins.homeserver.repository;
+
+/**
+ * Repository fragment for bulk inserts of new entities. Unlike
+ * {@code saveAll}, the persistence context is flushed and cleared every
+ * {@code hibernate.jdbc.batch_size} entities, so each flush becomes one JDBC
+ * batch and memory stays flat for large inputs. Only useful for entities whose
+ * ids are not IDENTITY-generated (IDENTITY disables insert batching).
+ */
+public interface BatchInsertRepository<T> {
+
+    /**
+     * Persists all entities in one transaction and returns how many were
+     * inserted. Entities must be new; they are detached afterwards.
+     */
+    int insertAll(Iterable<T> entities);
+}
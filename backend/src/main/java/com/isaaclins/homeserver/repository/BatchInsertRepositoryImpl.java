@@ -0,0 +1,31 @@
+package com.isaaclins.homeserver.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+public class BatchInsertRepositoryImpl<T> implements BatchInsertRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public int insertAll(Iterable<T> entities) {
+        int count = 0;
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return count;
+    }
+}
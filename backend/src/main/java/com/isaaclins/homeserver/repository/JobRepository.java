@@ -0,0 +1,92 @@
+package com.isaaclins.homeserver.repository;
+
+import com.isaaclins.homeserver.entity.Job;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+
+    Optional<Job> findByDedupKey(String dedupKey);
+
+    // Ids of jobs of the given types ready to run, in the order workers should take them
+    @Query("SELECT j.id FROM Job j WHERE j.status = com.isaaclins.homeserver.entity.Job.Status.PENDING"
+            + " AND j.runAt <= :now AND j.type IN :types ORDER BY j.priority DESC, j.runAt ASC, j.id ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, @Param("types") Collection<String> types,
+            Pageable pageable);
+
+    @Query("SELECT COUNT(j) FROM Job j WHERE j.status = com.isaaclins.homeserver.entity.Job.Status.PENDING"
+            + " AND j.runAt <= :now")
+    long countDue(@Param("now") LocalDateTime now);
+
+    @Query("SELECT MAX(j.createdAt) FROM Job j WHERE j.type = :type")
+    LocalDateTime findLastCreatedAt(@Param("type") String type);
+
+    // Take a job for one worker; 0 means another worker or instance got it first
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = com.isaaclins.homeserver.entity.Job.Status.RUNNING,"
+            + " j.attempts = j.attempts + 1, j.startedAt = :now, j.heartbeatAt = :now, j.lockedBy = :owner"
+            + " WHERE j.id = :id AND j.status = com.isaaclins.homeserver.entity.Job.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // finish and retryAt only apply to the attempt that still holds the job; 0 means its lease
+    // expired and the job was requeued (and maybe claimed again) in the meantime
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = :status, j.finishedAt = :now, j.dedupKey = NULL, j.lastError = :error"
+            + " WHERE j.id = :id AND j.status = com.isaaclins.homeserver.entity.Job.Status.RUNNING"
+            + " AND j.lockedBy = :owner AND j.attempts = :attempt")
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("attempt") int attempt,
+            @Param("status") Job.Status status, @Param("now") LocalDateTime now, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = com.isaaclins.homeserver.entity.Job.Status.PENDING, j.runAt = :runAt,"
+            + " j.lockedBy = NULL, j.lastError = :error"
+            + " WHERE j.id = :id AND j.status = com.isaaclins.homeserver.entity.Job.Status.RUNNING"
+            + " AND j.lockedBy = :owner AND j.attempts = :attempt")
+    int retryAt(@Param("id") Long id, @Param("owner") String owner, @Param("attempt") int attempt,
+            @Param("runAt") LocalDateTime runAt, @Param("error") String error);
+
+    // Extend the lease of jobs this instance is still running
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.heartbeatAt = :now"
+            + " WHERE j.id IN :ids AND j.status = com.isaaclins.homeserver.entity.Job.Status.RUNNING"
+            + " AND j.lockedBy = :owner")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+            @Param("now") LocalDateTime now);
+
+    // Return jobs whose worker vanished (crash, redeploy) to the queue; rows claimed before
+    // heartbeats existed fall back to their start time
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = com.isaaclins.homeserver.entity.Job.Status.PENDING, j.lockedBy = NULL"
+            + " WHERE j.status = com.isaaclins.homeserver.entity.Job.Status.RUNNING"
+            + " AND COALESCE(j.heartbeatAt, j.startedAt) < :before")
+    int releaseExpiredLeases(@Param("before") LocalDateTime before);
+
+    // Hand back jobs an instance was still running when it shut down
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = com.isaaclins.homeserver.entity.Job.Status.PENDING, j.lockedBy = NULL"
+            + " WHERE j.status = com.isaaclins.homeserver.entity.Job.Status.RUNNING AND j.lockedBy = :owner")
+    int releaseOwnedBy(@Param("owner") String owner);
+
+    // Delete finished jobs (cleanup)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Job j WHERE j.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
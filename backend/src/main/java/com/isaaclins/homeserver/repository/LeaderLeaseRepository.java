@@ -0,0 +1,49 @@
+package com.isaaclins.homeserver.repository;
+
+import com.isaaclins.homeserver.entity.LeaderLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LeaderLeaseRepository extends JpaRepository<LeaderLease, String> {
+
+    // Renew our own lease or take over an expired one; 0 means someone else holds it.
+    // The token is assigned first because MySQL evaluates SET left to right.
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaderLease l SET"
+            + " l.fencingToken = CASE WHEN l.holder = :holder THEN l.fencingToken ELSE l.fencingToken + 1 END,"
+            + " l.holder = :holder, l.expiresAt = :expiresAt"
+            + " WHERE l.name = :name AND (l.holder = :holder OR l.expiresAt < :now)")
+    int acquire(@Param("name") String name, @Param("holder") String holder, @Param("now") LocalDateTime now,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Plain INSERT (save() would merge into a row another instance just created)
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO LeaderLease (name, holder, fencingToken, expiresAt) VALUES (:name, :holder, 1, :expiresAt)")
+    int create(@Param("name") String name, @Param("holder") String holder,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Row-locks the lease if we still hold it with this token; blocks a takeover until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM LeaderLease l WHERE l.name = :name AND l.holder = :holder"
+            + " AND l.fencingToken = :token AND l.expiresAt > :now")
+    Optional<LeaderLease> lockIfHeld(@Param("name") String name, @Param("holder") String holder,
+            @Param("token") Long token, @Param("now") LocalDateTime now);
+
+    // Give up the lease on shutdown so another instance can take over right away
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaderLease l SET l.expiresAt = :now WHERE l.name = :name AND l.holder = :holder")
+    int release(@Param("name") String name, @Param("holder") String holder, @Param("now") LocalDateTime now);
+}
@@ -2,9 +2,36 @@ package com.isaaclins.homeserver.repository;
 
 import com.isaaclins.homeserver.entity.RegistrationCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface RegistrationCodeRepository extends JpaRepository<RegistrationCode, Long> {
     Optional<RegistrationCode> findByCode(String code);
+
+    // Codes that are still usable (loaded into memory on startup)
+    List<RegistrationCode> findByExpiresAtAfter(LocalDateTime now);
+
+    // Single-statement delete of a consumed code
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RegistrationCode c WHERE c.code = :code")
+    int deleteByCode(@Param("code") String code);
+
+    // Consumes a code only while it is valid; 1 means this caller got it (cluster mode)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RegistrationCode c WHERE c.code = :code AND c.expiresAt > :now")
+    int deleteUnexpired(@Param("code") String code, @Param("now") LocalDateTime now);
+
+    // Bulk delete of expired codes (cleanup)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RegistrationCode c WHERE c.expiresAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
 }
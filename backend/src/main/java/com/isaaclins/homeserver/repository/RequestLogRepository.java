@@ -1,6 +1,7 @@
 package com.isaaclins.homeserver.repository;
 
 import com.isaaclins.homeserver.entity.RequestLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface RequestLogRepository extends JpaRepository<RequestLog, Long> {
+public interface RequestLogRepository extends JpaRepository<RequestLog, Long>, BatchInsertRepository<RequestLog> {
 
     // Get recent request logs (for real-time display)
     @Query("SELECT r FROM RequestLog r ORDER BY r.timestamp DESC")
@@ -22,6 +23,12 @@ public interface RequestLogRepository extends JpaRepository<RequestLog, Long> {
     @Query("SELECT r FROM RequestLog r WHERE r.timestamp >= :since ORDER BY r.timestamp DESC")
     List<RequestLog> findRequestsSince(@Param("since") LocalDateTime since);
 
+    // Next page of rows to archive, keyset-paged by id
+    @Query("SELECT r FROM RequestLog r WHERE r.timestamp >= :from AND r.timestamp < :to AND r.id > :afterId"
+            + " ORDER BY r.id")
+    List<RequestLog> findArchiveBatch(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("afterId") Long afterId, Pageable pageable);
+
     // Delete old request logs (cleanup)
     @Modifying
     @Transactional
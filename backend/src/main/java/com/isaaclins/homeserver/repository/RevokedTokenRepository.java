@@ -0,0 +1,28 @@
+package com.isaaclins.homeserver.repository;
+
+import com.isaaclins.homeserver.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    Optional<RevokedToken> findByTokenId(String tokenId);
+
+    // Revocations that still matter (used to warm the in-memory filter on startup)
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    // Delete revocations whose tokens have expired anyway (cleanup)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
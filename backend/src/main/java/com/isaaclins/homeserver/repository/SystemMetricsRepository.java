@@ -1,6 +1,7 @@
 package com.isaaclins.homeserver.repository;
 
 import com.isaaclins.homeserver.entity.SystemMetrics;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,15 +13,30 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface SystemMetricsRepository extends JpaRepository<SystemMetrics, Long> {
+public interface SystemMetricsRepository extends JpaRepository<SystemMetrics, Long>, BatchInsertRepository<SystemMetrics> {
 
-    // Get metrics for the last 24 hours
+    // Get metrics for the last 24 hours (single instance: every row is this host's)
     @Query("SELECT m FROM SystemMetrics m WHERE m.timestamp >= :since ORDER BY m.timestamp DESC")
     List<SystemMetrics> findMetricsSince(@Param("since") LocalDateTime since);
 
-    // Get latest metrics
+    // Get one node's metrics for the last 24 hours
+    @Query("SELECT m FROM SystemMetrics m WHERE m.nodeId = :nodeId AND m.timestamp >= :since"
+            + " ORDER BY m.timestamp DESC")
+    List<SystemMetrics> findMetricsSince(@Param("nodeId") String nodeId, @Param("since") LocalDateTime since);
+
+    // Get latest metrics (single instance)
     @Query("SELECT m FROM SystemMetrics m ORDER BY m.timestamp DESC")
-    List<SystemMetrics> findLatestMetrics();
+    List<SystemMetrics> findLatestMetrics(Pageable pageable);
+
+    // Get one node's latest metrics
+    @Query("SELECT m FROM SystemMetrics m WHERE m.nodeId = :nodeId ORDER BY m.timestamp DESC")
+    List<SystemMetrics> findLatestMetrics(@Param("nodeId") String nodeId, Pageable pageable);
+
+    // Next page of rows to archive, keyset-paged by id
+    @Query("SELECT m FROM SystemMetrics m WHERE m.timestamp >= :from AND m.timestamp < :to AND m.id > :afterId"
+            + " ORDER BY m.id")
+    List<SystemMetrics> findArchiveBatch(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("afterId") Long afterId, Pageable pageable);
 
     // Delete old metrics (cleanup)
     @Modifying
@@ -2,19 +2,31 @@ package com.isaaclins.homeserver.repository;
 
 import com.isaaclins.homeserver.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     // Additional custom query methods can be added here
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
+    // Single round-trip lookup for login (may match two rows: one by username, one by email)
+    List<User> findByUsernameOrEmail(String username, String email);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // Set-based duplicate check for bulk imports: [username, email] of every clashing row
+    @Query("SELECT u.username, u.email FROM User u WHERE u.username IN :usernames OR u.email IN :emails")
+    List<Object[]> findExistingUsernamesAndEmails(@Param("usernames") Collection<String> usernames,
+            @Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,13 @@
+package com.isaaclins.homeserver.repository;
+
+import com.isaaclins.homeserver.dto.UserCursor;
+import com.isaaclins.homeserver.dto.UserSummary;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    // Keyset page of user summaries strictly after the cursor (null for the first page)
+    List<UserSummary> findSummaryPage(UserCursor.SortField sortField, boolean ascending,
+            UserCursor after, int limit);
+}
@@ -0,0 +1,55 @@
+package com.isaaclins.homeserver.repository;
+
+import com.isaaclins.homeserver.dto.UserCursor;
+import com.isaaclins.homeserver.dto.UserSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * Keyset pagination over users. Each page is a range scan on the sort column
+ * (username is unique; createdAt is tie-broken by id) rather than an OFFSET
+ * scan, so deep pages cost the same as the first one.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String SELECT_SUMMARY = "SELECT new com.isaaclins.homeserver.dto.UserSummary("
+            + "u.id, u.username, u.email, u.isAdmin, u.createdAt) FROM User u";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> findSummaryPage(UserCursor.SortField sortField, boolean ascending,
+            UserCursor after, int limit) {
+        String cmp = ascending ? ">" : "<";
+        String dir = ascending ? "ASC" : "DESC";
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+
+        if (sortField == UserCursor.SortField.USERNAME) {
+            if (after != null) {
+                jpql.append(" WHERE u.username ").append(cmp).append(" :username");
+            }
+            jpql.append(" ORDER BY u.username ").append(dir);
+        } else {
+            if (after != null) {
+                jpql.append(" WHERE u.createdAt ").append(cmp).append(" :createdAt")
+                        .append(" OR (u.createdAt = :createdAt AND u.id ").append(cmp).append(" :id)");
+            }
+            jpql.append(" ORDER BY u.createdAt ").append(dir).append(", u.id ").append(dir);
+        }
+
+        TypedQuery<UserSummary> query = entityManager.createQuery(jpql.toString(), UserSummary.class);
+        if (after != null) {
+            if (sortField == UserCursor.SortField.USERNAME) {
+                query.setParameter("username", after.getUsername());
+            } else {
+                query.setParameter("createdAt", after.getCreatedAt());
+                query.setParameter("id", after.getId());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,374 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.RequestLog;
+import com.isaaclins.homeserver.entity.SystemMetrics;
+import com.isaaclins.homeserver.repository.RequestLogRepository;
+import com.isaaclins.homeserver.repository.SystemMetricsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps request logs and system metrics past their database retention as
+ * gzipped NDJSON files under {@code archive.dir}, one directory per dataset
+ * and day:
+ *
+ * <pre>
+ * request_logs/2026-10-16/20261016T130000-20261016T140000.ndjson.gz
+ * request_logs/2026-10-16/20261016T130000-20261016T140000.index.json
+ * </pre>
+ *
+ * The cleanups call {@link #archive} before they delete rows. It streams every
+ * row older than the cutoff, and not yet archived, into that day's file. Each
+ * file gets an index listing the time span it covers, its first and last
+ * timestamp and its row count. The index is written last and is the commit
+ * point: a data file without one is ignored.
+ *
+ * <p>Each index records the span it covers, so a cleanup that crashed between
+ * archiving and deleting does not archive the same rows twice. A query reads
+ * only the indexes and then the files whose timestamps overlap the requested
+ * range.
+ *
+ * <p>Any instance may run the cleanup job, and any instance may answer a
+ * query. In cluster mode {@code archive.dir} must therefore be storage
+ * shared by all of them, confirmed with {@code archive.shared=true}; the
+ * service refuses to start otherwise. A shared archive re-reads the indexes
+ * on every query, since other instances add files.
+ */
+@Service
+@Slf4j
+public class ArchiveService {
+
+    public enum Dataset {
+        REQUEST_LOGS("request_logs"),
+        SYSTEM_METRICS("system_metrics");
+
+        private final String directory;
+
+        Dataset(String directory) {
+            this.directory = directory;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+    }
+
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".index.json";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean shared;
+    private final Path directory;
+    private final int batchSize;
+    private final Map<Dataset, Source<?>> sources = new EnumMap<>(Dataset.class);
+    private final Map<Dataset, List<ArchiveFile>> files = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ArchiveService(RequestLogRepository requestLogRepository, SystemMetricsRepository systemMetricsRepository,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry, ClusterEvents clusterEvents,
+            @Value("${archive.enabled:true}") boolean enabled,
+            @Value("${archive.dir:data/archive}") String directory,
+            @Value("${archive.shared:false}") boolean shared,
+            @Value("${archive.batch-size:1000}") int batchSize) {
+        if (enabled && clusterEvents.isEnabled() && !shared) {
+            throw new IllegalStateException("In cluster mode archive.dir must be shared by all instances;"
+                    + " set archive.shared=true once it is, or archive.enabled=false");
+        }
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.shared = shared;
+        this.directory = Path.of(directory);
+        this.batchSize = batchSize;
+        sources.put(Dataset.REQUEST_LOGS, new Source<>(RequestLog.class, RequestLog::getTimestamp, RequestLog::getId,
+                (from, to, afterId) -> requestLogRepository.findArchiveBatch(from, to, afterId,
+                        PageRequest.of(0, batchSize))));
+        sources.put(Dataset.SYSTEM_METRICS, new Source<>(SystemMetrics.class, SystemMetrics::getTimestamp,
+                SystemMetrics::getId, (from, to, afterId) -> systemMetricsRepository.findArchiveBatch(from, to,
+                        afterId, PageRequest.of(0, batchSize))));
+    }
+
+    @PostConstruct
+    public void loadIndexes() {
+        if (!enabled) {
+            return;
+        }
+        for (Dataset dataset : Dataset.values()) {
+            files.put(dataset, readIndexes(dataset));
+        }
+        log.info("Archive at {} holds {} request log and {} metrics files", directory.toAbsolutePath(),
+                files.get(Dataset.REQUEST_LOGS).size(), files.get(Dataset.SYSTEM_METRICS).size());
+    }
+
+    /**
+     * Writes all rows older than {@code cutoff} that no archive file covers
+     * yet. Callers delete the rows afterwards.
+     *
+     * @return the number of rows archived
+     * @throws UncheckedIOException if the files could not be written; nothing
+     *                              is recorded as archived then, so the caller
+     *                              must not delete the rows
+     */
+    public synchronized long archive(Dataset dataset, LocalDateTime cutoff) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            // Re-read from disk: another instance may have archived into a shared directory
+            List<ArchiveFile> existing = readIndexes(dataset);
+            LocalDateTime start = existing.stream().map(ArchiveFile::coveredTo)
+                    .max(Comparator.naturalOrder()).orElse(BEGINNING);
+            if (!start.isBefore(cutoff)) {
+                return 0;
+            }
+            List<ArchiveFile> written = write(dataset, sources.get(dataset), start, cutoff);
+            existing.addAll(written);
+            existing.sort(Comparator.comparing(ArchiveFile::minTimestamp));
+            files.put(dataset, existing);
+            long rows = written.stream().mapToLong(ArchiveFile::rows).sum();
+            if (rows > 0) {
+                Counter.builder("archive.rows")
+                        .description("Rows moved from the database into archive files")
+                        .tag("dataset", dataset.getDirectory())
+                        .register(meterRegistry)
+                        .increment(rows);
+                log.info("Archived {} {} rows before {} into {} files", rows, dataset.getDirectory(), cutoff,
+                        written.size());
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive " + dataset.getDirectory(), e);
+        }
+    }
+
+    /**
+     * Rows with {@code from <= timestamp < to}, oldest files first, at most
+     * {@code limit} of them. Only files whose time range overlaps are opened.
+     */
+    public QueryResult query(Dataset dataset, LocalDateTime from, LocalDateTime to, int limit) {
+        List<ArchiveFile> candidates = getFiles(dataset).stream()
+                .filter(file -> file.minTimestamp().isBefore(to) && !file.maxTimestamp().isBefore(from))
+                .toList();
+        Source<?> source = sources.get(dataset);
+        List<Object> rows = new ArrayList<>();
+        int scanned = 0;
+        try {
+            for (ArchiveFile file : candidates) {
+                if (rows.size() >= limit) {
+                    break;
+                }
+                scanned++;
+                readMatching(source, directory.resolve(file.path()), from, to, limit, rows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the " + dataset.getDirectory() + " archive", e);
+        }
+        return new QueryResult(rows, scanned, rows.size() >= limit);
+    }
+
+    public List<ArchiveFile> getFiles(Dataset dataset) {
+        if (enabled && shared) {
+            files.put(dataset, readIndexes(dataset));
+        }
+        return files.getOrDefault(dataset, List.of());
+    }
+
+    private <T> List<ArchiveFile> write(Dataset dataset, Source<T> source, LocalDateTime start, LocalDateTime cutoff)
+            throws IOException {
+        // Rows come in id order, which is only roughly time order, so keep a writer open per day
+        Map<LocalDate, PartitionWriter> writers = new TreeMap<>();
+        try {
+            Long afterId = 0L;
+            List<T> batch;
+            do {
+                batch = source.fetcher().fetch(start, cutoff, afterId);
+                for (T row : batch) {
+                    LocalDateTime timestamp = source.timestamp().apply(row);
+                    LocalDate day = timestamp.toLocalDate();
+                    PartitionWriter writer = writers.get(day);
+                    if (writer == null) {
+                        writer = new PartitionWriter(dataset, day, start, cutoff);
+                        writers.put(day, writer);
+                    }
+                    writer.write(objectMapper.writeValueAsBytes(row), timestamp);
+                    afterId = source.id().apply(row);
+                }
+            } while (batch.size() == batchSize);
+
+            // Oldest day first: if this stops part-way, the next run resumes after the last committed day
+            List<ArchiveFile> written = new ArrayList<>(writers.size());
+            for (PartitionWriter writer : writers.values()) {
+                written.add(writer.commit());
+            }
+            return written;
+        } finally {
+            for (PartitionWriter writer : writers.values()) {
+                writer.discard();
+            }
+        }
+    }
+
+    private <T> void readMatching(Source<T> source, Path file, LocalDateTime from, LocalDateTime to, int limit,
+            List<Object> rows) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while (rows.size() < limit && (line = reader.readLine()) != null) {
+                T row = objectMapper.readValue(line, source.type());
+                LocalDateTime timestamp = source.timestamp().apply(row);
+                if (!timestamp.isBefore(from) && timestamp.isBefore(to)) {
+                    rows.add(row);
+                }
+            }
+        }
+    }
+
+    private List<ArchiveFile> readIndexes(Dataset dataset) {
+        Path root = directory.resolve(dataset.getDirectory());
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        List<ArchiveFile> result = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            for (Path path : (Iterable<Path>) paths.filter(p -> p.toString().endsWith(INDEX_SUFFIX))::iterator) {
+                try {
+                    result.add(objectMapper.readValue(path.toFile(), ArchiveFile.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable archive index {}", path, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the " + dataset.getDirectory() + " archive", e);
+        }
+        result.sort(Comparator.comparing(ArchiveFile::minTimestamp));
+        return result;
+    }
+
+    /**
+     * One day's rows from one archive run, written to a temporary file first
+     * and then renamed into place.
+     */
+    private final class PartitionWriter {
+        final Dataset dataset;
+        final LocalDateTime coveredFrom;
+        final LocalDateTime coveredTo;
+        final Path temporary;
+        final OutputStream out;
+        LocalDateTime min;
+        LocalDateTime max;
+        long rows;
+
+        PartitionWriter(Dataset dataset, LocalDate day, LocalDateTime start, LocalDateTime cutoff)
+                throws IOException {
+            this.dataset = dataset;
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime nextDay = day.plusDays(1).atStartOfDay();
+            this.coveredFrom = start.isAfter(dayStart) ? start : dayStart;
+            this.coveredTo = cutoff.isBefore(nextDay) ? cutoff : nextDay;
+            Path partition = directory.resolve(dataset.getDirectory()).resolve(day.toString());
+            Files.createDirectories(partition);
+            this.temporary = Files.createTempFile(partition, baseName(), ".tmp");
+            this.out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024),
+                    64 * 1024);
+        }
+
+        void write(byte[] json, LocalDateTime timestamp) throws IOException {
+            out.write(json);
+            out.write('\n');
+            rows++;
+            if (min == null || timestamp.isBefore(min)) {
+                min = timestamp;
+            }
+            if (max == null || timestamp.isAfter(max)) {
+                max = timestamp;
+            }
+        }
+
+        ArchiveFile commit() throws IOException {
+            out.close();
+            Path partition = temporary.getParent();
+            Path data = partition.resolve(baseName() + DATA_SUFFIX);
+            Files.move(temporary, data, StandardCopyOption.ATOMIC_MOVE);
+            ArchiveFile file = new ArchiveFile(directory.relativize(data).toString(), coveredFrom, coveredTo,
+                    min, max, rows, Files.size(data));
+            Path index = Files.createTempFile(partition, baseName(), ".tmp");
+            objectMapper.writeValue(index.toFile(), file);
+            Files.move(index, partition.resolve(baseName() + INDEX_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        }
+
+        void discard() {
+            try {
+                out.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                log.warn("Could not remove temporary archive file {}", temporary, e);
+            }
+        }
+
+        private String baseName() {
+            return coveredFrom.format(FILE_TIME) + "-" + coveredTo.format(FILE_TIME);
+        }
+    }
+
+    private record Source<T>(Class<T> type, Function<T, LocalDateTime> timestamp, Function<T, Long> id,
+            BatchFetcher<T> fetcher) {
+    }
+
+    @FunctionalInterface
+    private interface BatchFetcher<T> {
+        List<T> fetch(LocalDateTime from, LocalDateTime to, Long afterId);
+    }
+
+    /**
+     * Index entry for one archive file. {@code coveredFrom}/{@code coveredTo}
+     * is the span of time the file is complete for. {@code minTimestamp} and
+     * {@code maxTimestamp} are its actual first and last rows.
+     */
+    public record ArchiveFile(String path, LocalDateTime coveredFrom, LocalDateTime coveredTo,
+            LocalDateTime minTimestamp, LocalDateTime maxTimestamp, long rows, long bytes) {
+    }
+
+    /**
+     * @param truncated whether {@code limit} was reached before all matching
+     *                  rows were read
+     */
+    public record QueryResult(List<Object> rows, int filesScanned, boolean truncated) {
+    }
+}
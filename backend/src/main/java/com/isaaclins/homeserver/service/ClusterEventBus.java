@@ -0,0 +1,453 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.RequestLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lightweight event bus that lets several backend instances share live STOMP
+ * streams. Each node listens on {@code cluster.bus.port} and keeps one
+ * outgoing TCP connection to every node in {@code cluster.peers}. Messages
+ * published to a local {@code /topic} destination and request-log events
+ * are queued per peer. They are sent in batches, each written and flushed
+ * together. A receiving node injects them into its own broker and filtered
+ * request-log subscriptions, so every subscriber sees events from every node.
+ * State events from {@link ClusterEvents} travel the same way; those are never
+ * dropped silently. If one cannot be queued, the connection is reset, and the
+ * peer resyncs from the database when it reconnects.
+ *
+ * <p>Each node sends only its own events, over its own connections, and never
+ * forwards received ones. With every node listing all others this is a full
+ * mesh with no loops. Queues are bounded. When a peer is down or slow its
+ * events are dropped and counted, and the publishing thread never waits.
+ * Connections authenticate with {@code cluster.bus.secret}, which must be
+ * set. Received frames are bounded: at most {@value #MAX_EVENTS_PER_FRAME}
+ * events of at most {@code cluster.bus.max-payload-bytes} each, and only
+ * {@code /topic} and {@code /user} destinations. A peer that breaks these
+ * limits is disconnected.
+ */
+@Service
+@ConditionalOnProperty(name = "cluster.mode", havingValue = "tcp")
+@Slf4j
+public class ClusterEventBus {
+
+    /** Set on messages received from another node, so they are not sent out again. */
+    public static final String ORIGIN_HEADER = "cluster-origin";
+
+    private static final String MAGIC = "homeserver-bus/1";
+    private static final byte BROKER_MESSAGE = 1;
+    private static final byte REQUEST_LOG = 2;
+    private static final byte STATE_EVENT = 3;
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+    private static final int MAX_EVENTS_PER_FRAME = 4096;
+
+    private final MessageChannel brokerChannel;
+    private final FilteredRequestLogPublisher filteredPublisher;
+    private final ClusterEvents clusterEvents;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final String bindAddress;
+    private final int port;
+    private final List<String> peers;
+    private final byte[] secret;
+    private final long lingerMillis;
+    private final int maxBatch;
+    private final int queueCapacity;
+    private final int maxPayloadBytes;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<PeerLink> links = new ArrayList<>();
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private final Counter received;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    @Autowired
+    public ClusterEventBus(@Qualifier("brokerChannel") MessageChannel brokerChannel,
+            FilteredRequestLogPublisher filteredPublisher, ClusterEvents clusterEvents,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${cluster.bus.bind-address:0.0.0.0}") String bindAddress,
+            @Value("${cluster.bus.port:7600}") int port,
+            @Value("${cluster.peers:}") List<String> peers,
+            @Value("${cluster.bus.secret:}") String secret,
+            @Value("${cluster.bus.linger-ms:2}") long lingerMillis,
+            @Value("${cluster.bus.max-batch:256}") int maxBatch,
+            @Value("${cluster.bus.queue-capacity:10000}") int queueCapacity,
+            @Value("${cluster.bus.max-payload-bytes:1048576}") int maxPayloadBytes) {
+        this.brokerChannel = brokerChannel;
+        this.filteredPublisher = filteredPublisher;
+        this.clusterEvents = clusterEvents;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.peers = peers.stream().map(String::trim).filter(peer -> !peer.isEmpty()).toList();
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.lingerMillis = lingerMillis;
+        this.maxBatch = maxBatch;
+        this.queueCapacity = queueCapacity;
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.received = Counter.builder("cluster.bus.events.received")
+                .description("Events received from other nodes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (secret.length == 0) {
+            // Without it any host that can reach the port could inject events into any topic
+            throw new IllegalStateException("cluster.bus.secret must be set when cluster.mode=tcp");
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        running = true;
+        daemon("cluster-bus-accept", this::acceptLoop).start();
+        for (String peer : peers) {
+            PeerLink link = new PeerLink(peer);
+            links.add(link);
+            daemon("cluster-bus-link-" + peer, link::run).start();
+        }
+        Gauge.builder("cluster.bus.peers.connected", links,
+                        all -> all.stream().filter(link -> link.connected).count())
+                .description("Peers this node currently has an open connection to")
+                .register(meterRegistry);
+        log.info("Cluster bus {} listening on {}:{} with peers {}", nodeId, bindAddress, getPort(), peers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeQuietly(serverSocket);
+        for (PeerLink link : links) {
+            link.close();
+        }
+        inbound.forEach(ClusterEventBus::closeQuietly);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Sends a broker message published on this node to all peers.
+     */
+    public void publishBrokerMessage(String destination, byte[] payload, MimeType contentType) {
+        if (payload.length > maxPayloadBytes) {
+            log.warn("Not sending {} bytes for {} to the cluster: over cluster.bus.max-payload-bytes",
+                    payload.length, destination);
+            return;
+        }
+        enqueue(new Event(BROKER_MESSAGE, destination, contentType != null ? contentType.toString() : "", payload));
+    }
+
+    /**
+     * Sends a request log recorded on this node to all peers' filtered
+     * subscribers.
+     */
+    public void publishRequestLog(RequestLog requestLog) {
+        if (links.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(requestLog);
+            if (payload.length <= maxPayloadBytes) {
+                enqueue(new Event(REQUEST_LOG, "", "", payload));
+            }
+        } catch (IOException e) {
+            log.warn("Could not serialize request log for the cluster bus", e);
+        }
+    }
+
+    /**
+     * Sends a {@link ClusterEvents} event to all peers. A peer whose queue is
+     * full is disconnected instead, so it resyncs when it reconnects.
+     */
+    public void publishStateEvent(String name, String key) {
+        Event event = new Event(STATE_EVENT, name, "", key.getBytes(StandardCharsets.UTF_8));
+        for (PeerLink link : links) {
+            if (!link.queue.offer(event)) {
+                link.dropped.increment();
+                log.warn("Cluster peer {} is not keeping up; reconnecting so it resyncs", link.peer);
+                link.close();
+            }
+        }
+    }
+
+    private void enqueue(Event event) {
+        for (PeerLink link : links) {
+            if (!link.queue.offer(event)) {
+                link.dropped.increment();
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                inbound.add(socket);
+                daemon("cluster-bus-in-" + socket.getRemoteSocketAddress(), () -> receive(socket)).start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Cluster bus accept failed", e);
+                }
+            }
+        }
+    }
+
+    private void receive(Socket socket) {
+        try (socket; DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            if (!MAGIC.equals(in.readUTF())) {
+                log.warn("Rejected cluster bus connection from {}: not a cluster bus client",
+                        socket.getRemoteSocketAddress());
+                return;
+            }
+            String peerNode = in.readUTF();
+            byte[] peerSecret = new byte[in.readUnsignedShort()];
+            in.readFully(peerSecret);
+            if (!MessageDigest.isEqual(secret, peerSecret)) {
+                log.warn("Rejected cluster bus connection from {}: wrong secret", socket.getRemoteSocketAddress());
+                return;
+            }
+            if (nodeId.equals(peerNode)) {
+                log.warn("cluster.peers lists this node itself; ignoring the connection");
+                return;
+            }
+            log.info("Cluster node {} connected from {}", peerNode, socket.getRemoteSocketAddress());
+            // Whatever it sent while disconnected is lost; reload the shared state instead
+            clusterEvents.resync();
+            while (running) {
+                int count = in.readInt();
+                if (count < 0 || count > MAX_EVENTS_PER_FRAME) {
+                    throw new ProtocolException("frame of " + count + " events");
+                }
+                for (int i = 0; i < count; i++) {
+                    byte type = in.readByte();
+                    String destination = in.readUTF();
+                    String contentType = in.readUTF();
+                    int length = in.readInt();
+                    if (length < 0 || length > maxPayloadBytes) {
+                        throw new ProtocolException("payload of " + length + " bytes");
+                    }
+                    if (type == BROKER_MESSAGE
+                            && !destination.startsWith("/topic/") && !destination.startsWith("/user/")) {
+                        throw new ProtocolException("destination " + destination);
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    deliver(type, destination, contentType, payload, peerNode);
+                }
+                received.increment(count);
+            }
+        } catch (EOFException e) {
+            log.info("Cluster node at {} disconnected", socket.getRemoteSocketAddress());
+        } catch (ProtocolException e) {
+            log.warn("Disconnected cluster node at {}: {} is not allowed", socket.getRemoteSocketAddress(),
+                    e.getMessage());
+        } catch (IOException e) {
+            if (running) {
+                log.warn("Cluster bus connection from {} failed: {}", socket.getRemoteSocketAddress(), e.toString());
+            }
+        } finally {
+            inbound.remove(socket);
+        }
+    }
+
+    private void deliver(byte type, String destination, String contentType, byte[] payload, String peerNode) {
+        try {
+            if (type == BROKER_MESSAGE) {
+                SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+                headers.setDestination(destination);
+                if (!contentType.isEmpty()) {
+                    headers.setContentType(MimeType.valueOf(contentType));
+                }
+                headers.setHeader(ORIGIN_HEADER, peerNode);
+                brokerChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+            } else if (type == REQUEST_LOG) {
+                filteredPublisher.deliver(objectMapper.readValue(payload, RequestLog.class));
+            } else if (type == STATE_EVENT) {
+                clusterEvents.deliver(destination, new String(payload, StandardCharsets.UTF_8));
+            }
+        } catch (Exception e) {
+            log.warn("Could not deliver cluster event from {} to {}", peerNode, destination, e);
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException ignored) {
+            // Shutting down anyway
+        }
+    }
+
+    private record Event(byte type, String destination, String contentType, byte[] payload) {
+    }
+
+    /**
+     * Outgoing connection to one peer: reconnects with backoff and writes
+     * queued events in batches of up to {@code cluster.bus.max-batch}.
+     */
+    private final class PeerLink {
+        final String peer;
+        final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final Counter sent;
+        final Counter dropped;
+        final Counter batches;
+        volatile boolean connected;
+        volatile Socket socket;
+
+        PeerLink(String peer) {
+            this.peer = peer;
+            sent = Counter.builder("cluster.bus.events.sent").tag("peer", peer).register(meterRegistry);
+            dropped = Counter.builder("cluster.bus.events.dropped")
+                    .description("Events not delivered to a peer (queue full or connection lost)")
+                    .tag("peer", peer).register(meterRegistry);
+            batches = Counter.builder("cluster.bus.batches.sent").tag("peer", peer).register(meterRegistry);
+        }
+
+        void run() {
+            long reconnectDelay = 500;
+            while (running) {
+                try {
+                    connect();
+                    reconnectDelay = 500;
+                    writeLoop();
+                } catch (IOException e) {
+                    if (connected) {
+                        log.warn("Lost cluster peer {}: {}", peer, e.toString());
+                    } else {
+                        log.debug("Cluster peer {} unreachable: {}", peer, e.toString());
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    connected = false;
+                    closeQuietly(socket);
+                }
+                if (!running) {
+                    return;
+                }
+                // Events queued while the peer is down are stale for a live stream
+                dropped.increment(queue.size());
+                queue.clear();
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        }
+
+        private void connect() throws IOException {
+            int separator = peer.lastIndexOf(':');
+            Socket candidate = new Socket();
+            socket = candidate;
+            candidate.setTcpNoDelay(true); // batching is done here, not by Nagle
+            candidate.connect(new InetSocketAddress(peer.substring(0, separator),
+                    Integer.parseInt(peer.substring(separator + 1))), 5000);
+            DataOutputStream out = output();
+            out.writeUTF(MAGIC);
+            out.writeUTF(nodeId);
+            out.writeShort(secret.length);
+            out.write(secret);
+            out.flush();
+            connected = true;
+            log.info("Connected to cluster peer {}", peer);
+        }
+
+        private void writeLoop() throws IOException, InterruptedException {
+            DataOutputStream out = output();
+            List<Event> batch = new ArrayList<>(maxBatch);
+            while (running) {
+                Event first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Give a burst a moment to arrive so it goes out as one write
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Event next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    out.writeInt(batch.size());
+                    for (Event event : batch) {
+                        out.writeByte(event.type());
+                        out.writeUTF(event.destination());
+                        out.writeUTF(event.contentType());
+                        out.writeInt(event.payload().length);
+                        out.write(event.payload());
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    dropped.increment(batch.size());
+                    throw e;
+                }
+                sent.increment(batch.size());
+                batches.increment();
+                batch.clear();
+            }
+        }
+
+        private DataOutputStream output() throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        }
+
+        void close() {
+            closeQuietly(socket);
+        }
+    }
+}
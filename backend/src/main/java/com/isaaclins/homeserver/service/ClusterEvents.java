@@ -0,0 +1,85 @@
+package com.isaaclins.homeserver.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps per-node in-memory state (user cache, search index, token
+ * revocations) consistent when several instances run in cluster mode.
+ * A service writes to the database first, then publishes a named event with a
+ * key. {@link ClusterEventBus} hands it to the handlers registered under that
+ * name on every other node.
+ *
+ * <p>The bus drops events when a peer is down or too slow, and it resets the
+ * connection whenever one of these events is dropped. The receiving node
+ * cannot know what it missed, so every time a peer (re)connects it runs all
+ * resync callbacks, which reload their state from the database.
+ *
+ * <p>Outside cluster mode {@link #publish} does nothing.
+ */
+@Component
+@Slf4j
+public class ClusterEvents {
+
+    private final ObjectProvider<ClusterEventBus> bus;
+    private final boolean enabled;
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> resyncs = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public ClusterEvents(ObjectProvider<ClusterEventBus> bus, @Value("${cluster.mode:}") String clusterMode) {
+        this.bus = bus;
+        this.enabled = "tcp".equals(clusterMode);
+    }
+
+    /**
+     * True if other instances may change the shared database and publish
+     * events here.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void on(String name, Consumer<String> handler) {
+        handlers.put(name, handler);
+    }
+
+    public void onResync(Runnable resync) {
+        resyncs.add(resync);
+    }
+
+    /**
+     * Tells the other nodes about a change already written to the database.
+     */
+    public void publish(String name, String key) {
+        if (enabled) {
+            bus.ifAvailable(b -> b.publishStateEvent(name, key));
+        }
+    }
+
+    void deliver(String name, String key) {
+        Consumer<String> handler = handlers.get(name);
+        if (handler != null) {
+            handler.accept(key);
+        }
+    }
+
+    void resync() {
+        for (Runnable resync : resyncs) {
+            try {
+                resync.run();
+            } catch (Exception e) {
+                log.error("Cluster resync failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.SystemMetrics;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the admin dashboard payload from a shared snapshot. The three
+ * dashboard queries run at most once per {@code dashboard.snapshot.ttl-ms},
+ * or sooner when new system metrics were stored. Callers arriving while the
+ * snapshot is being rebuilt wait for that rebuild instead of starting their
+ * own (single flight). The snapshot holds the serialized JSON and its ETag,
+ * so a hit costs neither queries nor serialization.
+ *
+ * <p>System metrics are per host. {@code getSnapshot()} shows this node's;
+ * other nodes named with {@code ?node=} get snapshots of their own, kept the
+ * same way for up to {@value #MAX_OTHER_NODES} nodes at a time. Those expire
+ * on the TTL only, because this node cannot tell when another one stores
+ * new rows. Past that limit, an unknown node is built on every request.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final int RECENT_REQUESTS = 50;
+    private static final int MAX_OTHER_NODES = 16;
+
+    private final SystemMetricsService systemMetricsService;
+    private final RequestLogService requestLogService;
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+
+    private final AtomicLong builds = new AtomicLong();
+    private final Slot local = new Slot(null);
+    private final Map<String, Slot> otherNodes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DashboardSnapshotService(SystemMetricsService systemMetricsService, RequestLogService requestLogService,
+            ObjectMapper objectMapper, @Value("${dashboard.snapshot.ttl-ms:5000}") long ttlMillis) {
+        this.systemMetricsService = systemMetricsService;
+        this.requestLogService = requestLogService;
+        this.objectMapper = objectMapper;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public DashboardSnapshot getSnapshot() {
+        return get(local);
+    }
+
+    /**
+     * The dashboard with the system metrics of the given node; {@code null}
+     * returns this node's.
+     */
+    public DashboardSnapshot getSnapshot(String nodeId) {
+        if (nodeId == null || nodeId.isBlank()) {
+            return getSnapshot();
+        }
+        Slot slot = otherNodes.get(nodeId);
+        if (slot == null) {
+            if (otherNodes.size() >= MAX_OTHER_NODES) {
+                otherNodes.values().removeIf(candidate -> !isFresh(candidate, candidate.snapshot)
+                        && candidate.inFlight.get() == null);
+            }
+            if (otherNodes.size() >= MAX_OTHER_NODES) {
+                return build(nodeId);
+            }
+            slot = otherNodes.computeIfAbsent(nodeId, Slot::new);
+        }
+        return get(slot);
+    }
+
+    public long getBuildCount() {
+        return builds.get();
+    }
+
+    private DashboardSnapshot get(Slot slot) {
+        DashboardSnapshot current = slot.snapshot;
+        if (isFresh(slot, current)) {
+            return current;
+        }
+        CompletableFuture<DashboardSnapshot> mine = new CompletableFuture<>();
+        CompletableFuture<DashboardSnapshot> running = slot.inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            current = slot.snapshot;
+            if (!isFresh(slot, current)) {
+                current = build(slot.nodeId);
+                slot.snapshot = current;
+            }
+            mine.complete(current);
+            return current;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            slot.inFlight.compareAndSet(mine, null);
+        }
+    }
+
+    private boolean isFresh(Slot slot, DashboardSnapshot candidate) {
+        return candidate != null
+                && System.nanoTime() - candidate.builtAtNanos < ttlNanos
+                && (!isLocal(slot) || candidate.metricsVersion == systemMetricsService.getMetricsVersion());
+    }
+
+    private boolean isLocal(Slot slot) {
+        return slot == local || slot.nodeId.equals(systemMetricsService.getLocalNodeId());
+    }
+
+    private DashboardSnapshot build(String nodeId) {
+        // Read the version first: metrics stored during the build make the result stale, never the reverse
+        long metricsVersion = systemMetricsService.getMetricsVersion();
+        SystemMetrics latestMetrics = systemMetricsService.getLatestMetrics(nodeId);
+
+        Map<String, Object> dashboardData = new LinkedHashMap<>();
+        dashboardData.put("metrics24h", systemMetricsService.getMetricsForLast24Hours(nodeId));
+        dashboardData.put("latestMetrics", latestMetrics != null ? latestMetrics : new SystemMetrics());
+        dashboardData.put("recentRequests", requestLogService.getRecentRequestLogs(RECENT_REQUESTS));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dashboardData);
+            builds.incrementAndGet();
+            return new DashboardSnapshot(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"",
+                    metricsVersion, System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize dashboard data", e);
+        }
+    }
+
+    private static DashboardSnapshot await(CompletableFuture<DashboardSnapshot> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // One node's snapshot and the build in progress for it, if any
+    private static final class Slot {
+        private final String nodeId;
+        private final AtomicReference<CompletableFuture<DashboardSnapshot>> inFlight = new AtomicReference<>();
+        private volatile DashboardSnapshot snapshot;
+
+        private Slot(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    @Getter
+    public static final class DashboardSnapshot {
+        private final byte[] json;
+        private final String etag;
+        private final long metricsVersion;
+        private final long builtAtNanos;
+
+        DashboardSnapshot(byte[] json, String etag, long metricsVersion, long builtAtNanos) {
+            this.json = json;
+            this.etag = etag;
+            this.metricsVersion = metricsVersion;
+            this.builtAtNanos = builtAtNanos;
+        }
+    }
+}
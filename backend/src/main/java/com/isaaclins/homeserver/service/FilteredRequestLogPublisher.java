@@ -0,0 +1,125 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.RequestLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpLogging;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.OrderedMessageChannelDecorator;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers request-log events to filtered subscriptions of
+ * {@value #DESTINATION}. The simple broker would fan every event out to every
+ * subscriber, so matching subscriptions are looked up in the
+ * {@link RequestLogSubscriptionIndex} instead and each gets its MESSAGE frame
+ * directly on the client outbound channel. The event is serialized to JSON at
+ * most once, and only if some filter group accepts it. In cluster mode the
+ * event is also handed to the {@link ClusterEventBus} so subscribers on other
+ * nodes see it.
+ *
+ * <p>Frames go through one {@link OrderedMessageChannelDecorator} per session,
+ * as the broker's own do with {@code preservePublishOrder}. Sent straight to
+ * the outbound channel they would run on its thread pool and could reach the
+ * client out of order.
+ */
+@Component
+@Slf4j
+public class FilteredRequestLogPublisher {
+
+    public static final String DESTINATION = "/topic/request-logs/filtered";
+
+    private final RequestLogSubscriptionIndex index;
+    private final MessageChannel clientOutboundChannel;
+    private final ObjectMapper objectMapper;
+    // Looked up per event: the bus itself depends on this publisher
+    private final ObjectProvider<ClusterEventBus> clusterEventBus;
+    private final Map<String, MessageChannel> sessionChannels = new ConcurrentHashMap<>();
+
+    public FilteredRequestLogPublisher(RequestLogSubscriptionIndex index,
+            @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel, ObjectMapper objectMapper,
+            ObjectProvider<ClusterEventBus> clusterEventBus) {
+        this.index = index;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.objectMapper = objectMapper;
+        this.clusterEventBus = clusterEventBus;
+    }
+
+    /**
+     * Delivers a request log recorded on this node, locally and to the other
+     * cluster nodes.
+     *
+     * @return the number of local subscriptions the event was sent to
+     */
+    public int publish(RequestLog requestLog) {
+        ClusterEventBus bus = clusterEventBus.getIfAvailable();
+        if (bus != null) {
+            bus.publishRequestLog(requestLog);
+        }
+        return deliver(requestLog);
+    }
+
+    /**
+     * Delivers a request log to this node's subscribers only.
+     *
+     * @return the number of subscriptions the event was sent to
+     */
+    public int deliver(RequestLog requestLog) {
+        if (index.isEmpty()) {
+            return 0;
+        }
+        List<RequestLogSubscriptionIndex.FilterGroup> groups = index.match(requestLog);
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(requestLog);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize request log for filtered subscribers", e);
+            return 0;
+        }
+        int sent = 0;
+        for (RequestLogSubscriptionIndex.FilterGroup group : groups) {
+            for (RequestLogSubscriptionIndex.Subscriber subscriber : group.getSubscribers()) {
+                SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+                headers.setSessionId(subscriber.getSessionId());
+                headers.setSubscriptionId(subscriber.getSubscriptionId());
+                headers.setDestination(DESTINATION);
+                headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+                headers.setLeaveMutable(true); // the ordered channel adds a header of its own
+                sessionChannel(subscriber.getSessionId())
+                        .send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessionChannels.remove(event.getSessionId());
+    }
+
+    private MessageChannel sessionChannel(String sessionId) {
+        if (!OrderedMessageChannelDecorator.supportsOrderedMessages(clientOutboundChannel)) {
+            return clientOutboundChannel;
+        }
+        // Logs under the same category as the broker's own ordered sends
+        return sessionChannels.computeIfAbsent(sessionId, id -> new OrderedMessageChannelDecorator(
+                clientOutboundChannel, SimpLogging.forLogName(FilteredRequestLogPublisher.class)));
+    }
+}
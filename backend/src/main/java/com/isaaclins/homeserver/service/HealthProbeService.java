@@ -0,0 +1,317 @@
+package com.isaaclins.homeserver.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the backend's dependencies in the background and keeps the last
+ * result of each probe, so health endpoints answer from memory no matter how
+ * often they are polled. Probes run every {@code health.probe.interval-ms} on
+ * a dedicated thread, independent of the {@code @Scheduled} pool they partly
+ * observe:
+ *
+ * <ul>
+ * <li>{@code db}: connection validation round-trip</li>
+ * <li>{@code connectionPool}: Hikari active/idle/max and waiting threads</li>
+ * <li>{@code scheduler}: how late a fixed-rate {@code @Scheduled} heartbeat is</li>
+ * <li>{@code broker}: queued messages on the STOMP channel executors</li>
+ * <li>{@code diskSpace}: usable space under {@code health.disk.path}</li>
+ * </ul>
+ *
+ * Each probe reports UP, {@link #DEGRADED} or DOWN against its thresholds. A
+ * result older than three intervals is reported DOWN: a probe that stopped
+ * finishing is itself a symptom.
+ */
+@Service
+@Slf4j
+public class HealthProbeService {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Working, but slower or closer to a limit than it should be");
+
+    public static final String DB = "db";
+    public static final String CONNECTION_POOL = "connectionPool";
+    public static final String SCHEDULER = "scheduler";
+    public static final String BROKER = "broker";
+    public static final String DISK_SPACE = "diskSpace";
+
+    private static final List<String> PROBES = List.of(DB, CONNECTION_POOL, SCHEDULER, BROKER, DISK_SPACE);
+    // Same order as management.endpoint.health.status.order
+    private static final List<Status> SEVERITY = List.of(Status.DOWN, DEGRADED, Status.UNKNOWN, Status.UP);
+
+    private static final int DB_VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+    private final Map<String, TaskExecutor> brokerExecutors;
+    private final long intervalMillis;
+    private final long heartbeatMillis;
+    private final long dbDegradedMillis;
+    private final double poolDegradedRatio;
+    private final int poolMaxWaiting;
+    private final long schedulerDegradedMillis;
+    private final long schedulerDownMillis;
+    private final int brokerDegradedQueue;
+    private final int brokerDownQueue;
+    private final File diskPath;
+    private final long diskDegradedBytes;
+    private final long diskDownBytes;
+
+    private final Map<String, CachedHealth> results = new ConcurrentHashMap<>();
+    private ScheduledExecutorService prober;
+
+    // Lag is measured from the first heartbeat or application readiness, whichever comes first;
+    // time spent starting up is not scheduler lag
+    private volatile boolean heartbeatStarted;
+    private volatile long lastHeartbeatNanos;
+    private volatile long heartbeatLatenessMillis;
+
+    @Autowired
+    public HealthProbeService(DataSource dataSource,
+            @Qualifier("clientInboundChannelExecutor") TaskExecutor inboundExecutor,
+            @Qualifier("clientOutboundChannelExecutor") TaskExecutor outboundExecutor,
+            @Qualifier("brokerChannelExecutor") TaskExecutor brokerExecutor,
+            @Value("${health.probe.interval-ms:5000}") long intervalMillis,
+            @Value("${health.scheduler.heartbeat-ms:1000}") long heartbeatMillis,
+            @Value("${health.db.degraded-ms:250}") long dbDegradedMillis,
+            @Value("${health.pool.degraded-ratio:0.8}") double poolDegradedRatio,
+            @Value("${health.pool.max-waiting:5}") int poolMaxWaiting,
+            @Value("${health.scheduler.degraded-ms:2000}") long schedulerDegradedMillis,
+            @Value("${health.scheduler.down-ms:30000}") long schedulerDownMillis,
+            @Value("${health.broker.degraded-queue:1000}") int brokerDegradedQueue,
+            @Value("${health.broker.down-queue:10000}") int brokerDownQueue,
+            @Value("${health.disk.path:.}") File diskPath,
+            @Value("${health.disk.degraded-below:1GB}") DataSize diskDegradedBelow,
+            @Value("${health.disk.down-below:100MB}") DataSize diskDownBelow) {
+        this.dataSource = dataSource;
+        this.brokerExecutors = Map.of(
+                "clientInbound", inboundExecutor,
+                "clientOutbound", outboundExecutor,
+                "broker", brokerExecutor);
+        this.intervalMillis = intervalMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.dbDegradedMillis = dbDegradedMillis;
+        this.poolDegradedRatio = poolDegradedRatio;
+        this.poolMaxWaiting = poolMaxWaiting;
+        this.schedulerDegradedMillis = schedulerDegradedMillis;
+        this.schedulerDownMillis = schedulerDownMillis;
+        this.brokerDegradedQueue = brokerDegradedQueue;
+        this.brokerDownQueue = brokerDownQueue;
+        this.diskPath = diskPath;
+        this.diskDegradedBytes = diskDegradedBelow.toBytes();
+        this.diskDownBytes = diskDownBelow.toBytes();
+    }
+
+    @PostConstruct
+    public void start() {
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First round inline, so health is known by the time the server accepts requests
+        probeAll();
+        prober.scheduleWithFixedDelay(this::probeAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!heartbeatStarted) {
+            lastHeartbeatNanos = System.nanoTime();
+            heartbeatStarted = true;
+        }
+        probe(SCHEDULER, this::probeScheduler);
+    }
+
+    @PreDestroy
+    public void stop() {
+        prober.shutdownNow();
+    }
+
+    /**
+     * Last result of the named probe; UNKNOWN before it first completed.
+     */
+    public Health getHealth(String probe) {
+        CachedHealth cached = results.get(probe);
+        if (cached == null) {
+            return Health.unknown().withDetail("reason", "Not probed yet").build();
+        }
+        long ageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cached.checkedAtNanos);
+        if (ageMillis > 3 * intervalMillis) {
+            return Health.down().withDetail("reason", "Probe result is stale").withDetail("ageMs", ageMillis).build();
+        }
+        return cached.health;
+    }
+
+    /**
+     * Worst status across all probes, UNKNOWN ranking above UP.
+     */
+    public Status getOverallStatus() {
+        Status worst = Status.UP;
+        for (String probe : PROBES) {
+            Status status = getHealth(probe).getStatus();
+            if (SEVERITY.indexOf(status) < SEVERITY.indexOf(worst)) {
+                worst = status;
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * Heartbeat on the {@code @Scheduled} pool; {@link #probeScheduler()}
+     * reports how far behind it falls.
+     */
+    @Scheduled(fixedRateString = "${health.scheduler.heartbeat-ms:1000}")
+    public void schedulerHeartbeat() {
+        long now = System.nanoTime();
+        if (heartbeatStarted) {
+            long expected = lastHeartbeatNanos + TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+            heartbeatLatenessMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(now - expected));
+        }
+        lastHeartbeatNanos = now;
+        heartbeatStarted = true;
+    }
+
+    public void probeAll() {
+        probe(DB, this::probeDatabase);
+        probe(CONNECTION_POOL, this::probeConnectionPool);
+        probe(SCHEDULER, this::probeScheduler);
+        probe(BROKER, this::probeBroker);
+        probe(DISK_SPACE, this::probeDiskSpace);
+    }
+
+    Health probeDatabase() throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(DB_VALIDATION_TIMEOUT_SECONDS)) {
+                return Health.down().withDetail("error", "Connection validation failed").build();
+            }
+        }
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return Health.status(latencyMillis > dbDegradedMillis ? DEGRADED : Status.UP)
+                .withDetail("latencyMs", latencyMillis)
+                .withDetail("degradedAboveMs", dbDegradedMillis)
+                .build();
+    }
+
+    Health probeConnectionPool() {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "No Hikari pool").build();
+        }
+        int max = hikari.getMaximumPoolSize();
+        double saturation = (double) pool.getActiveConnections() / max;
+        int waiting = pool.getThreadsAwaitingConnection();
+        Status status = waiting >= poolMaxWaiting ? Status.DOWN
+                : saturation >= poolDegradedRatio || waiting > 0 ? DEGRADED
+                : Status.UP;
+        return Health.status(status)
+                .withDetail("active", pool.getActiveConnections())
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("max", max)
+                .withDetail("waiting", waiting)
+                .withDetail("saturation", Math.round(saturation * 100) / 100.0)
+                .build();
+    }
+
+    Health probeScheduler() {
+        if (!heartbeatStarted) {
+            return Health.up().withDetail("reason", "Application is starting").build();
+        }
+        long sinceLastMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastHeartbeatNanos);
+        // A heartbeat that has not run at all yet is late by however long it has been overdue
+        long lagMillis = Math.max(heartbeatLatenessMillis, sinceLastMillis - heartbeatMillis);
+        Status status = lagMillis > schedulerDownMillis ? Status.DOWN
+                : lagMillis > schedulerDegradedMillis ? DEGRADED
+                : Status.UP;
+        return Health.status(status)
+                .withDetail("lagMs", Math.max(lagMillis, 0))
+                .withDetail("degradedAboveMs", schedulerDegradedMillis)
+                .withDetail("downAboveMs", schedulerDownMillis)
+                .build();
+    }
+
+    Health probeBroker() {
+        Map<String, Object> queued = new LinkedHashMap<>();
+        int deepest = 0;
+        for (Map.Entry<String, TaskExecutor> entry : brokerExecutors.entrySet()) {
+            if (entry.getValue() instanceof ThreadPoolTaskExecutor pool) {
+                int depth = pool.getQueueSize();
+                queued.put(entry.getKey(), depth);
+                deepest = Math.max(deepest, depth);
+            } else {
+                queued.put(entry.getKey(), "unpooled");
+            }
+        }
+        Status status = deepest > brokerDownQueue ? Status.DOWN
+                : deepest > brokerDegradedQueue ? DEGRADED
+                : Status.UP;
+        return Health.status(status).withDetail("queued", queued).build();
+    }
+
+    Health probeDiskSpace() {
+        long free = diskPath.getUsableSpace();
+        Status status = free < diskDownBytes ? Status.DOWN
+                : free < diskDegradedBytes ? DEGRADED
+                : Status.UP;
+        return Health.status(status)
+                .withDetail("path", diskPath.getAbsolutePath())
+                .withDetail("free", free)
+                .withDetail("total", diskPath.getTotalSpace())
+                .withDetail("degradedBelow", diskDegradedBytes)
+                .withDetail("downBelow", diskDownBytes)
+                .build();
+    }
+
+    private void probe(String name, Probe probe) {
+        long start = System.nanoTime();
+        Health health;
+        try {
+            health = probe.run();
+        } catch (Exception e) {
+            health = Health.down(e).build();
+        }
+        CachedHealth previous = results.put(name, new CachedHealth(health, start));
+        if (previous == null || !previous.health.getStatus().equals(health.getStatus())) {
+            if (Status.UP.equals(health.getStatus()) || previous == null && !Status.DOWN.equals(health.getStatus())) {
+                log.info("Health probe {} is {}", name, health.getStatus().getCode());
+            } else {
+                log.warn("Health probe {} is {}: {}", name, health.getStatus().getCode(), health.getDetails());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Probe {
+        Health run() throws Exception;
+    }
+
+    private record CachedHealth(Health health, long checkedAtNanos) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.Job;
+
+import java.time.Duration;
+
+/**
+ * Runs the jobs of one type. Handlers are picked up as beans by
+ * {@link JobService}; throwing from {@link #handle} schedules a retry.
+ */
+public interface JobHandler {
+
+    String getType();
+
+    void handle(Job job) throws Exception;
+
+    /**
+     * How often {@link JobService} enqueues this job by itself, or null if it
+     * is only ever enqueued explicitly.
+     */
+    default Duration getInterval() {
+        return null;
+    }
+}
@@ -0,0 +1,388 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.Job;
+import com.isaaclins.homeserver.repository.JobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent background job queue. Jobs are rows in the {@code jobs} table;
+ * a poller thread claims due jobs (priority first) and hands them to a fixed
+ * pool of {@code jobs.workers} threads, so background work neither runs on
+ * request threads nor competes with other {@code @Scheduled} tasks for
+ * Spring's single scheduler thread. Claiming is a conditional UPDATE, which
+ * keeps several instances on one database from running a job twice; each
+ * instance only claims types it has a handler for.
+ *
+ * <p>Failed jobs are retried with exponential backoff up to their
+ * {@code maxAttempts}. While a job runs, the poller thread renews its lease
+ * every {@code jobs.heartbeat-ms}; a job whose lease was not renewed for
+ * {@code jobs.lease-ms} (its worker died) is queued again. Should that worker
+ * still be alive, its outcome is discarded: finishing or retrying only succeeds while the job is
+ * still locked by the same owner and attempt. Handlers with an interval are enqueued
+ * by the poller under a deduplication key equal to their type, so a slow run
+ * is never overlapped by the next one.
+ *
+ * <p>With several instances, only the leader (see
+ * {@link LeaderElectionService}) enqueues recurring jobs and runs queue
+ * maintenance, inside its fenced transaction. When the next run is due is
+ * worked out from the last job of that type in the table, so a new leader
+ * keeps to the schedule.
+ */
+@Service
+@Slf4j
+public class JobService {
+
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final long MAINTENANCE_INTERVAL_MS = 60_000;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JobRepository jobRepository;
+    private final LeaderElectionService leaderElection;
+    private final Map<String, JobHandler> handlers = new HashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int workerCount;
+    private final long pollIntervalMillis;
+    private final long retryBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int defaultMaxAttempts;
+    private final long leaseMillis;
+    private final long heartbeatMillis;
+    private final Duration retention;
+
+    private final String owner;
+    private final Semaphore idleWorkers;
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> nextRecurringRun = new ConcurrentHashMap<>();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private final Map<String, Counter> outcomeCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> executionTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> waitTimers = new ConcurrentHashMap<>();
+    private long nextMaintenance;
+
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+
+    @Autowired
+    public JobService(JobRepository jobRepository, List<JobHandler> handlers, MeterRegistry meterRegistry,
+            LeaderElectionService leaderElection, NodeIdentity nodeIdentity,
+            @Value("${jobs.workers:2}") int workerCount,
+            @Value("${jobs.poll-interval-ms:1000}") long pollIntervalMillis,
+            @Value("${jobs.retry-backoff-ms:1000}") long retryBackoffMillis,
+            @Value("${jobs.max-backoff-ms:600000}") long maxBackoffMillis,
+            @Value("${jobs.max-attempts:5}") int defaultMaxAttempts,
+            @Value("${jobs.lease-ms:600000}") long leaseMillis,
+            @Value("${jobs.heartbeat-ms:60000}") long heartbeatMillis,
+            @Value("${jobs.retention-hours:72}") long retentionHours) {
+        if (heartbeatMillis * 2 > leaseMillis) {
+            throw new IllegalArgumentException("jobs.heartbeat-ms must be at most half of jobs.lease-ms");
+        }
+        this.jobRepository = jobRepository;
+        this.leaderElection = leaderElection;
+        // Unique per run: a stopping instance requeues only its own jobs, even next to another on the same host
+        this.owner = nodeIdentity.getId() + "#" + UUID.randomUUID().toString().substring(0, 8);
+        for (JobHandler handler : handlers) {
+            if (this.handlers.put(handler.getType(), handler) != null) {
+                throw new IllegalStateException("Duplicate job handler for type " + handler.getType());
+            }
+        }
+        this.meterRegistry = meterRegistry;
+        this.workerCount = workerCount;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.defaultMaxAttempts = defaultMaxAttempts;
+        this.leaseMillis = leaseMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.retention = Duration.ofHours(retentionHours);
+        this.idleWorkers = new Semaphore(workerCount);
+
+        Gauge.builder("jobs.queue.depth", queueDepth, AtomicLong::get)
+                .description("Jobs due to run but not yet claimed")
+                .register(meterRegistry);
+        Gauge.builder("jobs.workers.busy", busyWorkers, AtomicInteger::get)
+                .description("Job workers currently running a job")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger workerNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "job-worker-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "job-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::renewLeases, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        log.info("Job queue started with {} workers for types {}", workerCount, handlers.keySet());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        poller.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+            try {
+                jobRepository.releaseOwnedBy(owner);
+            } catch (Exception e) {
+                log.warn("Could not requeue running jobs on shutdown; they are retried after their lease expires", e);
+            }
+        }
+    }
+
+    public Job enqueue(String type, String payload) {
+        return enqueue(type, payload, DEFAULT_PRIORITY, null);
+    }
+
+    /**
+     * Queues a job to run as soon as a worker is free.
+     *
+     * @param dedupKey if a queued or running job already has this key, that
+     *                 job is returned and nothing new is queued; may be null
+     * @return the queued job
+     */
+    public Job enqueue(String type, String payload, int priority, String dedupKey) {
+        if (!handlers.containsKey(type)) {
+            throw new IllegalArgumentException("No handler for job type " + type);
+        }
+        if (dedupKey != null) {
+            var existing = jobRepository.findByDedupKey(dedupKey);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        Job job = new Job();
+        job.setType(type);
+        job.setPayload(payload);
+        job.setPriority(priority);
+        job.setStatus(Job.Status.PENDING);
+        job.setAttempts(0);
+        job.setMaxAttempts(defaultMaxAttempts);
+        job.setDedupKey(dedupKey);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setRunAt(job.getCreatedAt());
+        try {
+            return jobRepository.save(job);
+        } catch (DataIntegrityViolationException e) {
+            // Another thread or instance queued the same key in between
+            return jobRepository.findByDedupKey(dedupKey).orElseThrow(() -> e);
+        }
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getBusyWorkers() {
+        return busyWorkers.get();
+    }
+
+    void poll() {
+        try {
+            runClusterTasks();
+            LocalDateTime now = LocalDateTime.now();
+            int idle = idleWorkers.availablePermits();
+            if (idle > 0) {
+                for (Long id : jobRepository.findDueIds(now, handlers.keySet(), PageRequest.of(0, idle))) {
+                    if (!idleWorkers.tryAcquire()) {
+                        break;
+                    }
+                    if (jobRepository.claim(id, owner, now) == 1) {
+                        runningJobs.add(id);
+                        busyWorkers.incrementAndGet();
+                        workers.execute(() -> run(id));
+                    } else {
+                        idleWorkers.release();
+                    }
+                }
+            }
+            queueDepth.set(jobRepository.countDue(now));
+        } catch (Exception e) {
+            log.error("Error polling job queue", e);
+        }
+    }
+
+    private void run(Long id) {
+        try {
+            Job job = jobRepository.findById(id).orElse(null);
+            if (job != null) {
+                execute(job);
+            }
+        } catch (Exception e) {
+            log.error("Error running job {}", id, e);
+        } finally {
+            runningJobs.remove(id);
+            busyWorkers.decrementAndGet();
+            idleWorkers.release();
+        }
+    }
+
+    private void execute(Job job) {
+        String type = job.getType();
+        waitTimer(type).record(Duration.between(job.getRunAt(), job.getStartedAt()));
+        JobHandler handler = handlers.get(type);
+        if (handler == null || job.getAttempts() > job.getMaxAttempts()) {
+            finish(job, Job.Status.FAILED, handler == null ? "No handler for job type " + type
+                    : "Gave up after " + job.getMaxAttempts() + " attempts");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            handler.handle(job);
+            executionTimer(type).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            finish(job, Job.Status.SUCCEEDED, null);
+        } catch (Exception e) {
+            executionTimer(type).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            String error = truncate(e.toString());
+            if (job.getAttempts() < job.getMaxAttempts()) {
+                long backoff = Math.min(maxBackoffMillis, retryBackoffMillis << Math.min(job.getAttempts() - 1, 30));
+                if (jobRepository.retryAt(job.getId(), owner, job.getAttempts(),
+                        LocalDateTime.now().plusNanos(backoff * 1_000_000), error) == 0) {
+                    leaseLost(job);
+                    return;
+                }
+                outcomeCounter(type, "retried").increment();
+                log.warn("Job {} ({}) failed on attempt {}/{}, retrying in {}ms: {}",
+                        job.getId(), type, job.getAttempts(), job.getMaxAttempts(), backoff, error);
+            } else {
+                finish(job, Job.Status.FAILED, error);
+                log.error("Job {} ({}) failed after {} attempts", job.getId(), type, job.getAttempts(), e);
+            }
+        }
+    }
+
+    private void finish(Job job, Job.Status status, String error) {
+        if (jobRepository.finish(job.getId(), owner, job.getAttempts(), status, LocalDateTime.now(), error) == 0) {
+            leaseLost(job);
+            return;
+        }
+        outcomeCounter(job.getType(), status == Job.Status.SUCCEEDED ? "succeeded" : "failed").increment();
+    }
+
+    private void leaseLost(Job job) {
+        outcomeCounter(job.getType(), "lease-lost").increment();
+        log.warn("Job {} ({}) attempt {} outlived its lease and was requeued; discarding its outcome",
+                job.getId(), job.getType(), job.getAttempts());
+    }
+
+    void renewLeases() {
+        if (runningJobs.isEmpty()) {
+            return;
+        }
+        try {
+            jobRepository.renewLeases(Set.copyOf(runningJobs), owner, LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Could not renew job leases; they expire {}ms after the last renewal", leaseMillis, e);
+        }
+    }
+
+    private void runClusterTasks() {
+        if (!leaderElection.isLeader()) {
+            // Re-read the schedule from the table if leadership comes back
+            nextRecurringRun.clear();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean due = now >= nextMaintenance || handlers.values().stream()
+                .anyMatch(handler -> handler.getInterval() != null
+                        && nextRecurringRun.getOrDefault(handler.getType(), 0L) <= now);
+        if (due) {
+            leaderElection.runIfLeader(() -> {
+                enqueueRecurringJobs();
+                runMaintenance();
+            });
+        }
+    }
+
+    private void enqueueRecurringJobs() {
+        long now = System.currentTimeMillis();
+        for (JobHandler handler : handlers.values()) {
+            Duration interval = handler.getInterval();
+            if (interval == null || nextRecurringRun.getOrDefault(handler.getType(), 0L) > now) {
+                continue;
+            }
+            LocalDateTime last = jobRepository.findLastCreatedAt(handler.getType());
+            LocalDateTime next = last != null ? last.plus(interval) : null;
+            if (next == null || !next.isAfter(LocalDateTime.now())) {
+                enqueue(handler.getType(), null, DEFAULT_PRIORITY, handler.getType());
+                next = LocalDateTime.now().plus(interval);
+            }
+            nextRecurringRun.put(handler.getType(), now + Duration.between(LocalDateTime.now(), next).toMillis());
+        }
+    }
+
+    private void runMaintenance() {
+        long now = System.currentTimeMillis();
+        if (now < nextMaintenance) {
+            return;
+        }
+        nextMaintenance = now + MAINTENANCE_INTERVAL_MS;
+        int released = jobRepository.releaseExpiredLeases(LocalDateTime.now().minusNanos(leaseMillis * 1_000_000));
+        if (released > 0) {
+            log.warn("Requeued {} jobs whose worker stopped responding", released);
+        }
+        jobRepository.deleteFinishedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private Counter outcomeCounter(String type, String outcome) {
+        return outcomeCounters.computeIfAbsent(type + '/' + outcome, key -> Counter.builder("jobs.completed")
+                .description("Job runs by outcome")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private Timer executionTimer(String type) {
+        return executionTimers.computeIfAbsent(type, key -> Timer.builder("jobs.execution")
+                .description("Time spent running jobs")
+                .tag("type", type)
+                .register(meterRegistry));
+    }
+
+    private Timer waitTimer(String type) {
+        return waitTimers.computeIfAbsent(type, key -> Timer.builder("jobs.wait")
+                .description("Time from a job becoming due to a worker starting it")
+                .tag("type", type)
+                .register(meterRegistry));
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
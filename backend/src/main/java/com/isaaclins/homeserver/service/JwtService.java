@@ -1,5 +1,6 @@
 package com.isaaclins.homeserver.service;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
@@ -15,6 +17,12 @@ public class JwtService {
     private Key key;
     private static final long EXPIRATION_MS = 24 * 60 * 60 * 1000; // 1 day
 
+    private final TokenRevocationService revocationService;
+
+    public JwtService(TokenRevocationService revocationService) {
+        this.revocationService = revocationService;
+    }
+
     @PostConstruct
     public void init() {
         String secret = System.getenv("JWT_SECRET");
@@ -28,6 +36,7 @@ public class JwtService {
     public String generateToken(String subject) {
         Date now = new Date();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(new Date(now.getTime() + EXPIRATION_MS))
@@ -37,14 +46,33 @@ public class JwtService {
 
     public boolean validate(String token) {
         try {
-            Jwts.parser().setSigningKey(key).parseClaimsJws(token);
-            return true;
+            Claims claims = getClaims(token);
+            return !revocationService.isRevoked(claims.getId(), claims.getSubject(), claims.getIssuedAt());
         } catch (Exception e) {
             return false;
         }
     }
 
     public String getSubject(String token) {
-        return Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody().getSubject();
+        return getClaims(token).getSubject();
+    }
+
+    public Claims getClaims(String token) {
+        return Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Revokes the given (signature-valid) token until it expires.
+     */
+    public void revoke(String token) {
+        Claims claims = getClaims(token);
+        revocationService.revokeToken(claims.getId(), claims.getSubject(), claims.getExpiration());
+    }
+
+    /**
+     * Revokes every token issued so far to the given subject.
+     */
+    public void revokeAllForSubject(String subject) {
+        revocationService.revokeAllForSubject(subject, EXPIRATION_MS);
     }
 }
@@ -0,0 +1,182 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.LeaderLease;
+import com.isaaclins.homeserver.repository.LeaderLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks one instance among those sharing the database to run cluster-wide
+ * work. The leader holds the {@code leader.lease-name} row (default
+ * {@code cluster-leader}) in {@code leader_leases}.
+ * It renews the row every {@code leader.heartbeat-ms}; if it stops, another
+ * instance takes over once {@code leader.lease-ms} has passed.
+ *
+ * <p>{@link #isLeader()} is a local check. It turns false a little before
+ * the lease could expire, measured on this instance's own monotonic clock.
+ * {@link #runIfLeader} also fences: it row-locks the lease and checks the
+ * fencing token in the same transaction as the work. A paused or partitioned
+ * former leader therefore can't write after it has been replaced. Instances
+ * must keep their wall clocks roughly in sync, well within the lease length.
+ */
+@Service
+@Slf4j
+public class LeaderElectionService {
+
+    private final LeaderLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String lease;
+    private final long leaseMillis;
+    private final long heartbeatMillis;
+    private final String holder;
+    private final Counter transitions;
+
+    private ScheduledExecutorService heartbeat;
+    private volatile long fencingToken; // 0 while not leader
+    private volatile long validUntilNanos;
+
+    @Autowired
+    public LeaderElectionService(LeaderLeaseRepository leaseRepository, TransactionTemplate transactionTemplate,
+            NodeIdentity nodeIdentity, MeterRegistry meterRegistry,
+            @Value("${leader.lease-name:cluster-leader}") String lease,
+            @Value("${leader.lease-ms:15000}") long leaseMillis,
+            @Value("${leader.heartbeat-ms:5000}") long heartbeatMillis) {
+        if (heartbeatMillis * 2 > leaseMillis) {
+            throw new IllegalArgumentException("leader.heartbeat-ms must be at most half of leader.lease-ms");
+        }
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.lease = lease;
+        this.leaseMillis = leaseMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        // A restarted node must not pick up the lease its previous run still holds
+        this.holder = nodeIdentity.getId() + "#" + UUID.randomUUID().toString().substring(0, 8);
+        this.transitions = Counter.builder("leader.transitions")
+                .description("Times this instance became leader")
+                .register(meterRegistry);
+        Gauge.builder("leader.is.leader", this, service -> service.isLeader() ? 1 : 0)
+                .description("1 while this instance holds the cluster leader lease")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leader-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renew, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (fencingToken != 0) {
+            fencingToken = 0;
+            try {
+                leaseRepository.release(lease, holder, LocalDateTime.now());
+            } catch (Exception e) {
+                log.warn("Could not release the leader lease; another instance takes over when it expires", e);
+            }
+        }
+    }
+
+    public boolean isLeader() {
+        return fencingToken != 0 && System.nanoTime() - validUntilNanos < 0;
+    }
+
+    /**
+     * @return the fencing token of this instance's current term, or 0 if it
+     * is not the leader
+     */
+    public long getFencingToken() {
+        return isLeader() ? fencingToken : 0;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    /**
+     * Runs {@code work} in a transaction that holds a row lock on the lease,
+     * and only if this instance still holds it in the current term. A
+     * takeover has to wait for the transaction to end.
+     *
+     * @return whether the work ran
+     */
+    public boolean runIfLeader(Runnable work) {
+        long token = getFencingToken();
+        if (token == 0) {
+            return false;
+        }
+        Boolean ran = transactionTemplate.execute(status -> {
+            if (leaseRepository.lockIfHeld(lease, holder, token, LocalDateTime.now()).isEmpty()) {
+                return false;
+            }
+            work.run();
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    void renew() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long token = 0;
+        try {
+            if (leaseRepository.acquire(lease, holder, now, now.plusNanos(leaseMillis * 1_000_000)) == 1
+                    || create(now)) {
+                token = leaseRepository.findById(lease).map(LeaderLease::getFencingToken).orElse(0L);
+            }
+        } catch (Exception e) {
+            // Can't reach the database: stay leader only until the lease we already have runs out
+            log.warn("Could not renew the leader lease: {}", e.toString());
+            return;
+        }
+        long previous = fencingToken;
+        if (token != 0) {
+            // Counted from before the write, so this instance gives up before anyone else can take over
+            validUntilNanos = started + TimeUnit.MILLISECONDS.toNanos(leaseMillis - heartbeatMillis / 2);
+            fencingToken = token;
+            if (previous != token) {
+                transitions.increment();
+                log.info("{} is now the cluster leader (fencing token {})", holder, token);
+            }
+        } else {
+            fencingToken = 0;
+            if (previous != 0) {
+                log.warn("{} lost the cluster leader lease", holder);
+            }
+        }
+    }
+
+    // First start against this database: the lease row does not exist yet
+    private boolean create(LocalDateTime now) {
+        if (leaseRepository.existsById(lease)) {
+            return false;
+        }
+        try {
+            return leaseRepository.create(lease, holder, now.plusNanos(leaseMillis * 1_000_000)) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false; // another instance created it first
+        }
+    }
+}
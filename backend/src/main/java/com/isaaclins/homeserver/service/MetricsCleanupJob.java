@@ -0,0 +1,34 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.Job;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Deletes system metrics older than a week once an hour.
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricsCleanupJob implements JobHandler {
+
+    public static final String TYPE = "cleanup-metrics";
+
+    private final SystemMetricsService systemMetricsService;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(Job job) {
+        systemMetricsService.cleanupOldMetrics();
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofHours(1);
+    }
+}
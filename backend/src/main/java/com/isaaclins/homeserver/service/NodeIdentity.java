@@ -0,0 +1,39 @@
+package com.isaaclins.homeserver.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Name of this backend instance: {@code cluster.node-id} if set, otherwise
+ * the host name. It must survive restarts, because stored per-host data
+ * (system metrics) is looked up by it. Processes that need a name of their
+ * own per run (job and lease owners) add a suffix to it.
+ */
+@Component
+@Slf4j
+public class NodeIdentity {
+
+    private final String id;
+
+    public NodeIdentity(@Value("${cluster.node-id:}") String configuredId) {
+        this.id = configuredId.isBlank() ? hostName() : configuredId.trim();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String fromEnvironment = System.getenv("HOSTNAME");
+            log.warn("Could not resolve the host name; set cluster.node-id to name this node", e);
+            return fromEnvironment != null && !fromEnvironment.isBlank() ? fromEnvironment : "localhost";
+        }
+    }
+}
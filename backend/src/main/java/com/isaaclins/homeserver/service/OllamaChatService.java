@@ -0,0 +1,359 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.isaaclins.homeserver.dto.ChatRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Streams chat completions from Ollama to the browser over STOMP. Each chat
+ * publishes its events to the user destination
+ * {@value #DESTINATION_PREFIX}{chatId}, which only the sessions of the user
+ * who submitted it receive. Clients subscribe to
+ * {@code /user}{@value #DESTINATION_PREFIX}{chatId}:
+ *
+ * <ul>
+ * <li>{@code queued}: waiting for a free slot, with its queue position</li>
+ * <li>{@code token}: the next piece of the reply</li>
+ * <li>{@code done}: token count, time to first token and tokens/sec</li>
+ * <li>{@code error}: the completion failed</li>
+ * </ul>
+ *
+ * Every event carries a {@code seq} number. Each model runs at most
+ * {@code ollama.max-concurrent-per-model} completions at once. Up to
+ * {@code ollama.max-queued-per-model} more wait in line, and anything
+ * beyond that is rejected. No thread waits on Ollama: a finished stream
+ * starts the next queued chat from its completion callback.
+ *
+ * <p>Models must be listed in {@code ollama.models} when it is set. At most
+ * {@code ollama.max-models} models have a lane (and meters) at a time; idle
+ * lanes are dropped to make room for a new model.
+ */
+@Service
+@Slf4j
+public class OllamaChatService {
+
+    public static final String DESTINATION_PREFIX = "/queue/chat/";
+
+    private static final Pattern CHAT_ID = Pattern.compile("[A-Za-z0-9-]{8,64}");
+    private static final Pattern MODEL = Pattern.compile("[A-Za-z0-9._:/-]{1,128}");
+
+    private final OllamaClient ollamaClient;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrentPerModel;
+    private final int maxQueuedPerModel;
+    private final Set<String> allowedModels;
+    private final int maxModels;
+    private final Map<String, ModelLane> lanes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OllamaChatService(OllamaClient ollamaClient, SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${ollama.max-concurrent-per-model:2}") int maxConcurrentPerModel,
+            @Value("${ollama.max-queued-per-model:16}") int maxQueuedPerModel,
+            @Value("${ollama.models:}") List<String> allowedModels,
+            @Value("${ollama.max-models:8}") int maxModels) {
+        this.ollamaClient = ollamaClient;
+        this.messagingTemplate = messagingTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrentPerModel = maxConcurrentPerModel;
+        this.maxQueuedPerModel = maxQueuedPerModel;
+        this.allowedModels = new HashSet<>();
+        allowedModels.stream().map(String::trim).filter(model -> !model.isEmpty()).forEach(this.allowedModels::add);
+        this.maxModels = maxModels;
+    }
+
+    /**
+     * Starts or queues a completion.
+     *
+     * @return the chat id whose destination receives the events
+     * @throws IllegalArgumentException if the request is incomplete or the
+     *                                  model is not allowed
+     * @throws QueueFullException       if the model's queue is full, or no
+     *                                  lane is free for a new model
+     */
+    public String submit(ChatRequest request, String username) {
+        if (request.getModel() == null || request.getModel().isBlank()
+                || request.getMessages() == null || request.getMessages().isEmpty()) {
+            throw new IllegalArgumentException("model and messages are required");
+        }
+        String model = request.getModel();
+        if (!MODEL.matcher(model).matches() || !allowedModels.isEmpty() && !allowedModels.contains(model)) {
+            throw new IllegalArgumentException("Unknown model " + model);
+        }
+        String chatId = request.getChatId();
+        if (chatId == null) {
+            chatId = UUID.randomUUID().toString();
+        } else if (!CHAT_ID.matcher(chatId).matches()) {
+            throw new IllegalArgumentException("chatId must be 8-64 letters, digits or dashes");
+        }
+
+        Chat chat = new Chat(chatId, request, username);
+        while (!lane(model).submit(chat)) {
+            // Retired between lookup and submit; the next lookup creates a fresh lane
+        }
+        return chatId;
+    }
+
+    private ModelLane lane(String model) {
+        ModelLane lane = lanes.get(model);
+        if (lane != null) {
+            return lane;
+        }
+        synchronized (lanes) {
+            lane = lanes.get(model);
+            if (lane == null) {
+                if (lanes.size() >= maxModels) {
+                    lanes.values().removeIf(ModelLane::retireIfIdle);
+                    if (lanes.size() >= maxModels) {
+                        throw new QueueFullException("Too many models in use, at most " + maxModels);
+                    }
+                }
+                lane = new ModelLane(model);
+                lanes.put(model, lane);
+            }
+            return lane;
+        }
+    }
+
+    private void start(ModelLane lane, Chat chat) {
+        chat.startedNanos = System.nanoTime();
+        lane.queueWait.record(chat.startedNanos - chat.submittedNanos, TimeUnit.NANOSECONDS);
+        try {
+            ollamaClient.streamChat(chat.request.getModel(), chat.request.getMessages(),
+                    chunk -> onChunk(lane, chat, chunk))
+                    .whenComplete((ignored, error) -> finish(lane, chat, error));
+        } catch (RuntimeException e) {
+            finish(lane, chat, e);
+        }
+    }
+
+    private void onChunk(ModelLane lane, Chat chat, JsonNode chunk) {
+        if (chunk.hasNonNull("error")) {
+            throw new OllamaClient.OllamaException(chunk.get("error").asText());
+        }
+        String content = chunk.path("message").path("content").asText();
+        if (!content.isEmpty()) {
+            if (chat.tokens == 0) {
+                chat.firstTokenNanos = System.nanoTime();
+                lane.timeToFirstToken.record(chat.firstTokenNanos - chat.startedNanos, TimeUnit.NANOSECONDS);
+            }
+            chat.tokens++;
+            lane.tokens.increment();
+            publish(chat, "token", Map.of("content", content));
+        }
+        if (chunk.path("done").asBoolean(false)) {
+            // Ollama's own count and timing exclude prompt evaluation and network time
+            long evalCount = chunk.path("eval_count").asLong(0);
+            long evalNanos = chunk.path("eval_duration").asLong(0);
+            if (evalCount > 0 && evalNanos > 0) {
+                chat.tokensPerSecond = evalCount * 1e9 / evalNanos;
+            }
+        }
+    }
+
+    private void finish(ModelLane lane, Chat chat, Throwable error) {
+        try {
+            if (error != null) {
+                lane.failed.increment();
+                log.warn("Chat {} of {} on {} failed: {}", chat.chatId, chat.username, chat.request.getModel(), error.toString());
+                publish(chat, "error", Map.of("message",
+                        error.getMessage() != null ? error.getMessage() : error.toString()));
+                return;
+            }
+            if (chat.tokensPerSecond == null && chat.tokens > 1) {
+                chat.tokensPerSecond = (chat.tokens - 1) * 1e9 / (System.nanoTime() - chat.firstTokenNanos);
+            }
+            if (chat.tokensPerSecond != null) {
+                lane.tokensPerSecond.record(chat.tokensPerSecond);
+            }
+            lane.completed.increment();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("tokens", chat.tokens);
+            stats.put("timeToFirstTokenMs", chat.tokens > 0
+                    ? TimeUnit.NANOSECONDS.toMillis(chat.firstTokenNanos - chat.startedNanos) : null);
+            stats.put("tokensPerSecond", chat.tokensPerSecond);
+            publish(chat, "done", stats);
+        } finally {
+            lane.release();
+        }
+    }
+
+    private void publish(Chat chat, String type, Map<String, ?> fields) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("seq", chat.seq++);
+        event.putAll(fields);
+        try {
+            messagingTemplate.convertAndSendToUser(chat.username, DESTINATION_PREFIX + chat.chatId, event);
+        } catch (Exception e) {
+            log.warn("Could not publish {} event for chat {}", type, chat.chatId, e);
+        }
+    }
+
+    /**
+     * The model's queue, or the set of models, has no room; the caller
+     * should retry later.
+     */
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Chat {
+        final String chatId;
+        final ChatRequest request;
+        final String username;
+        final long submittedNanos = System.nanoTime();
+        long startedNanos;
+        long firstTokenNanos;
+        int tokens;
+        Double tokensPerSecond;
+        // Events of one chat are published one at a time: queued, then the stream's callbacks in order
+        int seq;
+
+        Chat(String chatId, ChatRequest request, String username) {
+            this.chatId = chatId;
+            this.request = request;
+            this.username = username;
+        }
+    }
+
+    /**
+     * Concurrency slots and waiting line for one model.
+     */
+    private final class ModelLane {
+        final String model;
+        final Queue<Chat> waiting = new ArrayDeque<>();
+        final List<Meter> meters = new ArrayList<>();
+        int active;
+        boolean retired;
+
+        final Timer timeToFirstToken;
+        final Timer queueWait;
+        final DistributionSummary tokensPerSecond;
+        final Counter tokens;
+        final Counter completed;
+        final Counter failed;
+        final Counter rejected;
+
+        ModelLane(String model) {
+            this.model = model;
+            timeToFirstToken = track(Timer.builder("ollama.chat.time.to.first.token")
+                    .description("Time from sending a chat to Ollama to its first token")
+                    .tag("model", model)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            queueWait = track(Timer.builder("ollama.chat.queue.wait")
+                    .description("Time chats wait for a free slot on their model")
+                    .tag("model", model)
+                    .register(meterRegistry));
+            tokensPerSecond = track(DistributionSummary.builder("ollama.chat.tokens.per.second")
+                    .description("Generation speed of completed chats")
+                    .tag("model", model)
+                    .register(meterRegistry));
+            tokens = track(Counter.builder("ollama.chat.tokens").tag("model", model).register(meterRegistry));
+            completed = requests("completed");
+            failed = requests("failed");
+            rejected = requests("rejected");
+            track(Gauge.builder("ollama.chat.active", this, ModelLane::activeCount)
+                    .tag("model", model).register(meterRegistry));
+            track(Gauge.builder("ollama.chat.queued", this, ModelLane::queuedCount)
+                    .tag("model", model).register(meterRegistry));
+        }
+
+        private Counter requests(String outcome) {
+            return track(Counter.builder("ollama.chat.requests")
+                    .tag("model", model)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+
+        private <M extends Meter> M track(M meter) {
+            meters.add(meter);
+            return meter;
+        }
+
+        /**
+         * @return false if the lane was retired and the chat must go to a new one
+         */
+        boolean submit(Chat chat) {
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                if (active >= maxConcurrentPerModel) {
+                    if (waiting.size() >= maxQueuedPerModel) {
+                        rejected.increment();
+                        throw new QueueFullException("Too many pending chats for model " + model);
+                    }
+                    waiting.add(chat);
+                    // Under the lock, so it goes out before release() can start the chat
+                    publish(chat, "queued", Map.of("position", waiting.size()));
+                    return true;
+                }
+                active++;
+            }
+            start(this, chat);
+            return true;
+        }
+
+        /**
+         * Retires the lane and removes its meters if no chat is running or
+         * waiting.
+         */
+        synchronized boolean retireIfIdle() {
+            if (active > 0 || !waiting.isEmpty()) {
+                return false;
+            }
+            retired = true;
+            meters.forEach(meterRegistry::remove);
+            return true;
+        }
+
+        void release() {
+            Chat next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    active--;
+                }
+            }
+            if (next != null) {
+                start(this, next);
+            }
+        }
+
+        synchronized int activeCount() {
+            return active;
+        }
+
+        synchronized int queuedCount() {
+            return waiting.size();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.dto.ChatMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Talks to an Ollama-compatible HTTP API without blocking a thread per
+ * request. Uses one shared JDK {@link HttpClient}, which keeps idle
+ * connections to the server alive and reuses them across requests. Streamed
+ * responses (newline-delimited JSON) are handed to the caller chunk by chunk
+ * as they arrive.
+ */
+@Component
+public class OllamaClient {
+
+    private final HttpClient httpClient;
+    private final URI chatUri;
+    private final Duration responseTimeout;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OllamaClient(ObjectMapper objectMapper,
+            @Value("${ollama.base-url:http://localhost:11434}") String baseUrl,
+            @Value("${ollama.connect-timeout-ms:5000}") long connectTimeoutMillis,
+            @Value("${ollama.response-timeout-ms:120000}") long responseTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.chatUri = URI.create(baseUrl.replaceAll("/+$", "") + "/api/chat");
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+    }
+
+    /**
+     * Starts a streaming chat completion.
+     *
+     * @param onChunk called with each JSON chunk, in order, on an HTTP client
+     *                thread; throwing aborts the stream
+     * @return completes after the last chunk, or exceptionally if the request
+     *         failed, Ollama answered with an error or {@code onChunk} threw
+     */
+    public CompletableFuture<Void> streamChat(String model, List<ChatMessage> messages, Consumer<JsonNode> onChunk) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(chatUri)
+                    .timeout(responseTimeout) // until the response headers arrive; model loading counts
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(
+                            Map.of("model", model, "messages", messages, "stream", true))))
+                    .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        ChunkSubscriber subscriber = new ChunkSubscriber(onChunk);
+        httpClient.sendAsync(request, info -> info.statusCode() == 200
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                        : HttpResponse.BodySubscribers.mapping(
+                                HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                                    throw new OllamaException("Ollama returned HTTP " + info.statusCode()
+                                            + ": " + errorMessage(body));
+                                }))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        subscriber.done.completeExceptionally(
+                                error instanceof CompletionException && error.getCause() != null
+                                        ? error.getCause() : error);
+                    } else {
+                        subscriber.done.complete(null);
+                    }
+                });
+        return subscriber.done;
+    }
+
+    private String errorMessage(String body) {
+        try {
+            JsonNode error = objectMapper.readTree(body).get("error");
+            return error != null ? error.asText() : body;
+        } catch (IOException e) {
+            return body;
+        }
+    }
+
+    private final class ChunkSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<JsonNode> onChunk;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        private ChunkSubscriber(Consumer<JsonNode> onChunk) {
+            this.onChunk = onChunk;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (done.isDone() || line.isBlank()) {
+                return;
+            }
+            try {
+                onChunk.accept(objectMapper.readTree(line));
+            } catch (IOException e) {
+                abort(new OllamaException("Invalid chunk from Ollama", e));
+            } catch (RuntimeException e) {
+                abort(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        private void abort(Exception e) {
+            done.completeExceptionally(e);
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Ollama answered, but not with a usable completion.
+     */
+    public static class OllamaException extends RuntimeException {
+        public OllamaException(String message) {
+            super(message);
+        }
+
+        public OllamaException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
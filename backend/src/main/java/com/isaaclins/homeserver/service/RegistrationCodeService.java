@@ -2,22 +2,83 @@ package com.isaaclins.homeserver.service;
 
 import com.isaaclins.homeserver.entity.RegistrationCode;
 import com.isaaclins.homeserver.repository.RegistrationCodeRepository;
+import com.isaaclins.homeserver.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.Random;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * Registration codes are served from memory: active codes live in a
+ * concurrent map and expire through a hashed timing wheel, so consuming a
+ * code is a single atomic map removal and expiry costs O(1) per code. The
+ * database is written through only so codes survive a restart.
+ *
+ * <p>In cluster mode other instances generate and consume codes in the same
+ * table, so the database decides: consuming deletes the unexpired row, and
+ * listing reads the table.
+ */
 @Service
+@Slf4j
 public class RegistrationCodeService {
 
+    public static final int DEFAULT_CODE_LENGTH = 6;
+    public static final int MAX_CODE_LENGTH = 12;
+
+    private static final int MAX_GENERATE_ATTEMPTS = 20;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final long WHEEL_TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 128;
+    private static final String INSERT_SQL = "INSERT INTO registration_codes (code, expires_at) VALUES (?, ?)";
+
+    // One generator per thread: SecureRandom instances synchronize internally
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
     private final RegistrationCodeRepository codeRepository;
-    private final Random random = new Random();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterEvents clusterEvents;
+
+    private final Map<String, ActiveCode> activeCodes = new ConcurrentHashMap<>();
+    private final TimingWheel<ActiveCode> expiryWheel =
+            new TimingWheel<>(WHEEL_TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
 
     @Autowired
-    public RegistrationCodeService(RegistrationCodeRepository codeRepository) {
+    public RegistrationCodeService(RegistrationCodeRepository codeRepository, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, ClusterEvents clusterEvents) {
         this.codeRepository = codeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clusterEvents = clusterEvents;
+    }
+
+    @PostConstruct
+    public void loadActiveCodes() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            codeRepository.deleteExpired(now);
+            codeRepository.findByExpiresAtAfter(now).forEach(this::track);
+            log.info("Loaded {} active registration codes", activeCodes.size());
+        } catch (Exception e) {
+            log.warn("Could not load registration codes", e);
+        }
     }
 
     /**
@@ -27,43 +88,194 @@ public class RegistrationCodeService {
      * @return the generated code
      */
     public String generateCode() {
-        String code = String.format("%06d", random.nextInt(1_000_000));
-        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(1);
-        codeRepository.save(new RegistrationCode(code, expiresAt));
-        return code;
+        for (int attempt = 0; attempt < MAX_GENERATE_ATTEMPTS; attempt++) {
+            String code = randomCode(DEFAULT_CODE_LENGTH);
+            RegistrationCode registrationCode = new RegistrationCode(code, LocalDateTime.now().plusMinutes(1));
+            ActiveCode active = new ActiveCode(registrationCode);
+            if (activeCodes.putIfAbsent(code, active) != null) {
+                continue; // Collides with an active code, pick another
+            }
+            try {
+                codeRepository.save(registrationCode);
+            } catch (DataIntegrityViolationException e) {
+                // A stale row (e.g. from another instance) still holds this code
+                activeCodes.remove(code, active);
+                continue;
+            }
+            schedule(active);
+            return code;
+        }
+        throw new IllegalStateException("Could not generate a unique registration code");
+    }
+
+    /**
+     * Generates {@code count} unique codes valid for {@code ttl}. Codes are
+     * de-duplicated in memory against all active codes and inserted with JDBC
+     * batches; each committed batch is handed to {@code committed} so callers
+     * can stream results while the rest is still being written.
+     */
+    public void generateCodes(int count, Duration ttl, int length, Consumer<List<RegistrationCode>> committed) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        List<ActiveCode> batch = new ArrayList<>(Math.min(count, INSERT_BATCH_SIZE));
+        for (int i = 0; i < count; i++) {
+            batch.add(reserveUniqueCode(length, expiresAt));
+            if (batch.size() == INSERT_BATCH_SIZE || i == count - 1) {
+                committed.accept(insertBatch(batch, length));
+                batch = new ArrayList<>(Math.min(count - i - 1, INSERT_BATCH_SIZE));
+            }
+        }
     }
 
     /**
      * Validates and consumes a code. If the code exists and is not expired it will
-     * be removed from the database and the method returns true.
+     * be removed and the method returns true. The in-memory removal is atomic,
+     * so two concurrent registrations can never both consume the same code.
      */
     public boolean consumeCode(String code) {
-        Optional<RegistrationCode> optional = codeRepository.findByCode(code);
-        if (optional.isEmpty()) {
+        if (code == null) {
             return false;
         }
-        RegistrationCode registrationCode = optional.get();
-        if (registrationCode.isExpired()) {
-            // Clean up expired code
-            codeRepository.delete(registrationCode);
+        ActiveCode active = activeCodes.remove(code);
+        if (clusterEvents.isEnabled()) {
+            if (active != null) {
+                expiryWheel.cancel(active.timeout);
+            }
+            return codeRepository.deleteUnexpired(code, LocalDateTime.now()) == 1;
+        }
+        if (active == null) {
             return false;
         }
-        // Valid code, consume it
-        codeRepository.delete(registrationCode);
-        return true;
+        expiryWheel.cancel(active.timeout);
+        try {
+            codeRepository.deleteByCode(code);
+        } catch (Exception e) {
+            // Already consumed in memory; the expiry cleanup will catch the row later
+            log.warn("Could not delete consumed registration code", e);
+        }
+        return !active.code.isExpired();
     }
 
     /**
-     * Periodic cleanup (optional) but can be called to delete expired codes.
+     * Advances the expiry wheel and removes codes whose time is up. Expired
+     * rows are deleted with one bulk statement rather than one by one.
      */
+    @Scheduled(fixedDelay = WHEEL_TICK_MS)
     public void purgeExpiredCodes() {
-        codeRepository.findAll().stream()
-                .filter(RegistrationCode::isExpired)
-                .forEach(codeRepository::delete);
+        try {
+            List<ActiveCode> expired = expiryWheel.advance(System.currentTimeMillis());
+            if (expired.isEmpty()) {
+                return;
+            }
+            expired.forEach(a -> activeCodes.remove(a.code.getCode(), a));
+            codeRepository.deleteExpired(LocalDateTime.now());
+            log.debug("Expired {} registration codes", expired.size());
+        } catch (Exception e) {
+            log.error("Error purging expired registration codes", e);
+        }
     }
 
     public java.util.List<RegistrationCode> listActiveCodes() {
-        purgeExpiredCodes();
-        return codeRepository.findAll();
+        if (clusterEvents.isEnabled()) {
+            return codeRepository.findByExpiresAtAfter(LocalDateTime.now()).stream()
+                    .sorted(Comparator.comparing(RegistrationCode::getExpiresAt))
+                    .collect(Collectors.toList());
+        }
+        return activeCodes.values().stream()
+                .map(a -> a.code)
+                .filter(c -> !c.isExpired())
+                .sorted(Comparator.comparing(RegistrationCode::getExpiresAt))
+                .collect(Collectors.toList());
+    }
+
+    private ActiveCode reserveUniqueCode(int length, LocalDateTime expiresAt) {
+        for (int attempt = 0; attempt < MAX_GENERATE_ATTEMPTS; attempt++) {
+            ActiveCode active = new ActiveCode(new RegistrationCode(randomCode(length), expiresAt));
+            if (activeCodes.putIfAbsent(active.code.getCode(), active) == null) {
+                return active;
+            }
+        }
+        throw new IllegalStateException("Code space exhausted for length " + length);
+    }
+
+    private List<RegistrationCode> insertBatch(List<ActiveCode> reserved, int length) {
+        List<ActiveCode> batch = reserved;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, reserved,
+                    reserved.size(), (ps, active) -> {
+                        ps.setString(1, active.code.getCode());
+                        ps.setTimestamp(2, Timestamp.valueOf(active.code.getExpiresAt()));
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // A stale row holds one of the codes; insert one by one and re-roll the clashes
+            log.debug("Batch insert of registration codes conflicted, retrying row by row", e);
+            List<ActiveCode> inserted = new ArrayList<>(reserved.size());
+            try {
+                for (ActiveCode active : reserved) {
+                    inserted.add(insertSingle(active, length));
+                }
+            } catch (RuntimeException failure) {
+                // insertSingle released the code it failed on; keep the rows already written
+                // and release the reservations that were never tried
+                inserted.forEach(this::schedule);
+                reserved.subList(inserted.size() + 1, reserved.size())
+                        .forEach(a -> activeCodes.remove(a.code.getCode(), a));
+                throw failure;
+            }
+            batch = inserted;
+        } catch (RuntimeException e) {
+            // Nothing was written; release the reservations so they don't linger unscheduled
+            reserved.forEach(a -> activeCodes.remove(a.code.getCode(), a));
+            throw e;
+        }
+        batch.forEach(this::schedule);
+        return batch.stream().map(a -> a.code).collect(Collectors.toList());
+    }
+
+    private ActiveCode insertSingle(ActiveCode active, int length) {
+        for (int attempt = 0; attempt < MAX_GENERATE_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, active.code.getCode(), Timestamp.valueOf(active.code.getExpiresAt()));
+                return active;
+            } catch (DataIntegrityViolationException e) {
+                activeCodes.remove(active.code.getCode(), active);
+                if (attempt + 1 < MAX_GENERATE_ATTEMPTS) {
+                    active = reserveUniqueCode(length, active.code.getExpiresAt());
+                }
+            } catch (RuntimeException e) {
+                activeCodes.remove(active.code.getCode(), active);
+                throw e;
+            }
+        }
+        throw new IllegalStateException("Could not insert a unique registration code");
+    }
+
+    private static String randomCode(int length) {
+        SecureRandom random = RANDOM.get();
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(digits);
+    }
+
+    private void track(RegistrationCode registrationCode) {
+        ActiveCode active = new ActiveCode(registrationCode);
+        if (activeCodes.putIfAbsent(registrationCode.getCode(), active) == null) {
+            schedule(active);
+        }
+    }
+
+    private void schedule(ActiveCode active) {
+        long deadline = active.code.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        active.timeout = expiryWheel.schedule(active, deadline);
+    }
+
+    private static final class ActiveCode {
+        final RegistrationCode code;
+        volatile TimingWheel.Timeout<ActiveCode> timeout;
+
+        ActiveCode(RegistrationCode code) {
+            this.code = code;
+        }
     }
 }
@@ -0,0 +1,34 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.Job;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Deletes request logs past their retention once an hour.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLogCleanupJob implements JobHandler {
+
+    public static final String TYPE = "cleanup-request-logs";
+
+    private final RequestLogService requestLogService;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(Job job) {
+        requestLogService.cleanupOldRequestLogs();
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofHours(1);
+    }
+}
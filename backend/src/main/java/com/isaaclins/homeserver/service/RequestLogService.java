@@ -2,26 +2,83 @@ package com.isaaclins.homeserver.service;
 
 import com.isaaclins.homeserver.entity.RequestLog;
 import com.isaaclins.homeserver.repository.RequestLogRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Request logs are pushed to WebSocket subscribers immediately but written to
+ * the database in batches: {@link #logRequest} only enqueues, and
+ * {@link #flushPendingLogs()} inserts everything buffered so far with JDBC
+ * batching. If the buffer is full (database down or far behind) new entries
+ * are dropped rather than slowing requests down.
+ *
+ * <p>A batch that fails with a retryable error (database unreachable,
+ * deadlock, timeout) is kept and retried with exponential backoff, starting
+ * at {@code request-log.retry-backoff-ms}, before anything newer is written.
+ * Any other failure retries the batch row by row, and only the rows that fail
+ * on their own are dropped.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RequestLogService {
 
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
     private final RequestLogRepository requestLogRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final FilteredRequestLogPublisher filteredPublisher;
+    private final ArchiveService archiveService;
+    private final BlockingQueue<RequestLog> pending;
+    private final int flushBatchSize;
+    private final long retryBackoffMillis;
+    private final AtomicLong dropped = new AtomicLong();
+    // Only touched by flushPendingLogs, which is synchronized
+    private List<RequestLog> retrying = new ArrayList<>();
+    private long retryDelayMillis;
+    private long nextRetryMillis;
+
+    @Autowired
+    public RequestLogService(RequestLogRepository requestLogRepository, SimpMessagingTemplate messagingTemplate,
+            FilteredRequestLogPublisher filteredPublisher, ArchiveService archiveService,
+            @Value("${request-log.buffer-capacity:50000}") int bufferCapacity,
+            @Value("${request-log.flush-batch-size:5000}") int flushBatchSize,
+            @Value("${request-log.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        this.requestLogRepository = requestLogRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.filteredPublisher = filteredPublisher;
+        this.archiveService = archiveService;
+        this.pending = new ArrayBlockingQueue<>(bufferCapacity);
+        this.flushBatchSize = flushBatchSize;
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
 
     public void logRequest(String username, String method, String endpoint,
             Integer statusCode, Long responseTime,
             String userAgent, String ipAddress) {
+        logRequest(username, method, endpoint, statusCode, responseTime, userAgent, ipAddress, null, null);
+    }
+
+    public void logRequest(String username, String method, String endpoint,
+            Integer statusCode, Long responseTime,
+            String userAgent, String ipAddress,
+            Integer statementCount, Long dbTimeMs) {
         try {
             RequestLog requestLog = new RequestLog();
             requestLog.setTimestamp(LocalDateTime.now());
@@ -32,11 +89,19 @@ public class RequestLogService {
             requestLog.setResponseTimeMs(responseTime);
             requestLog.setUserAgent(userAgent);
             requestLog.setIpAddress(ipAddress);
+            requestLog.setStatementCount(statementCount);
+            requestLog.setDbTimeMs(dbTimeMs);
 
-            RequestLog savedLog = requestLogRepository.save(requestLog);
+            if (!pending.offer(requestLog)) {
+                long total = dropped.incrementAndGet();
+                if (total == 1 || total % 1000 == 0) {
+                    log.warn("Request log buffer full, {} entries dropped so far", total);
+                }
+            }
 
-            // Send real-time update via WebSocket
-            messagingTemplate.convertAndSend("/topic/request-logs", formatRequestLog(savedLog));
+            // Send real-time update via WebSocket (all events as text, filtered subscriptions as JSON)
+            messagingTemplate.convertAndSend("/topic/request-logs", formatRequestLog(requestLog));
+            filteredPublisher.publish(requestLog);
 
             log.debug("Logged request: {} {} {} - {} ({}ms)",
                     method, endpoint, username, statusCode, responseTime);
@@ -46,27 +111,121 @@ public class RequestLogService {
         }
     }
 
+    /**
+     * Writes buffered request logs, {@code request-log.flush-batch-size} rows
+     * per transaction.
+     *
+     * @return the number of rows written
+     */
+    @Scheduled(fixedDelayString = "${request-log.flush-interval-ms:1000}")
+    public synchronized int flushPendingLogs() {
+        int written = 0;
+        if (!retrying.isEmpty()) {
+            if (System.currentTimeMillis() < nextRetryMillis) {
+                return 0;
+            }
+            List<RequestLog> batch = retrying;
+            retrying = new ArrayList<>();
+            written += write(batch);
+            if (!retrying.isEmpty()) {
+                return written;
+            }
+            retryDelayMillis = 0;
+        }
+        List<RequestLog> batch = new ArrayList<>(Math.min(flushBatchSize, pending.size()));
+        while (pending.drainTo(batch, flushBatchSize) > 0) {
+            written += write(batch);
+            if (!retrying.isEmpty()) {
+                return written;
+            }
+            batch.clear();
+        }
+        if (written > 0) {
+            log.debug("Flushed {} request logs", written);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        synchronized (this) {
+            nextRetryMillis = 0; // last chance, don't wait out the backoff
+        }
+        flushPendingLogs();
+    }
+
+    /**
+     * Writes one batch. Rows left unwritten by a retryable error go to
+     * {@link #retrying}.
+     */
+    private int write(List<RequestLog> batch) {
+        try {
+            return requestLogRepository.insertAll(batch);
+        } catch (Exception e) {
+            batch.forEach(requestLog -> requestLog.setId(null)); // ids of the rolled-back insert
+            if (isRetryable(e)) {
+                retryLater(batch, e);
+                return 0;
+            }
+            log.warn("Writing {} request logs failed, writing them one by one", batch.size(), e);
+        }
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            RequestLog requestLog = batch.get(i);
+            try {
+                written += requestLogRepository.insertAll(List.of(requestLog));
+            } catch (Exception e) {
+                requestLog.setId(null);
+                if (isRetryable(e)) {
+                    retryLater(batch.subList(i, batch.size()), e);
+                    return written;
+                }
+                dropped.incrementAndGet();
+                log.error("Dropping request log that cannot be written: {}", formatRequestLog(requestLog), e);
+            }
+        }
+        return written;
+    }
+
+    private void retryLater(List<RequestLog> rows, Exception e) {
+        retrying = new ArrayList<>(rows);
+        retryDelayMillis = retryDelayMillis == 0
+                ? retryBackoffMillis : Math.min(retryDelayMillis * 2, MAX_RETRY_BACKOFF_MS);
+        nextRetryMillis = System.currentTimeMillis() + retryDelayMillis;
+        log.warn("Could not write {} request logs, retrying in {} ms: {}", rows.size(), retryDelayMillis, e.toString());
+    }
+
+    private static boolean isRetryable(Exception e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException; // e.g. no connection to begin with
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Transactional(readOnly = true)
     public List<RequestLog> getRecentRequestLogs(int limit) {
         List<RequestLog> logs = requestLogRepository.findRecentRequests();
         return logs.size() > limit ? logs.subList(0, limit) : logs;
     }
 
+    @Transactional(readOnly = true)
     public List<RequestLog> getRequestLogsSince(LocalDateTime since) {
         return requestLogRepository.findRequestsSince(since);
     }
 
-    @Scheduled(fixedRate = 3600000) // Cleanup old request logs every hour
+    // Run hourly by RequestLogCleanupJob; if archiving fails nothing is deleted and the job retries
     public void cleanupOldRequestLogs() {
-        try {
-            LocalDateTime cutoff = LocalDateTime.now().minusDays(3); // Keep 3 days of request logs
-            requestLogRepository.deleteOldRequests(cutoff);
-            log.info("Cleaned up old request logs older than {}", cutoff);
-        } catch (Exception e) {
-            log.error("Error cleaning up old request logs", e);
-        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(3); // Keep 3 days of request logs
+        archiveService.archive(ArchiveService.Dataset.REQUEST_LOGS, cutoff);
+        requestLogRepository.deleteOldRequests(cutoff);
+        log.info("Cleaned up old request logs older than {}", cutoff);
     }
 
-    private String formatRequestLog(RequestLog log) {
+    String formatRequestLog(RequestLog log) {
         return String.format("[%s]: %s (%s %s) (%d)",
                 log.getTimestamp(),
                 log.getUsername(),
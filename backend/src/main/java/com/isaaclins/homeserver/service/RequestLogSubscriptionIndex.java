@@ -0,0 +1,192 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.RequestLogFilter;
+import com.isaaclins.homeserver.entity.RequestLog;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index of filtered request-log subscriptions. Subscriptions with identical
+ * filters share one {@link FilterGroup}. Each group is filed under its most
+ * selective criterion: username (hash lookup), else route prefix (trie walk
+ * along the endpoint), else status class (one slot per class), else minimum
+ * latency (sorted map). An event only visits the groups filed under the
+ * username, prefixes, status class and latency it actually has, and checks
+ * their remaining criteria; groups filed elsewhere are never looked at.
+ *
+ * <p>
+ * Subscriptions change rarely, so every change recompiles an immutable
+ * snapshot which events then read without locking.
+ */
+@Component
+public class RequestLogSubscriptionIndex {
+
+    // sessionId -> subscriptionId -> filter
+    private final Map<String, Map<String, RequestLogFilter>> subscriptions = new HashMap<>();
+    private volatile Compiled compiled = Compiled.EMPTY;
+
+    public synchronized void subscribe(String sessionId, String subscriptionId, RequestLogFilter filter) {
+        subscriptions.computeIfAbsent(sessionId, s -> new LinkedHashMap<>()).put(subscriptionId, filter);
+        recompile();
+    }
+
+    public synchronized void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, RequestLogFilter> session = subscriptions.get(sessionId);
+        if (session != null && session.remove(subscriptionId) != null) {
+            if (session.isEmpty()) {
+                subscriptions.remove(sessionId);
+            }
+            recompile();
+        }
+    }
+
+    public synchronized void removeSession(String sessionId) {
+        if (subscriptions.remove(sessionId) != null) {
+            recompile();
+        }
+    }
+
+    public boolean isEmpty() {
+        return compiled.groupCount == 0;
+    }
+
+    public int groupCount() {
+        return compiled.groupCount;
+    }
+
+    /**
+     * Returns the groups whose filter accepts the event.
+     */
+    public List<FilterGroup> match(RequestLog requestLog) {
+        return compiled.match(requestLog);
+    }
+
+    private void recompile() {
+        Map<RequestLogFilter, List<Subscriber>> byFilter = new LinkedHashMap<>();
+        subscriptions.forEach((sessionId, session) -> session.forEach((subscriptionId, filter) ->
+                byFilter.computeIfAbsent(filter, f -> new ArrayList<>())
+                        .add(new Subscriber(sessionId, subscriptionId))));
+        compiled = new Compiled(byFilter);
+    }
+
+    @Value
+    public static class Subscriber {
+        String sessionId;
+        String subscriptionId;
+    }
+
+    public static final class FilterGroup {
+        private final RequestLogFilter filter;
+        private final List<Subscriber> subscribers;
+
+        FilterGroup(RequestLogFilter filter, List<Subscriber> subscribers) {
+            this.filter = filter;
+            this.subscribers = List.copyOf(subscribers);
+        }
+
+        public RequestLogFilter getFilter() {
+            return filter;
+        }
+
+        public List<Subscriber> getSubscribers() {
+            return subscribers;
+        }
+    }
+
+    private static final class Compiled {
+        static final Compiled EMPTY = new Compiled(Map.of());
+
+        final int groupCount;
+        final List<FilterGroup> unconstrained = new ArrayList<>();
+        final Map<String, List<FilterGroup>> byUsername = new HashMap<>();
+        final TrieNode byRoutePrefix = new TrieNode();
+        @SuppressWarnings("unchecked")
+        final List<FilterGroup>[] byStatusClass = new List[10];
+        final NavigableMap<Long, List<FilterGroup>> byMinLatency = new TreeMap<>();
+
+        Compiled(Map<RequestLogFilter, List<Subscriber>> byFilter) {
+            byFilter.forEach((filter, subscribers) -> add(new FilterGroup(filter, subscribers)));
+            groupCount = byFilter.size();
+        }
+
+        // Indexed under the most selective criterion only; the rest is checked per candidate
+        private void add(FilterGroup group) {
+            RequestLogFilter filter = group.filter;
+            if (filter.getUsername() != null) {
+                byUsername.computeIfAbsent(filter.getUsername(), u -> new ArrayList<>()).add(group);
+            } else if (filter.getRoutePrefix() != null) {
+                byRoutePrefix.insert(filter.getRoutePrefix()).groups.add(group);
+            } else if (filter.getStatusClasses() != 0) {
+                for (int statusClass = 0; statusClass < byStatusClass.length; statusClass++) {
+                    if (filter.acceptsStatusClass(statusClass)) {
+                        if (byStatusClass[statusClass] == null) {
+                            byStatusClass[statusClass] = new ArrayList<>();
+                        }
+                        byStatusClass[statusClass].add(group);
+                    }
+                }
+            } else if (filter.getMinLatencyMs() != null) {
+                byMinLatency.computeIfAbsent(filter.getMinLatencyMs(), l -> new ArrayList<>()).add(group);
+            } else {
+                unconstrained.add(group);
+            }
+        }
+
+        List<FilterGroup> match(RequestLog requestLog) {
+            if (groupCount == 0) {
+                return List.of();
+            }
+            List<FilterGroup> matched = new ArrayList<>(unconstrained);
+            verify(byUsername.get(requestLog.getUsername()), requestLog, matched);
+            String endpoint = requestLog.getEndpoint();
+            if (endpoint != null) {
+                TrieNode node = byRoutePrefix;
+                for (int i = 0; node != null; i++) {
+                    verify(node.groups, requestLog, matched);
+                    node = i < endpoint.length() ? node.children.get(endpoint.charAt(i)) : null;
+                }
+            }
+            int statusClass = RequestLogFilter.statusClass(requestLog.getStatusCode());
+            if (statusClass >= 0 && statusClass < byStatusClass.length) {
+                verify(byStatusClass[statusClass], requestLog, matched);
+            }
+            // Latency-only groups: every group in the head map matches
+            for (List<FilterGroup> groups : byMinLatency.headMap(RequestLogFilter.latency(requestLog), true).values()) {
+                matched.addAll(groups);
+            }
+            return matched;
+        }
+
+        private static void verify(List<FilterGroup> candidates, RequestLog requestLog, List<FilterGroup> matched) {
+            if (candidates == null) {
+                return;
+            }
+            for (FilterGroup group : candidates) {
+                if (group.filter.matches(requestLog)) {
+                    matched.add(group);
+                }
+            }
+        }
+    }
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        final List<FilterGroup> groups = new ArrayList<>();
+
+        TrieNode insert(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+            }
+            return node;
+        }
+    }
+}
@@ -4,18 +4,20 @@ import com.isaaclins.homeserver.entity.SystemMetrics;
 import com.isaaclins.homeserver.repository.SystemMetricsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
 import oshi.hardware.GlobalMemory;
 import oshi.hardware.GraphicsCard;
 import oshi.hardware.HardwareAbstractionLayer;
 import oshi.hardware.NetworkIF;
-import oshi.software.os.OperatingSystem;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -23,20 +25,28 @@ import java.util.List;
 public class SystemMetricsService {
 
     private final SystemMetricsRepository systemMetricsRepository;
-    private final SystemInfo systemInfo = new SystemInfo();
-    private final HardwareAbstractionLayer hardware = systemInfo.getHardware();
-    private final OperatingSystem os = systemInfo.getOperatingSystem();
+    private final NodeIdentity nodeIdentity;
+    private final ArchiveService archiveService;
+    private final ClusterEvents clusterEvents;
+
+    // Bumped whenever rows are added or removed; lets caches of query results check freshness
+    private final AtomicLong metricsVersion = new AtomicLong();
+
+    // OSHI loads JNA and probes the hardware on first use; build it with the
+    // first collection instead of during context startup
+    private volatile HardwareAbstractionLayer hardware;
 
     // Store previous network stats for delta calculation
     private long previousNetworkReceived = 0;
     private long previousNetworkSent = 0;
     private long[] previousCpuTicks = null;
 
-    @Scheduled(fixedRate = 30000) // Collect metrics every 30 seconds
+    @Scheduled(fixedRate = 30000, initialDelayString = "${metrics.collection.initial-delay-ms:0}") // Collect metrics every 30 seconds
     public void collectMetrics() {
         try {
             SystemMetrics metrics = new SystemMetrics();
             metrics.setTimestamp(LocalDateTime.now());
+            metrics.setNodeId(nodeIdentity.getId());
 
             // CPU Usage
             metrics.setCpuUsage(getCpuUsage());
@@ -45,7 +55,7 @@ public class SystemMetricsService {
             metrics.setGpuUsage(getGpuUsage());
 
             // RAM Usage
-            GlobalMemory memory = hardware.getMemory();
+            GlobalMemory memory = hardware().getMemory();
             metrics.setRamTotal(memory.getTotal());
             metrics.setRamUsed(memory.getTotal() - memory.getAvailable());
 
@@ -55,6 +65,7 @@ public class SystemMetricsService {
             metrics.setNetworkBytesSent(networkStats.bytesSent);
 
             systemMetricsRepository.save(metrics);
+            metricsVersion.incrementAndGet();
             log.debug("Collected system metrics: CPU={}%, GPU={}%, RAM={}MB",
                     metrics.getCpuUsage(), metrics.getGpuUsage(),
                     metrics.getRamUsed() / 1024 / 1024);
@@ -66,7 +77,7 @@ public class SystemMetricsService {
 
     private double getCpuUsage() {
         try {
-            CentralProcessor processor = hardware.getProcessor();
+            CentralProcessor processor = hardware().getProcessor();
             long[] currentTicks = processor.getSystemCpuLoadTicks();
 
             if (previousCpuTicks == null) {
@@ -86,7 +97,7 @@ public class SystemMetricsService {
 
     private double getGpuUsage() {
         try {
-            List<GraphicsCard> graphicsCards = hardware.getGraphicsCards();
+            List<GraphicsCard> graphicsCards = hardware().getGraphicsCards();
             if (!graphicsCards.isEmpty()) {
                 // For simplicity, return a simulated GPU usage
                 // In a real implementation, you'd need platform-specific tools
@@ -102,7 +113,7 @@ public class SystemMetricsService {
 
     private NetworkStats getNetworkStats() {
         try {
-            List<NetworkIF> networkIFs = hardware.getNetworkIFs();
+            List<NetworkIF> networkIFs = hardware().getNetworkIFs();
             long totalReceived = 0;
             long totalSent = 0;
 
@@ -130,25 +141,79 @@ public class SystemMetricsService {
         }
     }
 
+    private HardwareAbstractionLayer hardware() {
+        HardwareAbstractionLayer current = hardware;
+        if (current == null) {
+            synchronized (this) {
+                current = hardware;
+                if (current == null) {
+                    current = new SystemInfo().getHardware();
+                    hardware = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public long getMetricsVersion() {
+        return metricsVersion.get();
+    }
+
+    // Every instance stores its own host's metrics; the plain getters return this node's
+    public String getLocalNodeId() {
+        return nodeIdentity.getId();
+    }
+
+    @Transactional(readOnly = true)
     public List<SystemMetrics> getMetricsForLast24Hours() {
+        return getMetricsForLast24Hours(null);
+    }
+
+    /**
+     * One node's metrics; {@code null} means this node. Outside cluster mode
+     * every row belongs to this host, whatever node id it was stored under
+     * (older rows have none, and the default id changes with the host name),
+     * so rows are not filtered by node.
+     */
+    @Transactional(readOnly = true)
+    public List<SystemMetrics> getMetricsForLast24Hours(String nodeId) {
         LocalDateTime since = LocalDateTime.now().minusHours(24);
-        return systemMetricsRepository.findMetricsSince(since);
+        String node = nodeOrLocal(nodeId);
+        return node == null
+                ? systemMetricsRepository.findMetricsSince(since)
+                : systemMetricsRepository.findMetricsSince(node, since);
     }
 
+    @Transactional(readOnly = true)
     public SystemMetrics getLatestMetrics() {
-        List<SystemMetrics> latest = systemMetricsRepository.findLatestMetrics();
+        return getLatestMetrics(null);
+    }
+
+    // nodeId as for getMetricsForLast24Hours(String)
+    @Transactional(readOnly = true)
+    public SystemMetrics getLatestMetrics(String nodeId) {
+        String node = nodeOrLocal(nodeId);
+        List<SystemMetrics> latest = node == null
+                ? systemMetricsRepository.findLatestMetrics(PageRequest.of(0, 1))
+                : systemMetricsRepository.findLatestMetrics(node, PageRequest.of(0, 1));
         return latest.isEmpty() ? null : latest.get(0);
     }
 
-    @Scheduled(fixedRate = 3600000) // Cleanup old metrics every hour
-    public void cleanupOldMetrics() {
-        try {
-            LocalDateTime cutoff = LocalDateTime.now().minusDays(7); // Keep 7 days of data
-            systemMetricsRepository.deleteOldMetrics(cutoff);
-            log.info("Cleaned up old metrics older than {}", cutoff);
-        } catch (Exception e) {
-            log.error("Error cleaning up old metrics", e);
+    // The node id to filter by, or null for all rows
+    private String nodeOrLocal(String nodeId) {
+        if (nodeId != null) {
+            return nodeId;
         }
+        return clusterEvents.isEnabled() ? nodeIdentity.getId() : null;
+    }
+
+    // Run hourly by MetricsCleanupJob; older rows are archived to disk first
+    public void cleanupOldMetrics() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(7); // Keep 7 days of data
+        archiveService.archive(ArchiveService.Dataset.SYSTEM_METRICS, cutoff);
+        systemMetricsRepository.deleteOldMetrics(cutoff);
+        metricsVersion.incrementAndGet();
+        log.info("Cleaned up old metrics older than {}", cutoff);
     }
 
     private static class NetworkStats {
@@ -0,0 +1,184 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.RevokedToken;
+import com.isaaclins.homeserver.repository.RevokedTokenRepository;
+import com.isaaclins.homeserver.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks revoked JWTs. Revocations are persisted in the database for
+ * durability, but every check is answered from memory: a Bloom filter rules
+ * out the common "not revoked" case with a couple of hash probes, and only a
+ * filter hit falls through to the exact map. In cluster mode each revocation
+ * is also sent to the other nodes through {@link ClusterEvents}.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final String SUBJECT_PREFIX = "sub:";
+    private static final String CLUSTER_EVENT = "token-revoked";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ClusterEvents clusterEvents;
+    private final int expectedRevocations;
+
+    // tokenId -> revocation window; only entries whose tokens have not yet expired
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, ClusterEvents clusterEvents,
+            @Value("${jwt.revocation.expected-entries:10000}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.clusterEvents = clusterEvents;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = newFilter();
+        clusterEvents.on(CLUSTER_EVENT, this::onClusterRevocation);
+        clusterEvents.onResync(this::loadActiveRevocations);
+    }
+
+    @PostConstruct
+    public void loadActiveRevocations() {
+        try {
+            revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())
+                    .forEach(t -> remember(t.getTokenId(), toMillis(t.getRevokedAt()), toMillis(t.getExpiresAt())));
+            log.info("Loaded {} active token revocations", revocations.size());
+        } catch (Exception e) {
+            log.warn("Could not load token revocations", e);
+        }
+    }
+
+    /**
+     * Revokes a single token by its jti claim until the token's own expiry.
+     */
+    public void revokeToken(String jti, String subject, Date expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return;
+        }
+        persistAndRemember(jti, subject, System.currentTimeMillis(), expiresAt.getTime());
+    }
+
+    /**
+     * Revokes every token issued to the subject up to now. The entry is kept for
+     * one token lifetime, after which all affected tokens have expired.
+     */
+    public void revokeAllForSubject(String subject, long tokenLifetimeMs) {
+        if (subject == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        persistAndRemember(SUBJECT_PREFIX + subject, subject, now, now + tokenLifetimeMs);
+    }
+
+    /**
+     * Returns true if the token identified by the given claims has been revoked,
+     * either individually or through a subject-wide revocation.
+     */
+    public boolean isRevoked(String jti, String subject, Date issuedAt) {
+        BloomFilter current = filter;
+        if (jti != null && current.mightContain(jti) && isActive(revocations.get(jti))) {
+            return true;
+        }
+        if (subject != null) {
+            String key = SUBJECT_PREFIX + subject;
+            if (current.mightContain(key)) {
+                Revocation revocation = revocations.get(key);
+                return isActive(revocation)
+                        && (issuedAt == null || issuedAt.getTime() <= revocation.revokedAt);
+            }
+        }
+        return false;
+    }
+
+    public int getActiveRevocationCount() {
+        return revocations.size();
+    }
+
+    @Scheduled(fixedRate = 3600000) // Drop revocations for tokens that have expired anyway
+    public void purgeExpiredRevocations() {
+        try {
+            long now = System.currentTimeMillis();
+            revocations.values().removeIf(r -> r.expiresAt < now);
+            rebuildFilter();
+            int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+            log.info("Purged {} expired token revocations", deleted);
+        } catch (Exception e) {
+            log.error("Error purging expired token revocations", e);
+        }
+    }
+
+    private void persistAndRemember(String tokenId, String subject, long revokedAt, long expiresAt) {
+        remember(tokenId, revokedAt, expiresAt);
+        try {
+            RevokedToken entity = revokedTokenRepository.findByTokenId(tokenId)
+                    .orElseGet(RevokedToken::new);
+            entity.setTokenId(tokenId);
+            entity.setSubject(subject);
+            entity.setRevokedAt(toLocalDateTime(revokedAt));
+            entity.setExpiresAt(toLocalDateTime(expiresAt));
+            revokedTokenRepository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            // Concurrent revocation of the same token already persisted it
+            log.debug("Token {} already revoked", tokenId);
+        }
+        clusterEvents.publish(CLUSTER_EVENT, revokedAt + " " + expiresAt + " " + tokenId);
+    }
+
+    // "<revokedAt> <expiresAt> <tokenId>", as published by persistAndRemember
+    private void onClusterRevocation(String event) {
+        String[] fields = event.split(" ", 3);
+        remember(fields[2], Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+    }
+
+    private void remember(String tokenId, long revokedAt, long expiresAt) {
+        revocations.put(tokenId, new Revocation(revokedAt, expiresAt));
+        filter.put(tokenId);
+    }
+
+    private synchronized void rebuildFilter() {
+        // Bloom filters cannot delete, so start from an empty filter after purging
+        BloomFilter rebuilt = newFilter();
+        revocations.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        // Entries added between the copy above and the swap must not be lost
+        revocations.keySet().forEach(rebuilt::put);
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedRevocations, 0.01);
+    }
+
+    private static boolean isActive(Revocation revocation) {
+        return revocation != null && revocation.expiresAt >= System.currentTimeMillis();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static final class Revocation {
+        final long revokedAt;
+        final long expiresAt;
+
+        Revocation(long revokedAt, long expiresAt) {
+            this.revokedAt = revokedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
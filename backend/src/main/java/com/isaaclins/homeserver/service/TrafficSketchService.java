@@ -0,0 +1,190 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.util.HyperLogLog;
+import com.isaaclins.homeserver.util.SpaceSaving;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming traffic analytics without scanning {@code request_logs}. Each
+ * request is recorded into the current minute window and the current hour
+ * window. A window holds:
+ * <ul>
+ * <li>Space-Saving sketches for the top routes, IPs and users;</li>
+ * <li>HyperLogLog sketches for distinct users and IPs.</li>
+ * </ul>
+ * Minute windows are merged on demand to answer any span of up to
+ * {@code traffic.sketch.minutes}. Hour windows cover
+ * {@code traffic.sketch.hours}. Windows live in fixed rings and are reused
+ * as time moves on. Memory therefore depends only on the configured sizes,
+ * never on traffic volume.
+ */
+@Service
+public class TrafficSketchService {
+
+    private static final String ANONYMOUS = "anonymous";
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final int topCapacity;
+    private final int hllPrecision;
+    private final Window[] minutes;
+    private final Window[] hours;
+
+    @Autowired
+    public TrafficSketchService(@Value("${traffic.sketch.top-capacity:64}") int topCapacity,
+            @Value("${traffic.sketch.hll-precision:12}") int hllPrecision,
+            @Value("${traffic.sketch.minutes:60}") int minuteWindows,
+            @Value("${traffic.sketch.hours:24}") int hourWindows) {
+        this.topCapacity = topCapacity;
+        this.hllPrecision = hllPrecision;
+        this.minutes = new Window[minuteWindows];
+        this.hours = new Window[hourWindows];
+    }
+
+    /**
+     * @param route    method and mapped pattern, e.g. {@code GET /api/users/{id}}
+     * @param username the JWT subject, or {@code anonymous}
+     */
+    public void record(String route, String ipAddress, String username) {
+        record(route, ipAddress, username, System.currentTimeMillis());
+    }
+
+    void record(String route, String ipAddress, String username, long nowMillis) {
+        String user = username == null || ANONYMOUS.equals(username) ? null : username;
+        window(minutes, nowMillis / MINUTE_MILLIS).record(route, ipAddress, user);
+        window(hours, nowMillis / HOUR_MILLIS).record(route, ipAddress, user);
+    }
+
+    /**
+     * Merges the last {@code minuteCount} minute windows (the current one
+     * included).
+     */
+    public TrafficSummary getSummary(int minuteCount, int limit) {
+        return getSummary(minuteCount, limit, System.currentTimeMillis());
+    }
+
+    TrafficSummary getSummary(int minuteCount, int limit, long nowMillis) {
+        int span = Math.max(1, Math.min(minuteCount, minutes.length));
+        long current = nowMillis / MINUTE_MILLIS;
+        Window merged = new Window(current);
+        for (long minute = current - span + 1; minute <= current; minute++) {
+            Window window = minutes[slot(minutes, minute)];
+            if (window != null && window.epoch == minute) {
+                window.mergeInto(merged);
+            }
+        }
+        return merged.summarize(Instant.ofEpochMilli((current - span + 1) * MINUTE_MILLIS),
+                Instant.ofEpochMilli((current + 1) * MINUTE_MILLIS), limit);
+    }
+
+    /**
+     * Totals and distinct counts for each of the last {@code hourCount} hours,
+     * oldest first.
+     */
+    public List<HourlyTraffic> getHourly(int hourCount) {
+        return getHourly(hourCount, System.currentTimeMillis());
+    }
+
+    List<HourlyTraffic> getHourly(int hourCount, long nowMillis) {
+        int span = Math.max(1, Math.min(hourCount, hours.length));
+        long current = nowMillis / HOUR_MILLIS;
+        List<HourlyTraffic> result = new ArrayList<>(span);
+        for (long hour = current - span + 1; hour <= current; hour++) {
+            Window window = hours[slot(hours, hour)];
+            Instant start = Instant.ofEpochMilli(hour * HOUR_MILLIS);
+            if (window != null && window.epoch == hour) {
+                result.add(window.hourly(start));
+            } else {
+                result.add(new HourlyTraffic(start, 0, 0, 0));
+            }
+        }
+        return result;
+    }
+
+    private Window window(Window[] ring, long epoch) {
+        int slot = slot(ring, epoch);
+        Window window = ring[slot];
+        if (window == null || window.epoch != epoch) {
+            synchronized (ring) {
+                window = ring[slot];
+                if (window == null || window.epoch < epoch) {
+                    window = new Window(epoch);
+                    ring[slot] = window;
+                }
+            }
+        }
+        return window;
+    }
+
+    private static int slot(Window[] ring, long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length);
+    }
+
+    /**
+     * Sketches for one minute or hour. Updates lock the window; they take well
+     * under a microsecond, and requests only contend within the same window.
+     */
+    private final class Window {
+        final long epoch;
+        final SpaceSaving routes = new SpaceSaving(topCapacity);
+        final SpaceSaving ips = new SpaceSaving(topCapacity);
+        final SpaceSaving users = new SpaceSaving(topCapacity);
+        final HyperLogLog distinctIps = new HyperLogLog(hllPrecision);
+        final HyperLogLog distinctUsers = new HyperLogLog(hllPrecision);
+        long requests;
+
+        Window(long epoch) {
+            this.epoch = epoch;
+        }
+
+        synchronized void record(String route, String ip, String user) {
+            requests++;
+            routes.offer(route);
+            if (ip != null) {
+                ips.offer(ip);
+                distinctIps.add(ip);
+            }
+            if (user != null) {
+                users.offer(user);
+                distinctUsers.add(user);
+            }
+        }
+
+        synchronized void mergeInto(Window target) {
+            target.requests += requests;
+            target.routes.merge(routes);
+            target.ips.merge(ips);
+            target.users.merge(users);
+            target.distinctIps.merge(distinctIps);
+            target.distinctUsers.merge(distinctUsers);
+        }
+
+        synchronized HourlyTraffic hourly(Instant start) {
+            return new HourlyTraffic(start, requests, distinctUsers.estimate(), distinctIps.estimate());
+        }
+
+        // Only called on a private merged window
+        TrafficSummary summarize(Instant from, Instant to, int limit) {
+            return new TrafficSummary(from, to, requests, distinctUsers.estimate(), distinctIps.estimate(),
+                    routes.top(limit), ips.top(limit), users.top(limit));
+        }
+    }
+
+    /**
+     * Counts in the {@code top*} lists may be overestimated by their
+     * {@code error}. The distinct counts are estimates within about 2%.
+     */
+    public record TrafficSummary(Instant from, Instant to, long requests, long uniqueUsers, long uniqueIps,
+            List<SpaceSaving.Entry> topRoutes, List<SpaceSaving.Entry> topIps, List<SpaceSaving.Entry> topUsers) {
+    }
+
+    public record HourlyTraffic(Instant hour, long requests, long uniqueUsers, long uniqueIps) {
+    }
+}
@@ -0,0 +1,413 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.dto.UserImportResult;
+import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import and export of users. Imports are processed in chunks:
+ * each chunk is validated against the {@link User} constraints, checked for
+ * duplicates with one set-based query, and inserted with a single JDBC batch.
+ * Exports page through the table by id and write rows as they are read.
+ * Exports never include passwords.
+ */
+@Service
+@Slf4j
+public class UserBulkService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format parse(String value) {
+            return value != null && value.equalsIgnoreCase("csv") ? CSV : NDJSON;
+        }
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO users (username, email, hashed_password, is_admin, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String EXPORT_SQL = "SELECT id, username, email, is_admin, created_at "
+            + "FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String CSV_HEADER = "id,username,email,isAdmin,createdAt";
+    // A quoted CSV field may span lines; a record longer than this is rejected instead
+    private static final int MAX_CSV_RECORD_CHARS = 64 * 1024;
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final UserSearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public UserBulkService(UserRepository userRepository, UserService userService, UserSearchIndex searchIndex,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper,
+            @Value("${user.bulk.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.searchIndex = searchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports users from an NDJSON or CSV stream, reporting one result per
+     * input row to the given consumer as soon as its chunk is committed.
+     * CSV input needs a header row naming at least username, email and
+     * password (or hashedPassword); isAdmin is optional. Quoted CSV fields may
+     * contain line breaks.
+     *
+     * @return counts of rows per result status
+     */
+    public Map<String, Long> importUsers(InputStream input, Format format, Consumer<UserImportResult> results)
+            throws IOException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        Consumer<UserImportResult> counting = r -> {
+            counts.merge(r.getStatus(), 1L, Long::sum);
+            results.accept(r);
+        };
+
+        // Usernames/emails accepted earlier in this import, to catch duplicates across chunks
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] csvHeader = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                long rowLine = lineNumber;
+                if (format == Format.CSV) {
+                    String next;
+                    while (hasOpenQuote(line) && line.length() < MAX_CSV_RECORD_CHARS
+                            && (next = reader.readLine()) != null) {
+                        lineNumber++;
+                        line = line + '\n' + next;
+                    }
+                }
+                if (format == Format.CSV && csvHeader == null) {
+                    csvHeader = parseCsvLine(line).toArray(new String[0]);
+                    continue;
+                }
+
+                Row row;
+                try {
+                    row = format == Format.CSV ? fromCsv(rowLine, csvHeader, line) : fromJson(rowLine, line);
+                } catch (IllegalArgumentException | IOException e) {
+                    counting.accept(UserImportResult.failed(rowLine, UserImportResult.INVALID, null,
+                            "Unparseable row: " + e.getMessage()));
+                    continue;
+                }
+
+                String violation = validate(row.user);
+                if (violation != null) {
+                    counting.accept(UserImportResult.failed(rowLine, UserImportResult.INVALID,
+                            row.user.getUsername(), violation));
+                    continue;
+                }
+                if (!seenUsernames.add(row.user.getUsername())) {
+                    counting.accept(conflict(row, "Duplicate username in import"));
+                    continue;
+                }
+                if (!seenEmails.add(row.user.getEmail())) {
+                    seenUsernames.remove(row.user.getUsername());
+                    counting.accept(conflict(row, "Duplicate email in import"));
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(chunk, counting);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flushChunk(chunk, counting);
+            }
+        } finally {
+            // Rows inserted over JDBC bypass UserService, so bump the list version explicitly
+            userService.markCollectionChanged();
+        }
+        return counts;
+    }
+
+    /**
+     * Streams every user to the output, paging through the table by id so the
+     * whole table is never held in memory.
+     */
+    public void exportUsers(Format format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long afterId = 0;
+        while (true) {
+            List<Map<String, Object>> page = jdbcTemplate.query(EXPORT_SQL, (rs, i) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", rs.getLong("id"));
+                row.put("username", rs.getString("username"));
+                row.put("email", rs.getString("email"));
+                row.put("isAdmin", rs.getBoolean("is_admin"));
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                row.put("createdAt", createdAt != null ? createdAt.toLocalDateTime().toString() : null);
+                return row;
+            }, afterId, chunkSize);
+
+            for (Map<String, Object> row : page) {
+                if (format == Format.CSV) {
+                    writer.write(row.values().stream()
+                            .map(v -> csvEscape(v == null ? "" : v.toString()))
+                            .collect(Collectors.joining(",")));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+
+            if (page.size() < chunkSize) {
+                break;
+            }
+            afterId = (Long) page.get(page.size() - 1).get("id");
+        }
+    }
+
+    private void flushChunk(List<Row> chunk, Consumer<UserImportResult> results) {
+        // One set-based lookup for every username/email in the chunk
+        Set<String> usernames = chunk.stream().map(r -> r.user.getUsername()).collect(Collectors.toSet());
+        Set<String> emails = chunk.stream().map(r -> r.user.getEmail()).collect(Collectors.toSet());
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (Object[] existing : userRepository.findExistingUsernamesAndEmails(usernames, emails)) {
+            takenUsernames.add((String) existing[0]);
+            takenEmails.add((String) existing[1]);
+        }
+
+        List<Row> toInsert = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (takenUsernames.contains(row.user.getUsername())) {
+                results.accept(conflict(row, "Username already exists"));
+            } else if (takenEmails.contains(row.user.getEmail())) {
+                results.accept(conflict(row, "Email already exists"));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> batchInsert(toInsert));
+            for (int i = 0; i < toInsert.size(); i++) {
+                Row row = toInsert.get(i);
+                Long id = ids != null && i < ids.size() ? ids.get(i) : null;
+                indexCreated(row, id);
+                results.accept(UserImportResult.created(row.line, row.user.getUsername(), id));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer took one of the keys; fall back to row-by-row to attribute it
+            log.debug("Batch insert conflicted, retrying chunk row by row", e);
+            for (Row row : toInsert) {
+                try {
+                    List<Long> ids = batchInsert(List.of(row));
+                    Long id = ids.isEmpty() ? null : ids.get(0);
+                    indexCreated(row, id);
+                    results.accept(UserImportResult.created(row.line, row.user.getUsername(), id));
+                } catch (DataIntegrityViolationException conflict) {
+                    results.accept(conflict(row, "Username or email already exists"));
+                }
+            }
+        }
+    }
+
+    private void indexCreated(Row row, Long id) {
+        if (id != null) {
+            row.user.setId(id);
+            searchIndex.put(row.user);
+        }
+    }
+
+    private List<Long> batchInsert(List<Row> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        LocalDateTime createdAt = LocalDateTime.now();
+        rows.forEach(r -> r.user.setCreatedAt(createdAt));
+        Timestamp now = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = rows.get(i).user;
+                        ps.setString(1, user.getUsername());
+                        ps.setString(2, user.getEmail());
+                        ps.setString(3, user.getHashedPassword());
+                        ps.setBoolean(4, Boolean.TRUE.equals(user.getIsAdmin()));
+                        ps.setTimestamp(5, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys);
+        return keys.getKeyList().stream()
+                .map(k -> k.values().iterator().next())
+                .map(v -> ((Number) v).longValue())
+                .collect(Collectors.toList());
+    }
+
+    private String validate(User user) {
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Row fromJson(long lineNumber, String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        User user = new User();
+        user.setUsername(text(node, "username"));
+        user.setEmail(text(node, "email"));
+        String password = text(node, "password");
+        user.setHashedPassword(password != null ? password : text(node, "hashedPassword"));
+        user.setIsAdmin(node.path("isAdmin").asBoolean(false));
+        return new Row(lineNumber, user);
+    }
+
+    private Row fromCsv(long lineNumber, String[] header, String line) {
+        List<String> values = parseCsvLine(line);
+        User user = new User();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i);
+            switch (header[i].trim()) {
+                case "username" -> user.setUsername(value);
+                case "email" -> user.setEmail(value);
+                case "password", "hashedPassword" -> user.setHashedPassword(value);
+                case "isAdmin" -> user.setIsAdmin(Boolean.parseBoolean(value.trim()));
+                default -> {
+                    // Unknown columns (e.g. id/createdAt from an export) are ignored
+                }
+            }
+        }
+        return new Row(lineNumber, user);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // Every quote opens or closes a quoted field ("" closes and reopens), so an odd count leaves one open
+    private static boolean hasOpenQuote(String line) {
+        return line.chars().filter(c -> c == '"').count() % 2 == 1;
+    }
+
+    // RFC 4180 style: comma separated, double quotes around fields, "" escapes a quote
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static UserImportResult conflict(Row row, String message) {
+        return UserImportResult.failed(row.line, UserImportResult.CONFLICT, row.user.getUsername(), message);
+    }
+
+    private static final class Row {
+        final long line;
+        final User user;
+
+        Row(long line, User user) {
+            this.line = line;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU read-through cache for {@link User} rows, indexed by id,
+ * username and email. Entries are stored and handed out as copies so callers
+ * can mutate the returned entity without corrupting the cache. Writes go
+ * through {@link UserService}, which refreshes or evicts entries after each
+ * save/delete.
+ */
+@Component
+public class UserCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Primary store keyed by id, in access order so the eldest entry is the LRU one
+    private final LinkedHashMap<Long, Entry> byId;
+    private final Map<String, Long> idByUsername = new HashMap<>();
+    private final Map<String, Long> idByEmail = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserCache(@Value("${user.cache.max-size:1000}") int maxSize,
+            @Value("${user.cache.ttl-seconds:300}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > UserCache.this.maxSize) {
+                    unindex(eldest.getValue().user);
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        if (meterRegistry != null) {
+            FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                    .tag("cache", "users").tag("result", "hit").register(meterRegistry);
+            FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                    .tag("cache", "users").tag("result", "miss").register(meterRegistry);
+            FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                    .tag("cache", "users").register(meterRegistry);
+            Gauge.builder("cache.size", this, UserCache::size)
+                    .tag("cache", "users").register(meterRegistry);
+        }
+    }
+
+    public Optional<User> getById(Long id) {
+        return lookup(id);
+    }
+
+    public Optional<User> getByUsername(String username) {
+        synchronized (this) {
+            return lookup(idByUsername.get(username));
+        }
+    }
+
+    public Optional<User> getByEmail(String email) {
+        synchronized (this) {
+            return lookup(idByEmail.get(email));
+        }
+    }
+
+    /**
+     * Looks the key up as a username first, then as an email. One call counts
+     * as a single hit or miss, so a login by email is not also a miss.
+     */
+    public synchronized Optional<User> getByUsernameOrEmail(String usernameOrEmail) {
+        Long id = idByUsername.get(usernameOrEmail);
+        return lookup(id != null ? id : idByEmail.get(usernameOrEmail));
+    }
+
+    /**
+     * Stores a fresh copy of the given user, replacing any previous entry for
+     * the same id (including its old username/email index keys).
+     */
+    public synchronized void put(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        Entry previous = byId.remove(user.getId());
+        if (previous != null) {
+            unindex(previous.user);
+        }
+        User copy = copyOf(user);
+        byId.put(copy.getId(), new Entry(copy, System.currentTimeMillis() + ttlMillis));
+        idByUsername.put(copy.getUsername(), copy.getId());
+        idByEmail.put(copy.getEmail(), copy.getId());
+    }
+
+    public synchronized void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        Entry removed = byId.remove(id);
+        if (removed != null) {
+            unindex(removed.user);
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByUsername.clear();
+        idByEmail.clear();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        long total = h + m;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) h / total);
+        return stats;
+    }
+
+    private synchronized Optional<User> lookup(Long id) {
+        Entry entry = id != null ? byId.get(id) : null;
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            byId.remove(id);
+            unindex(entry.user);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(copyOf(entry.user));
+    }
+
+    private void unindex(User user) {
+        idByUsername.remove(user.getUsername(), user.getId());
+        idByEmail.remove(user.getEmail(), user.getId());
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail(),
+                user.getHashedPassword(), user.getCreatedAt(), user.getIsAdmin());
+    }
+
+    private static final class Entry {
+        final User user;
+        final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.UserCursor;
+import com.isaaclins.homeserver.dto.UserSummary;
+import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over usernames and emails for type-ahead search.
+ * Keys are lower-cased and kept in sorted skip lists, so a prefix lookup is a
+ * logarithmic seek followed by a walk over at most {@code limit} matches.
+ * Reads never lock; writes are serialized and come from {@link UserService}
+ * and {@link UserBulkService}. {@link #rebuild()} can run again at any time
+ * (cluster resync). It fills a new set of maps and swaps it in at once, so
+ * searches see either the old index or the new one, never a partial one;
+ * writes that happen while it loads are carried over.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    private volatile Entries entries = new Entries();
+    // Ids written while a rebuild is loading; their current entries win over the loaded rows
+    private Set<Long> writtenDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    public UserSearchIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildLocked();
+        }
+    }
+
+    private void rebuildLocked() {
+        synchronized (this) {
+            writtenDuringRebuild = new HashSet<>();
+        }
+        try {
+            List<UserSummary> loaded = new ArrayList<>();
+            UserCursor after = null;
+            while (true) {
+                List<UserSummary> page = userRepository.findSummaryPage(
+                        UserCursor.SortField.USERNAME, true, after, LOAD_PAGE_SIZE);
+                loaded.addAll(page);
+                if (page.size() < LOAD_PAGE_SIZE) {
+                    break;
+                }
+                after = UserCursor.after(UserCursor.SortField.USERNAME, page.get(page.size() - 1));
+            }
+            replaceAll(loaded);
+            log.info("Built user search index with {} users", loaded.size());
+        } catch (Exception e) {
+            log.error("Error building user search index", e);
+        } finally {
+            synchronized (this) {
+                writtenDuringRebuild = null;
+            }
+        }
+    }
+
+    private synchronized void replaceAll(List<UserSummary> loaded) {
+        Set<Long> written = writtenDuringRebuild;
+        writtenDuringRebuild = null;
+        Entries current = entries;
+        Entries fresh = new Entries();
+        for (UserSummary summary : loaded) {
+            if (!written.contains(summary.getId())) {
+                fresh.put(summary);
+            }
+        }
+        for (Long id : written) {
+            UserSummary newer = current.byId.get(id);
+            if (newer != null) {
+                fresh.put(newer);
+            }
+        }
+        entries = fresh;
+    }
+
+    /**
+     * Returns up to {@code limit} users whose username or email starts with the
+     * prefix (case-insensitive). Username matches come first, in username order.
+     */
+    public List<UserSummary> search(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String from = normalize(prefix);
+        String to = from + Character.MAX_VALUE;
+
+        Entries current = entries;
+        Set<UserSummary> matches = new LinkedHashSet<>();
+        collect(current.byUsername.subMap(from, true, to, false), matches, limit);
+        if (matches.size() < limit) {
+            collect(current.byEmail.subMap(from, true, to, false), matches, limit);
+        }
+        return new ArrayList<>(matches);
+    }
+
+    public void put(User user) {
+        put(new UserSummary(user.getId(), user.getUsername(), user.getEmail(),
+                user.getIsAdmin(), user.getCreatedAt()));
+    }
+
+    public synchronized void put(UserSummary summary) {
+        if (summary.getId() == null) {
+            return;
+        }
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.add(summary.getId());
+        }
+        entries.put(summary);
+    }
+
+    public synchronized void remove(Long id) {
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.add(id);
+        }
+        entries.remove(id);
+    }
+
+    public int size() {
+        return entries.byId.size();
+    }
+
+    private static void collect(NavigableMap<String, UserSummary> range, Set<UserSummary> into, int limit) {
+        for (UserSummary summary : range.values()) {
+            if (into.size() >= limit) {
+                return;
+            }
+            into.add(summary);
+        }
+    }
+
+    private static String key(String value, Long id) {
+        return normalize(value) + '\0' + id;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    // One generation of the index; writers hold the UserSearchIndex monitor
+    private static final class Entries {
+        // "<lower-case key>\0<id>" -> summary; the id suffix keeps keys unique
+        final NavigableMap<String, UserSummary> byUsername = new ConcurrentSkipListMap<>();
+        final NavigableMap<String, UserSummary> byEmail = new ConcurrentSkipListMap<>();
+        final Map<Long, UserSummary> byId = new ConcurrentHashMap<>();
+
+        void put(UserSummary summary) {
+            remove(summary.getId());
+            byId.put(summary.getId(), summary);
+            byUsername.put(key(summary.getUsername(), summary.getId()), summary);
+            byEmail.put(key(summary.getEmail(), summary.getId()), summary);
+        }
+
+        void remove(Long id) {
+            UserSummary previous = byId.remove(id);
+            if (previous != null) {
+                byUsername.remove(key(previous.getUsername(), id));
+                byEmail.remove(key(previous.getEmail(), id));
+            }
+        }
+    }
+}
@@ -1,53 +1,166 @@
 package com.isaaclins.homeserver.service;
 
+import com.isaaclins.homeserver.dto.UserCursor;
+import com.isaaclins.homeserver.dto.UserPage;
+import com.isaaclins.homeserver.dto.UserSummary;
 import com.isaaclins.homeserver.entity.User;
 import com.isaaclins.homeserver.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class UserService {
 
+    // Cluster events: one user changed (key = id), or many did (bulk import)
+    private static final String USER_CHANGED = "user-changed";
+    private static final String USERS_CHANGED = "users-changed";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    // Bumped on every write so list endpoints can answer conditional GETs without a query
+    private final AtomicLong collectionVersion = new AtomicLong();
+    private final long bootId = System.currentTimeMillis();
+
+    @PostConstruct
+    void listenForClusterChanges() {
+        clusterEvents.on(USER_CHANGED, id -> onClusterUserChange(Long.valueOf(id)));
+        clusterEvents.on(USERS_CHANGED, ignored -> reloadFromDatabase());
+        clusterEvents.onResync(this::reloadFromDatabase);
+    }
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /**
+     * Returns one keyset page of user summaries. Fetches one extra row to know
+     * whether a further page exists without issuing a count query.
+     */
+    public UserPage getUserSummaryPage(UserCursor.SortField sortField, boolean ascending,
+            UserCursor after, int limit) {
+        List<UserSummary> rows = userRepository.findSummaryPage(sortField, ascending, after, limit + 1);
+        if (rows.size() <= limit) {
+            return new UserPage(rows, null);
+        }
+        List<UserSummary> page = rows.subList(0, limit);
+        return new UserPage(page, UserCursor.after(sortField, page.get(limit - 1)).encode());
+    }
+
+    /**
+     * Opaque version of the user collection, suitable as an ETag. Changes on
+     * every create, update and delete made through this service.
+     */
+    public String getCollectionVersion() {
+        return Long.toString(bootId, 36) + "-" + collectionVersion.get();
+    }
+
     public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id);
+        Optional<User> cached = userCache.getById(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return cacheResult(userRepository.findById(id));
     }
 
     public Optional<User> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        Optional<User> cached = userCache.getByUsername(username);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return cacheResult(userRepository.findByUsername(username));
     }
 
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        Optional<User> cached = userCache.getByEmail(email);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return cacheResult(userRepository.findByEmail(email));
+    }
+
+    /**
+     * Resolves a login identifier that may be either a username or an email.
+     * Served from the cache when possible, otherwise with a single query. A
+     * username match takes precedence over an email match.
+     */
+    public Optional<User> getUserByUsernameOrEmail(String usernameOrEmail) {
+        Optional<User> cached = userCache.getByUsernameOrEmail(usernameOrEmail);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        List<User> matches = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+        matches.forEach(userCache::put);
+        return matches.stream()
+                .filter(u -> usernameOrEmail.equals(u.getUsername()))
+                .findFirst()
+                .or(() -> matches.stream().findFirst());
     }
 
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        collectionVersion.incrementAndGet();
+        userCache.put(saved);
+        searchIndex.put(saved);
+        clusterEvents.publish(USER_CHANGED, saved.getId().toString());
+        return saved;
     }
 
     public boolean existsById(Long id) {
-        return userRepository.existsById(id);
+        return userCache.getById(id).isPresent() || userRepository.existsById(id);
     }
 
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return userCache.getByUsername(username).isPresent() || userRepository.existsByUsername(username);
     }
 
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userCache.getByEmail(email).isPresent() || userRepository.existsByEmail(email);
+    }
+
+    /**
+     * Checks both unique columns with a single query.
+     */
+    public boolean existsByUsernameOrEmail(String username, String email) {
+        if (userCache.getByUsername(username).isPresent() || userCache.getByEmail(email).isPresent()) {
+            return true;
+        }
+        List<User> matches = userRepository.findByUsernameOrEmail(username, email);
+        matches.forEach(userCache::put);
+        return !matches.isEmpty();
     }
 
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        Optional<User> user = getUserById(id);
+        try {
+            userRepository.deleteById(id);
+        } finally {
+            collectionVersion.incrementAndGet();
+            userCache.evict(id);
+            searchIndex.remove(id);
+            clusterEvents.publish(USER_CHANGED, id.toString());
+        }
+        // Live tokens of a deleted account must stop working immediately
+        user.ifPresent(u -> jwtService.revokeAllForSubject(u.getUsername()));
     }
 
     public User updateUser(User existingUser, User userDetails) {
@@ -55,6 +168,55 @@ public class UserService {
         existingUser.setEmail(userDetails.getEmail());
         existingUser.setHashedPassword(userDetails.getHashedPassword());
         // Keep the original createdAt timestamp
-        return userRepository.save(existingUser);
+        try {
+            User saved = userRepository.save(existingUser);
+            collectionVersion.incrementAndGet();
+            userCache.put(saved);
+            searchIndex.put(saved);
+            clusterEvents.publish(USER_CHANGED, saved.getId().toString());
+            return saved;
+        } catch (RuntimeException e) {
+            // Failed write: drop whatever we have so the next read goes to the DB
+            userCache.evict(existingUser.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * Prefix search over usernames and emails, answered from memory.
+     */
+    public List<UserSummary> searchByPrefix(String prefix, int limit) {
+        return searchIndex.search(prefix, limit);
+    }
+
+    /**
+     * Invalidates the collection version after writes that bypass this service
+     * (e.g. JDBC bulk imports).
+     */
+    public void markCollectionChanged() {
+        collectionVersion.incrementAndGet();
+        clusterEvents.publish(USERS_CHANGED, "");
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return userCache.getStats();
+    }
+
+    // Another node wrote this user; drop the cached copy and re-read it for the search index
+    private void onClusterUserChange(Long id) {
+        collectionVersion.incrementAndGet();
+        userCache.evict(id);
+        userRepository.findById(id).ifPresentOrElse(searchIndex::put, () -> searchIndex.remove(id));
+    }
+
+    private void reloadFromDatabase() {
+        collectionVersion.incrementAndGet();
+        userCache.clear();
+        searchIndex.rebuild();
+    }
+
+    private Optional<User> cacheResult(Optional<User> result) {
+        result.ifPresent(userCache::put);
+        return result;
     }
 }
@@ -0,0 +1,105 @@
+package com.isaaclins.homeserver.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and one or more consumers
+ * (Dmitry Vyukov's array-based MPMC design). Every slot carries a sequence
+ * number telling whether it is free for the producer at a given position or
+ * holds an element for the consumer at that position, so {@link #offer} and
+ * {@link #poll} only need one CAS on a shared counter each and never wait:
+ * a full buffer makes {@code offer} return false, an empty one makes
+ * {@code poll} return null.
+ *
+ * <p>
+ * Capacity is rounded up to a power of two.
+ */
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next position to poll
+    private final AtomicLong tail = new AtomicLong(); // next position to offer
+
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int normalized = Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(normalized);
+        this.sequences = new AtomicLongArray(normalized);
+        this.mask = normalized - 1;
+        for (int i = 0; i < normalized; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the element unless the buffer is full.
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long diff = sequences.get(slot) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1); // publishes the element
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false; // slot still holds an element from one lap ago
+            } else {
+                position = tail.get(); // another producer took this position
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element, or returns null if there is none.
+     */
+    public T poll() {
+        long position = head.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long diff = sequences.get(slot) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1); // frees the slot for the next lap
+                    return element;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Number of elements, exact only while no thread is offering or polling.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
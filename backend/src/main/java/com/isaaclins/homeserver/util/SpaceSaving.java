@@ -0,0 +1,155 @@
+package com.isaaclins.homeserver.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch: tracks at most {@code capacity} items.
+ * When a new item arrives and the sketch is full, it replaces the item with
+ * the smallest count and inherits that count as its error. Every item that
+ * occurred more than {@code total / capacity} times is therefore present.
+ * Reported counts never underestimate, and overestimate by at most the
+ * item's {@code error}.
+ *
+ * <p>
+ * Counters live in an indexed binary min-heap, so the smallest is always at
+ * the root. An update is O(log capacity), plus one hash lookup. Sketches merge
+ * by offering one's counters to the other with their counts and errors.
+ * Not thread-safe; callers synchronize.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final String[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.items = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String item) {
+        offer(item, 1, 0);
+    }
+
+    /**
+     * Counts {@code item} {@code count} times, carrying over an existing
+     * overestimate of {@code error} (used when merging).
+     */
+    public void offer(String item, long count, long error) {
+        total += count;
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position] += count;
+            errors[position] += error;
+            siftDown(position);
+        } else if (size < capacity) {
+            items[size] = item;
+            counts[size] = count;
+            errors[size] = error;
+            positions.put(item, size);
+            siftUp(size++);
+        } else {
+            // Evict the minimum: the newcomer may have been it all along
+            positions.remove(items[0]);
+            long evicted = counts[0];
+            items[0] = item;
+            counts[0] = evicted + count;
+            errors[0] = evicted + error;
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    public void merge(SpaceSaving other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.items[i], other.counts[i], other.errors[i]);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} items, highest count first
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(items[i], counts[i], errors[i]));
+        }
+        entries.sort((a, b) -> Long.compare(b.count(), a.count()));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * @return the number of offers, i.e. the exact stream length
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        items[a] = items[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        items[b] = item;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(items[a], a);
+        positions.put(items[b], b);
+    }
+
+    /**
+     * A tracked item. The true count lies between {@code count - error} and
+     * {@code count}.
+     */
+    public record Entry(String item, long count, long error) {
+    }
+}
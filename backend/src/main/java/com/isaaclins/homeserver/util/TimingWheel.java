@@ -0,0 +1,147 @@
+package com.isaaclins.homeserver.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel for cheap expiry of many short-lived items. Scheduling
+ * and cancelling are O(1); {@link #advance(long)} only touches the buckets of
+ * the ticks that have elapsed. Deadlines are rounded up to the tick, so an
+ * item expires at most one tick late and never early.
+ *
+ * <p>
+ * Each bucket is an intrusive doubly-linked list so a cancelled timeout can
+ * unlink itself without scanning. All operations synchronize on the wheel;
+ * they are short and constant-time apart from {@code advance}.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout<T>[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        int normalized = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = (Timeout<T>[]) new Timeout[normalized];
+        this.mask = normalized - 1;
+    }
+
+    /**
+     * Schedules the item to be returned by {@link #advance(long)} once the
+     * deadline has passed.
+     */
+    public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        long ticks = Math.max(ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick);
+        Timeout<T> timeout = new Timeout<>(item, deadlineMillis);
+        timeout.remainingRounds = (ticks - currentTick) / buckets.length;
+        timeout.bucket = (int) (ticks & mask);
+        link(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Removes a pending timeout. Returns false if it already expired or was
+     * cancelled before.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.state != Timeout.PENDING) {
+            return false;
+        }
+        unlink(timeout);
+        timeout.state = Timeout.CANCELLED;
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to {@code nowMillis} and returns the items whose
+     * deadlines have passed.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        while (startMillis + currentTick * tickMillis <= nowMillis) {
+            Timeout<T> timeout = buckets[(int) (currentTick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    unlink(timeout);
+                    timeout.state = Timeout.EXPIRED;
+                    size--;
+                    expired.add(timeout.item);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void link(Timeout<T> timeout) {
+        Timeout<T> head = buckets[timeout.bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[timeout.bucket] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    public static final class Timeout<T> {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final T item;
+        private final long deadlineMillis;
+        private long remainingRounds;
+        private int bucket;
+        private int state = PENDING;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+}
@@ -5,9 +5,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -19,6 +28,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 @ActiveProfiles("test")
 class BackendIntegrationTest {
 
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> JSON_ARRAY =
+            new ParameterizedTypeReference<>() {
+            };
+
     @LocalServerPort
     private int port;
 
@@ -72,4 +88,99 @@ class BackendIntegrationTest {
         // Should return empty list for new database
         assertThat(response.getBody()).contains("[]");
     }
-}
\ No newline at end of file
+
+    @Test
+    void logoutRevokesToken() {
+        String base = "http://localhost:" + port;
+        restTemplate.postForEntity(base + "/api/users", Map.of(
+                "username", "logoutuser",
+                "email", "logoutuser@example.com",
+                "hashedPassword", "password123"), String.class);
+
+        ResponseEntity<Map<String, Object>> login = postForJson(base + "/api/login", Map.of(
+                "usernameOrEmail", "logoutuser@example.com",
+                "password", "password123"));
+        assertThat(login.getStatusCode().is2xxSuccessful()).isTrue();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+
+        ResponseEntity<String> first = restTemplate.exchange(base + "/api/logout", HttpMethod.POST, request, String.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        // The same token must be rejected once revoked
+        ResponseEntity<String> second = restTemplate.exchange(base + "/api/logout", HttpMethod.POST, request, String.class);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        // Leave the shared database empty for the other tests
+        restTemplate.delete(base + "/api/users/" + login.getBody().get("id"));
+    }
+
+    @Test
+    void usersArePagedWithCursorAndEtag() {
+        String base = "http://localhost:" + port;
+        List<Object> ids = new ArrayList<>();
+        for (String name : List.of("pagec", "pagea", "pageb")) {
+            ResponseEntity<Map<String, Object>> created = postForJson(base + "/api/users", Map.of(
+                    "username", name,
+                    "email", name + "@example.com",
+                    "hashedPassword", "password123"));
+            ids.add(created.getBody().get("id"));
+        }
+
+        ResponseEntity<List<Map<String, Object>>> first = getJsonArray(base + "/api/users?limit=2");
+        assertThat(first.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(first.getBody()).extracting(u -> u.get("username")).containsExactly("pagea", "pageb");
+        assertThat(first.getBody().get(0)).doesNotContainKey("hashedPassword");
+        String nextCursor = first.getHeaders().getFirst("X-Next-Cursor");
+        assertThat(nextCursor).isNotNull();
+
+        ResponseEntity<List<Map<String, Object>>> second = getJsonArray(
+                base + "/api/users?limit=2&cursor=" + nextCursor);
+        assertThat(second.getBody()).extracting(u -> u.get("username")).containsExactly("pagec");
+        assertThat(second.getHeaders().getFirst("X-Next-Cursor")).isNull();
+
+        // Unchanged collection: conditional GET is answered with 304
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        ResponseEntity<String> notModified = restTemplate.exchange(
+                base + "/api/users?limit=2", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        ids.forEach(id -> restTemplate.delete(base + "/api/users/" + id));
+
+        // Any write changes the ETag
+        ResponseEntity<String> afterDelete = restTemplate.exchange(
+                base + "/api/users?limit=2", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(afterDelete.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void searchesUsersByPrefix() {
+        String base = "http://localhost:" + port;
+        ResponseEntity<Map<String, Object>> created = postForJson(base + "/api/users", Map.of(
+                "username", "Typeahead",
+                "email", "ahead@example.com",
+                "hashedPassword", "password123"));
+
+        ResponseEntity<List<Map<String, Object>>> byUsername = getJsonArray(base + "/api/users/search?prefix=typ");
+        assertThat(byUsername.getBody()).extracting(u -> u.get("username")).containsExactly("Typeahead");
+
+        ResponseEntity<List<Map<String, Object>>> byEmail = getJsonArray(base + "/api/users/search?prefix=AHEAD@");
+        assertThat(byEmail.getBody()).hasSize(1);
+
+        restTemplate.delete(base + "/api/users/" + created.getBody().get("id"));
+
+        ResponseEntity<List<Map<String, Object>>> afterDelete = getJsonArray(base + "/api/users/search?prefix=typ");
+        assertThat(afterDelete.getBody()).isEmpty();
+    }
+
+    private ResponseEntity<Map<String, Object>> postForJson(String url, Object body) {
+        return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body), JSON_OBJECT);
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> getJsonArray(String url) {
+        return restTemplate.exchange(url, HttpMethod.GET, null, JSON_ARRAY);
+    }
+}
@@ -0,0 +1,63 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every layer shows up in the meter registry and the Prometheus scrape carries
+ * histogram buckets.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.endpoints.web.exposure.include=health,prometheus")
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsInstrumentationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void recordsTimersForEveryLayer() {
+        restTemplate.getForEntity("/api/monitoring/metrics/latest", String.class);
+        userService.getUserByUsername("metrics-test-nobody");
+
+        assertThat(meterRegistry.find(LayerMetricsAspect.METRIC_NAME)
+                .tags("layer", "controller", "class", "MonitoringController").timer()).isNotNull();
+        assertThat(meterRegistry.find(LayerMetricsAspect.METRIC_NAME)
+                .tags("layer", "service", "class", "UserService", "method", "getUserByUsername").timer()).isNotNull();
+        assertThat(meterRegistry.find("spring.data.repository.invocations").timers()).isNotEmpty();
+        assertThat(meterRegistry.find("http.server.requests").timers()).isNotEmpty();
+        assertThat(meterRegistry.find("tasks.scheduled.execution").timers()).isNotEmpty();
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(meterRegistry.find("tomcat.threads.busy").gauge()).isNotNull();
+        assertThat(meterRegistry.find("executor.pool.size").tag("name", "clientInboundChannelExecutor").gauge()).isNotNull();
+        assertThat(meterRegistry.find("executor.pool.size").tag("name", "brokerChannelExecutor").gauge()).isNotNull();
+        assertThat(meterRegistry.find("sql.request.statements").summary().count()).isPositive();
+        assertThat(meterRegistry.find("websocket.sessions").tag("transport", "websocket").gauge()).isNotNull();
+        assertThat(meterRegistry.find("logging.events.dropped").tag("level", "info").functionCounter()).isNotNull();
+    }
+
+    @Test
+    void exposesPercentileHistogramsToPrometheus() {
+        restTemplate.getForEntity("/health", String.class);
+
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(scrape).contains("http_server_requests_seconds_bucket");
+        assertThat(scrape).contains("homeserver_invocations_seconds_bucket");
+    }
+}
@@ -0,0 +1,101 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.entity.SystemMetrics;
+import com.isaaclins.homeserver.repository.SystemMetricsRepository;
+import com.isaaclins.homeserver.service.SystemMetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read-only transactions go to the replica while it keeps up and fall back to
+ * the primary once it lags. The "replica" is a second H2 database; replication
+ * is simulated by copying the heartbeat row across.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicaprimary;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa",
+        "datasource.replica.heartbeat-ms=3600000",
+        "datasource.replica.max-lag-ms=200"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final long REPLICA_MARKER = 4242L;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private SystemMetricsService systemMetricsService;
+
+    @Autowired
+    private SystemMetricsRepository systemMetricsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUpReplica() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        replica.execute("CREATE TABLE IF NOT EXISTS system_metrics (id BIGINT PRIMARY KEY, timestamp TIMESTAMP NOT NULL, "
+                + "cpu_usage DOUBLE NOT NULL, gpu_usage DOUBLE NOT NULL, ram_used BIGINT NOT NULL, ram_total BIGINT NOT NULL, "
+                + "network_bytes_received BIGINT NOT NULL, network_bytes_sent BIGINT NOT NULL, node_id VARCHAR(255))");
+        replica.update("DELETE FROM system_metrics");
+        replica.update("INSERT INTO system_metrics VALUES (1, DATEADD('YEAR', 1, CURRENT_TIMESTAMP), 1, 0, 1, ?, 0, 0, 'replica')",
+                REPLICA_MARKER);
+    }
+
+    @Test
+    void routesReadOnlyQueriesToReplicaUntilItLags() throws InterruptedException {
+        monitor.beat();
+        replicate();
+        monitor.measureLag();
+
+        assertThat(monitor.isReplicaAvailable()).isTrue();
+        assertThat(systemMetricsService.getLatestMetrics("replica").getRamTotal()).isEqualTo(REPLICA_MARKER);
+
+        Thread.sleep(300);
+        monitor.beat();
+        monitor.measureLag();
+
+        assertThat(monitor.isReplicaAvailable()).isFalse();
+        assertThat(monitor.getLagMillis()).isGreaterThanOrEqualTo(200);
+        // Only the replica has rows for that node
+        assertThat(systemMetricsService.getLatestMetrics("replica")).isNull();
+    }
+
+    @Test
+    void keepsQueriesOutsideReadOnlyTransactionsOnPrimary() {
+        monitor.beat();
+        replicate();
+        monitor.measureLag();
+
+        assertThat(monitor.isReplicaAvailable()).isTrue();
+        assertThat(systemMetricsRepository.findLatestMetrics("replica", PageRequest.of(0, 1)))
+                .extracting(SystemMetrics::getRamTotal)
+                .doesNotContain(REPLICA_MARKER);
+    }
+
+    private void replicate() {
+        Long beat = jdbcTemplate.queryForObject("SELECT beat_millis FROM replication_heartbeat WHERE id = 1", Long.class);
+        replica.update("MERGE INTO replication_heartbeat KEY (id) VALUES (1, ?)", beat);
+    }
+}
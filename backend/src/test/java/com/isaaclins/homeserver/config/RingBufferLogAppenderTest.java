@@ -0,0 +1,119 @@
+package com.isaaclins.homeserver.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the async ring-buffer appender: events reach the nested
+ * appender with the MDC of the logging thread, and a stalled writer makes the
+ * appender drop low-level events first instead of blocking.
+ */
+class RingBufferLogAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final BlockingListAppender sink = new BlockingListAppender();
+    private final RingBufferLogAppender appender = new RingBufferLogAppender();
+    private final Logger logger = context.getLogger("test");
+
+    @AfterEach
+    void stop() {
+        unblock.countDown();
+        appender.stop();
+        MDC.clear();
+    }
+
+    @Test
+    void writesEventsWithTheCallersMdc() throws InterruptedException {
+        unblock.countDown();
+        start("drop-newest", 16);
+
+        MDC.put(RequestLoggingInterceptor.MDC_REQUEST_ID, "req-1");
+        logger.info("hello {}", "world");
+        MDC.clear();
+
+        ILoggingEvent event = sink.await(1).get(0);
+        assertThat(event.getFormattedMessage()).isEqualTo("hello world");
+        assertThat(event.getMDCPropertyMap()).containsEntry(RequestLoggingInterceptor.MDC_REQUEST_ID, "req-1");
+    }
+
+    @Test
+    void dropsInfoBeforeWarningsWhenNearlyFull() throws InterruptedException {
+        start("drop-below-warn", 8); // nearly full at 6 buffered events
+
+        logger.info("stalls the writer");
+        sink.awaitStalled();
+        for (int i = 0; i < 10; i++) {
+            logger.info("info {}", i);
+        }
+        logger.warn("still has room");
+
+        assertThat(appender.getDroppedCount(Level.INFO)).isEqualTo(4);
+        assertThat(appender.getDroppedCount(Level.WARN)).isZero();
+
+        unblock.countDown();
+        List<ILoggingEvent> written = sink.await(9);
+        assertThat(written).extracting(ILoggingEvent::getFormattedMessage).contains("still has room");
+    }
+
+    private void start(String discardPolicy, int bufferSize) {
+        context.setMDCAdapter(MDC.getMDCAdapter());
+        sink.setContext(context);
+        sink.start();
+        appender.setContext(context);
+        appender.setName("ASYNC");
+        appender.setDiscardPolicy(discardPolicy);
+        appender.setBufferSize(bufferSize);
+        appender.setNearlyFullPercent(75);
+        appender.addAppender(sink);
+        appender.start();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+    }
+
+    /**
+     * Collects events; the first one blocks until {@code unblock} opens.
+     */
+    private class BlockingListAppender extends AppenderBase<ILoggingEvent> {
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stalled = new CountDownLatch(1);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            events.add(event);
+            stalled.countDown();
+            try {
+                unblock.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitStalled() throws InterruptedException {
+            assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        List<ILoggingEvent> await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(events).hasSizeGreaterThanOrEqualTo(count);
+            return events;
+        }
+    }
+}
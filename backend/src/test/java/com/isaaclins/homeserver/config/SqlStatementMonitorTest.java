@@ -0,0 +1,87 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.dto.SlowQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for per-request statement counting, N+1 detection and the slow
+ * query table, with statements executed through the counting data source
+ * against a private H2 database.
+ */
+class SqlStatementMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementMonitor monitor = new SqlStatementMonitor(meterRegistry, 10, 5, 50, 2);
+
+    @Test
+    void countsStatementsPerRequestAndFlagsRepeatedShapes() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(countingDataSource());
+        jdbcTemplate.execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(20))");
+
+        monitor.beginRequest();
+        for (int id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO items VALUES (" + id + ", 'item" + id + "')");
+        }
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE id IN (?, ?)", Long.class, 1, 2);
+        SqlStatementMonitor.RequestSqlStats stats = monitor.endRequest("GET /items");
+
+        assertThat(stats.getStatementCount()).isEqualTo(6);
+        assertThat(meterRegistry.counter("sql.request.warnings", "type", "repeat").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("sql.request.warnings", "type", "budget").count()).isZero();
+        assertThat(monitor.endRequest("GET /items")).isNull();
+    }
+
+    @Test
+    void warnsWhenRequestExceedsStatementBudget() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(countingDataSource());
+
+        monitor.beginRequest();
+        for (int i = 0; i < 11; i++) {
+            jdbcTemplate.queryForObject("SELECT " + i % 3, Integer.class);
+        }
+        monitor.endRequest("GET /dashboard");
+
+        assertThat(meterRegistry.counter("sql.request.warnings", "type", "budget").count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsOnlyTheSlowestShapes() {
+        monitor.record("SELECT * FROM a WHERE id = 1", millis(60));
+        monitor.record("SELECT * FROM a WHERE id = 2", millis(90));
+        monitor.record("SELECT * FROM b", millis(70));
+        monitor.record("SELECT * FROM c", millis(65)); // slower than nothing left in the table
+        monitor.record("SELECT * FROM d", millis(10)); // below the threshold
+
+        List<SlowQuery> slow = monitor.getSlowQueries();
+
+        assertThat(slow).extracting(SlowQuery::getSql)
+                .containsExactly("SELECT * FROM a WHERE id = ?", "SELECT * FROM b");
+        assertThat(slow.get(0).getCount()).isEqualTo(2);
+        assertThat(slow.get(0).getMaxMillis()).isEqualTo(90.0);
+        assertThat(slow.get(0).getAvgMillis()).isEqualTo(75.0);
+    }
+
+    @Test
+    void normalizesLiteralsAndInLists() {
+        assertThat(SqlStatementMonitor.shape("select u1_0.id from users u1_0\n where u1_0.name = 'o''brien' and u1_0.id in (?, ?, ?) limit 10"))
+                .isEqualTo("select u1_0.id from users u1_0 where u1_0.name = ? and u1_0.id in (?) limit ?");
+    }
+
+    private StatementCountingDataSource countingDataSource() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sqlmonitor" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        return new StatementCountingDataSource(h2, monitor);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
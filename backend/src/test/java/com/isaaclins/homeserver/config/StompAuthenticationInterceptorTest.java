@@ -0,0 +1,110 @@
+package com.isaaclins.homeserver.config;
+
+import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.service.JwtService;
+import com.isaaclins.homeserver.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * STOMP sessions take their user from the CONNECT token, nobody can
+ * subscribe to another user's queue or publish into the broker, and only
+ * admins can subscribe to request logs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StompAuthenticationInterceptorTest {
+
+    @Autowired
+    private StompAuthenticationInterceptor interceptor;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void connectWithTokenSetsTheUser() {
+        StompHeaderAccessor connect = frame(StompCommand.CONNECT, null, null);
+        connect.setNativeHeader("Authorization", "Bearer " + jwtService.generateToken("alice"));
+
+        interceptor.preSend(message(connect), null);
+
+        assertThat(connect.getUser()).extracting(Principal::getName).isEqualTo("alice");
+    }
+
+    @Test
+    void rejectsInvalidTokensAndPrivateOrForeignDestinations() {
+        StompHeaderAccessor badToken = frame(StompCommand.CONNECT, null, null);
+        badToken.setNativeHeader("Authorization", "Bearer not-a-token");
+        assertThatThrownBy(() -> interceptor.preSend(message(badToken), null))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        for (String destination : new String[] { "/queue/**", "/**", "/queue/chat/x-user1234" }) {
+            assertThatThrownBy(() -> interceptor.preSend(message(frame(StompCommand.SUBSCRIBE, destination, null)), null))
+                    .isInstanceOf(MessageDeliveryException.class);
+        }
+        assertThatThrownBy(() -> interceptor.preSend(
+                message(frame(StompCommand.SUBSCRIBE, "/user/queue/chat/abcdefgh", null)), null))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(
+                message(frame(StompCommand.SEND, "/user/alice/queue/chat/abcdefgh", () -> "bob")), null))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        interceptor.preSend(message(frame(StompCommand.SUBSCRIBE, "/topic/announcements", null)), null);
+        interceptor.preSend(message(frame(StompCommand.SUBSCRIBE, "/user/queue/chat/abcdefgh", () -> "bob")), null);
+    }
+
+    @Test
+    void requestLogTopicsNeedAnAdmin() {
+        Principal admin = admin("stomp-admin")::getUsername;
+        Principal bob = () -> "bob";
+
+        for (String destination : new String[] { "/topic/request-logs", "/topic/request-logs/filtered",
+                "/topic/**", "/topic/request-logs/*" }) {
+            assertThatThrownBy(() -> interceptor.preSend(message(frame(StompCommand.SUBSCRIBE, destination, null)), null))
+                    .isInstanceOf(MessageDeliveryException.class)
+                    .hasMessageContaining("needs an admin connection");
+            assertThatThrownBy(() -> interceptor.preSend(message(frame(StompCommand.SUBSCRIBE, destination, bob)), null))
+                    .isInstanceOf(MessageDeliveryException.class);
+            interceptor.preSend(message(frame(StompCommand.SUBSCRIBE, destination, admin)), null);
+        }
+    }
+
+    private User admin(String username) {
+        return userService.getUserByUsername(username).orElseGet(() -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(username + "@stomp.test");
+            user.setHashedPassword("not-a-real-hash");
+            user.setIsAdmin(true);
+            return userService.saveUser(user);
+        });
+    }
+
+    private static StompHeaderAccessor frame(StompCommand command, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-1");
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+    private static Message<byte[]> message(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
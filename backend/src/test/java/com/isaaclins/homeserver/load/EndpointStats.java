@@ -0,0 +1,38 @@
+package com.isaaclins.homeserver.load;
+
+import lombok.Value;
+
+/**
+ * Latency summary of one endpoint over a load run. Latencies are in
+ * microseconds and measured from the scheduled start of the request.
+ */
+@Value
+class EndpointStats {
+    String endpoint;
+    long count;
+    long errors;
+    double throughput;
+    long p50Micros;
+    long p99Micros;
+    long p999Micros;
+    long maxMicros;
+
+    double errorRate() {
+        return count == 0 ? 0 : (double) errors / count;
+    }
+
+    long percentileMicros(String percentile) {
+        switch (percentile) {
+            case "p50":
+                return p50Micros;
+            case "p99":
+                return p99Micros;
+            case "p999":
+                return p999Micros;
+            case "max":
+                return maxMicros;
+            default:
+                throw new IllegalArgumentException("Unknown percentile: " + percentile);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.isaaclins.homeserver.load;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upper bound for one latency percentile, either for a single endpoint or for
+ * every endpoint ({@code *}). Parsed from a comma separated list such as
+ * {@code *:p99=250,POST /api/login:p999=500} (milliseconds).
+ */
+@Value
+class LatencyBudget {
+    String endpoint;
+    String percentile;
+    long maxMillis;
+
+    boolean appliesTo(String name) {
+        return "*".equals(endpoint) || endpoint.equals(name);
+    }
+
+    static List<LatencyBudget> parse(String spec) {
+        List<LatencyBudget> budgets = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return budgets;
+        }
+        for (String entry : spec.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            int equals = entry.indexOf('=', colon);
+            if (colon < 0 || equals < 0) {
+                throw new IllegalArgumentException("Invalid latency budget: " + entry);
+            }
+            budgets.add(new LatencyBudget(entry.substring(0, colon).trim(),
+                    entry.substring(colon + 1, equals).trim(),
+                    Long.parseLong(entry.substring(equals + 1).trim())));
+        }
+        return budgets;
+    }
+}
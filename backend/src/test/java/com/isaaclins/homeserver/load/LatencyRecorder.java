@@ -0,0 +1,41 @@
+package com.isaaclins.homeserver.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects every latency sample of one endpoint. Load runs are bounded (rate
+ * times duration), so keeping raw samples is cheap and gives exact
+ * percentiles instead of bucketed approximations.
+ */
+final class LatencyRecorder {
+
+    private long[] samplesMicros = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == samplesMicros.length) {
+            samplesMicros = Arrays.copyOf(samplesMicros, count * 2);
+        }
+        samplesMicros[count++] = latencyNanos / 1000;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    synchronized EndpointStats snapshot(String endpoint, double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samplesMicros, count);
+        Arrays.sort(sorted);
+        return new EndpointStats(endpoint, count, errors, count / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
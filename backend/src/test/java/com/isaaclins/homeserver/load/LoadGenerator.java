@@ -0,0 +1,149 @@
+package com.isaaclins.homeserver.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: scenarios start at a fixed arrival rate no matter
+ * how fast the server answers, and the first request of each scenario is timed
+ * from its scheduled start rather than from when it was actually sent. A slow
+ * server therefore shows up as queueing delay in the percentiles instead of
+ * silently lowering the offered load (coordinated omission).
+ */
+@Slf4j
+final class LoadGenerator {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    LoadGenerator(String baseUrl, int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.maxInFlight = maxInFlight;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Replays the scenarios at {@code ratePerSecond} arrivals for the given
+     * duration, waits for in-flight requests and returns the per-endpoint
+     * report. Recorded samples are reset first, so a warm-up run can simply be
+     * discarded.
+     */
+    LoadReport run(List<LoadScenario> scenarios, double ratePerSecond, Duration duration) {
+        recorders.clear();
+        dropped.set(0);
+
+        int totalWeight = scenarios.stream().mapToInt(LoadScenario::weight).sum();
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long arrivals = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < arrivals; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadScenario scenario = pick(scenarios, totalWeight);
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                dropped.incrementAndGet();
+                continue;
+            }
+            try {
+                scenario.execute(new Session(intendedStart)).whenComplete((r, e) -> inFlight.decrementAndGet());
+            } catch (RuntimeException e) {
+                inFlight.decrementAndGet();
+                log.warn("Scenario {} failed to start", scenario.name(), e);
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still in flight after {}", inFlight.get(), DRAIN_TIMEOUT);
+        }
+
+        double elapsedSeconds = duration.toNanos() / 1e9;
+        List<EndpointStats> endpoints = new ArrayList<>();
+        recorders.forEach((endpoint, recorder) -> endpoints.add(recorder.snapshot(endpoint, elapsedSeconds)));
+        endpoints.sort(Comparator.comparing(EndpointStats::getEndpoint));
+        return new LoadReport(ratePerSecond, elapsedSeconds, dropped.get(), endpoints);
+    }
+
+    private static LoadScenario pick(List<LoadScenario> scenarios, int totalWeight) {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (LoadScenario scenario : scenarios) {
+            r -= scenario.weight();
+            if (r < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    /**
+     * Request context of one scenario execution. The first request is timed
+     * from the scheduled arrival; follow-up requests depend on earlier
+     * responses and are timed from when they are sent.
+     */
+    final class Session {
+
+        private final long intendedStart;
+        private boolean first = true;
+
+        private Session(long intendedStart) {
+            this.intendedStart = intendedStart;
+        }
+
+        HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        }
+
+        /**
+         * Sends the request and records its latency under {@code endpoint}. The
+         * returned future fails if the status differs from
+         * {@code expectedStatus}, which ends the scenario.
+         */
+        CompletableFuture<HttpResponse<String>> send(String endpoint, HttpRequest request, int expectedStatus) {
+            long requestStart = first ? intendedStart : System.nanoTime();
+            first = false;
+            LatencyRecorder recorder = recorders.computeIfAbsent(endpoint, k -> new LatencyRecorder());
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        boolean success = error == null && response.statusCode() == expectedStatus;
+                        recorder.record(System.nanoTime() - requestStart, success);
+                        if (!success) {
+                            throw new IllegalStateException(endpoint + " failed: "
+                                    + (error != null ? error : "HTTP " + response.statusCode()));
+                        }
+                        return response;
+                    });
+        }
+    }
+}
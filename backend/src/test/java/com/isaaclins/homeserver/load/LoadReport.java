@@ -0,0 +1,59 @@
+package com.isaaclins.homeserver.load;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-endpoint results of a load run plus the checks against the configured
+ * budgets.
+ */
+@Value
+class LoadReport {
+    double targetRate;
+    double elapsedSeconds;
+    long dropped;
+    List<EndpointStats> endpoints;
+
+    /**
+     * Returns one message per exceeded budget; empty if the run passed.
+     */
+    List<String> violations(List<LatencyBudget> budgets, double maxErrorRate) {
+        List<String> violations = new ArrayList<>();
+        if (dropped > 0) {
+            violations.add(dropped + " arrivals dropped because too many requests were in flight");
+        }
+        for (EndpointStats stats : endpoints) {
+            if (stats.errorRate() > maxErrorRate) {
+                violations.add(String.format("%s: error rate %.2f%% > %.2f%%",
+                        stats.getEndpoint(), stats.errorRate() * 100, maxErrorRate * 100));
+            }
+            for (LatencyBudget budget : budgets) {
+                if (!budget.appliesTo(stats.getEndpoint())) {
+                    continue;
+                }
+                long actualMicros = stats.percentileMicros(budget.getPercentile());
+                if (actualMicros > budget.getMaxMillis() * 1000) {
+                    violations.add(String.format("%s: %s %.1f ms > %d ms", stats.getEndpoint(),
+                            budget.getPercentile(), actualMicros / 1000.0, budget.getMaxMillis()));
+                }
+            }
+        }
+        return violations;
+    }
+
+    String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Target rate %.0f req/s over %.1f s, %d dropped%n", targetRate, elapsedSeconds, dropped));
+        sb.append(String.format("%-45s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (EndpointStats s : endpoints) {
+            sb.append(String.format("%-45s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.getEndpoint(), s.getCount(), s.getErrors(), s.getThroughput(),
+                    s.getP50Micros() / 1000.0, s.getP99Micros() / 1000.0,
+                    s.getP999Micros() / 1000.0, s.getMaxMicros() / 1000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.isaaclins.homeserver.load;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * One user interaction replayed by the {@link LoadGenerator}, e.g. a login or
+ * a create/read/update/delete sequence. Scenarios are picked at random in
+ * proportion to their weight.
+ */
+interface LoadScenario {
+
+    String name();
+
+    int weight();
+
+    /**
+     * Starts the interaction and returns a future that completes once its last
+     * request has finished. Requests must go through the session so their
+     * latency is recorded.
+     */
+    CompletableFuture<?> execute(LoadGenerator.Session session);
+
+    static LoadScenario of(String name, int weight,
+            Function<LoadGenerator.Session, CompletableFuture<?>> body) {
+        return new LoadScenario() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int weight() {
+                return weight;
+            }
+
+            @Override
+            public CompletableFuture<?> execute(LoadGenerator.Session session) {
+                return body.apply(session);
+            }
+        };
+    }
+}
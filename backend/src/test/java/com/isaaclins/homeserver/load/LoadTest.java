@@ -0,0 +1,204 @@
+package com.isaaclins.homeserver.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.service.JwtService;
+import com.isaaclins.homeserver.service.RegistrationCodeService;
+import com.isaaclins.homeserver.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the application on its own H2 database and replays a weighted mix of
+ * login, user CRUD, dashboard polling and registration at a fixed arrival
+ * rate. Prints per-endpoint throughput and p50/p99/p999 latencies and fails
+ * when a budget from {@code load.budgets} or {@code load.max-error-rate} is
+ * exceeded.
+ *
+ * <p>
+ * Tagged {@code load} and excluded from the regular build; run it with
+ * {@code mvn -Pload-test test}. Rate, duration and budgets can be overridden
+ * with system properties, e.g. {@code -Dload.rate=200 -Dload.duration=PT2M}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "test", "load" })
+class LoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RegistrationCodeService codeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${load.rate:50}")
+    private double rate;
+
+    @Value("${load.warmup:PT5S}")
+    private Duration warmup;
+
+    @Value("${load.duration:PT30S}")
+    private Duration duration;
+
+    @Value("${load.users:200}")
+    private int seededUsers;
+
+    @Value("${load.max-in-flight:2000}")
+    private int maxInFlight;
+
+    @Value("${load.budgets:*:p99=250,*:p999=1000}")
+    private String budgets;
+
+    @Value("${load.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    @Value("${load.report:target/load-report.txt}")
+    private String reportPath;
+
+    private final List<String> usernames = new ArrayList<>();
+    private final Queue<String> registrationCodes = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private String adminToken;
+
+    @BeforeEach
+    void seed() {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < seededUsers; i++) {
+            String username = "load" + runId + "u" + i;
+            userService.saveUser(new User(null, username, username + "@load.test", PASSWORD, null, false));
+            usernames.add(username);
+        }
+        String admin = "load" + runId + "admin";
+        userService.saveUser(new User(null, admin, admin + "@load.test", PASSWORD, null, true));
+        adminToken = "Bearer " + jwtService.generateToken(admin);
+
+        // Registration is 10% of the mix; keep plenty of headroom
+        long seconds = warmup.plus(duration).toSeconds() + 1;
+        int codes = (int) Math.ceil(rate * seconds * 0.15) + 100;
+        codeService.generateCodes(codes, Duration.ofHours(1), 8,
+                batch -> batch.forEach(c -> registrationCodes.add(c.getCode())));
+    }
+
+    @Test
+    void endpointsStayWithinLatencyBudgets() throws IOException {
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port, maxInFlight);
+        List<LoadScenario> scenarios = List.of(
+                LoadScenario.of("login", 30, this::login),
+                LoadScenario.of("user-crud", 20, this::userCrud),
+                LoadScenario.of("dashboard", 40, this::dashboard),
+                LoadScenario.of("registration", 10, this::register));
+
+        generator.run(scenarios, rate, warmup);
+        LoadReport report = generator.run(scenarios, rate, duration);
+
+        List<String> violations = report.violations(LatencyBudget.parse(budgets), maxErrorRate);
+        String text = report.format() + (violations.isEmpty() ? "PASSED\n" : "FAILED\n" + String.join("\n", violations) + "\n");
+        System.out.println(text);
+        Path path = Path.of(reportPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, text);
+
+        assertThat(violations).as("latency budget violations").isEmpty();
+    }
+
+    private CompletableFuture<?> login(LoadGenerator.Session session) {
+        String username = usernames.get(ThreadLocalRandom.current().nextInt(usernames.size()));
+        return session.send("POST /api/login", post(session, "/api/login",
+                Map.of("usernameOrEmail", username, "password", PASSWORD)), 200);
+    }
+
+    private CompletableFuture<?> userCrud(LoadGenerator.Session session) {
+        String username = "crud" + sequence.incrementAndGet() + "x" + ThreadLocalRandom.current().nextInt(1_000_000);
+        Map<String, Object> user = Map.of("username", username, "email", username + "@load.test",
+                "hashedPassword", PASSWORD);
+        return session.send("POST /api/users", post(session, "/api/users", user), 201)
+                .thenCompose(created -> {
+                    String path = "/api/users/" + readTree(created).get("id").asLong();
+                    return session.send("GET /api/users/{id}", session.request(path).GET().build(), 200)
+                            .thenCompose(r -> session.send("PUT /api/users/{id}",
+                                    session.request(path)
+                                            .header("Content-Type", "application/json")
+                                            .PUT(json(Map.of("username", username, "email", "updated." + username + "@load.test",
+                                                    "hashedPassword", PASSWORD)))
+                                            .build(), 200))
+                            .thenCompose(r -> session.send("DELETE /api/users/{id}",
+                                    session.request(path).DELETE().build(), 204));
+                });
+    }
+
+    private CompletableFuture<?> dashboard(LoadGenerator.Session session) {
+        return session.send("GET /api/monitoring/dashboard/data",
+                session.request("/api/monitoring/dashboard/data").header("Authorization", adminToken).GET().build(), 200)
+                .thenCompose(r -> session.send("GET /api/monitoring/requests/recent",
+                        session.request("/api/monitoring/requests/recent?limit=50")
+                                .header("Authorization", adminToken).GET().build(), 200));
+    }
+
+    private CompletableFuture<?> register(LoadGenerator.Session session) {
+        String code = registrationCodes.poll();
+        if (code == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Out of registration codes"));
+        }
+        String username = "reg" + sequence.incrementAndGet() + "x" + ThreadLocalRandom.current().nextInt(1_000_000);
+        return session.send("POST /api/register", post(session, "/api/register",
+                Map.of("username", username, "email", username + "@load.test", "password", PASSWORD, "code", code)), 201);
+    }
+
+    private HttpRequest post(LoadGenerator.Session session, String path, Object body) {
+        return session.request(path).header("Content-Type", "application/json").POST(json(body)).build();
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonNode readTree(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
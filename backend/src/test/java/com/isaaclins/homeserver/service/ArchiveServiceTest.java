@@ -0,0 +1,154 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.Job;
+import com.isaaclins.homeserver.entity.RequestLog;
+import com.isaaclins.homeserver.repository.JobRepository;
+import com.isaaclins.homeserver.repository.RequestLogRepository;
+import com.isaaclins.homeserver.repository.SystemMetricsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Expired request logs are written to per-day archive files before they are
+ * deleted, and queries open only the files overlapping the requested range.
+ * In cluster mode the archive must be shared and is re-read on every query.
+ */
+@SpringBootTest(properties = {
+        // Own database, so no other test context's cleanup job races this one
+        "spring.datasource.url=jdbc:h2:mem:archive-test;DB_CLOSE_DELAY=-1",
+        "archive.batch-size=2"
+})
+@ActiveProfiles("test")
+class ArchiveServiceTest {
+
+    private static final Path ARCHIVE_DIR = createArchiveDir();
+    private static final LocalDate FIVE_DAYS_AGO = LocalDate.now().minusDays(5);
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private RequestLogService requestLogService;
+
+    @Autowired
+    private RequestLogRepository requestLogRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void waitForStartupCleanup() throws InterruptedException {
+        // The recurring cleanup is queued as soon as this instance becomes leader
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jobRepository.findAll().stream().noneMatch(job -> job.getType().equals(RequestLogCleanupJob.TYPE)
+                && job.getStatus() == Job.Status.SUCCEEDED)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void archivesExpiredRowsOnceBeforeDeletingThemAndQueriesByRange() {
+        requestLogRepository.saveAll(List.of(
+                log(FIVE_DAYS_AGO.atTime(10, 0), "/api/a"),
+                log(FIVE_DAYS_AGO.atTime(11, 0), "/api/b"),
+                log(FIVE_DAYS_AGO.atTime(23, 59), "/api/c"),
+                log(FIVE_DAYS_AGO.plusDays(1).atTime(9, 0), "/api/d"),
+                log(LocalDateTime.now(), "/api/recent")));
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(3);
+
+        assertThat(archiveService.archive(ArchiveService.Dataset.REQUEST_LOGS, cutoff)).isEqualTo(4);
+        // As if the instance had crashed before deleting and the cleanup ran again
+        assertThat(archiveService.archive(ArchiveService.Dataset.REQUEST_LOGS, cutoff)).isZero();
+        requestLogService.cleanupOldRequestLogs();
+
+        assertThat(requestLogRepository.findAll()).extracting(RequestLog::getEndpoint).containsExactly("/api/recent");
+        List<ArchiveService.ArchiveFile> files = archiveService.getFiles(ArchiveService.Dataset.REQUEST_LOGS);
+        assertThat(files).extracting(ArchiveService.ArchiveFile::rows).containsExactly(3L, 1L);
+        assertThat(files.get(0).path()).startsWith("request_logs/" + FIVE_DAYS_AGO + "/").endsWith(".ndjson.gz");
+
+        ArchiveService.QueryResult morning = archiveService.query(ArchiveService.Dataset.REQUEST_LOGS,
+                FIVE_DAYS_AGO.atTime(10, 30), FIVE_DAYS_AGO.atTime(12, 0), 100);
+        assertThat(morning.filesScanned()).isEqualTo(1);
+        assertThat(morning.rows()).extracting(row -> ((RequestLog) row).getEndpoint()).containsExactly("/api/b");
+
+        ArchiveService.QueryResult both = archiveService.query(ArchiveService.Dataset.REQUEST_LOGS,
+                FIVE_DAYS_AGO.atStartOfDay(), LocalDateTime.now(), 100);
+        assertThat(both.filesScanned()).isEqualTo(2);
+        assertThat(both.rows()).hasSize(4);
+    }
+
+    @Test
+    void clusterModeNeedsASharedArchiveThatIsReReadOnQuery() throws IOException {
+        ClusterEvents cluster = mock(ClusterEvents.class);
+        when(cluster.isEnabled()).thenReturn(true);
+        RequestLogRepository requestLogs = mock(RequestLogRepository.class);
+        when(requestLogs.findArchiveBatch(any(), any(), any(), any()))
+                .thenReturn(List.of(log(FIVE_DAYS_AGO.atTime(8, 0), "/api/node-a")));
+        String shared = Files.createTempDirectory("archive-shared").toString();
+
+        assertThatThrownBy(() -> new ArchiveService(requestLogs, mock(SystemMetricsRepository.class), objectMapper,
+                new SimpleMeterRegistry(), cluster, true, shared, false, 1000))
+                .isInstanceOf(IllegalStateException.class);
+
+        ArchiveService nodeA = new ArchiveService(requestLogs, mock(SystemMetricsRepository.class), objectMapper,
+                new SimpleMeterRegistry(), cluster, true, shared, true, 1000);
+        ArchiveService nodeB = new ArchiveService(requestLogs, mock(SystemMetricsRepository.class), objectMapper,
+                new SimpleMeterRegistry(), cluster, true, shared, true, 1000);
+        nodeA.loadIndexes();
+        nodeB.loadIndexes();
+
+        nodeA.archive(ArchiveService.Dataset.REQUEST_LOGS, LocalDateTime.now().minusDays(3));
+
+        assertThat(nodeB.query(ArchiveService.Dataset.REQUEST_LOGS, FIVE_DAYS_AGO.atStartOfDay(),
+                LocalDateTime.now(), 100).rows())
+                .extracting(row -> ((RequestLog) row).getEndpoint()).containsExactly("/api/node-a");
+    }
+
+    private static RequestLog log(LocalDateTime timestamp, String endpoint) {
+        RequestLog requestLog = new RequestLog();
+        requestLog.setTimestamp(timestamp);
+        requestLog.setUsername("alice");
+        requestLog.setMethod("GET");
+        requestLog.setEndpoint(endpoint);
+        requestLog.setStatusCode(200);
+        return requestLog;
+    }
+
+    private static Path createArchiveDir() {
+        try {
+            return Files.createTempDirectory("archive-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
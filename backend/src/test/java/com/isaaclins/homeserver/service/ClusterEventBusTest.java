@@ -0,0 +1,191 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.BackendApplication;
+import com.isaaclins.homeserver.dto.RequestLogFilter;
+import com.isaaclins.homeserver.entity.User;
+import com.isaaclins.homeserver.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes on localhost, each listing the other as its peer: events
+ * published on one reach subscribers on the other exactly once, revocations
+ * and user changes update the other node's in-memory state, and a peer
+ * sending oversized frames is cut off.
+ */
+class ClusterEventBusTest {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        nodeA = startNode("a", portA, portB);
+        nodeB = startNode("b", portB, portA);
+        awaitTrue(() -> connectedPeers(nodeA) == 1 && connectedPeers(nodeB) == 1);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void topicMessagesReachTheOtherNodeOnce() throws Exception {
+        List<Message<?>> onA = capture(nodeA, "brokerChannel", "/topic/cluster-test");
+        List<Message<?>> onB = capture(nodeB, "brokerChannel", "/topic/cluster-test");
+
+        nodeA.getBean(SimpMessagingTemplate.class).convertAndSend("/topic/cluster-test", "hello from a");
+
+        awaitTrue(() -> onB.size() == 1);
+        assertThat(new String((byte[]) onB.get(0).getPayload(), StandardCharsets.UTF_8)).isEqualTo("hello from a");
+        assertThat(onB.get(0).getHeaders()).containsKey(ClusterEventBus.ORIGIN_HEADER);
+        Thread.sleep(200); // a loop would bring it back to A within a few milliseconds
+        assertThat(onA).hasSize(1);
+        assertThat(onB).hasSize(1);
+    }
+
+    @Test
+    void requestLogsReachFilteredSubscribersOnTheOtherNode() throws Exception {
+        nodeB.getBean(RequestLogSubscriptionIndex.class).subscribe("session-b", "errors",
+                RequestLogFilter.fromHeaders(Map.of(RequestLogFilter.STATUS_HEADER, "5xx")::get));
+        List<Message<?>> delivered = capture(nodeB, "clientOutboundChannel", FilteredRequestLogPublisher.DESTINATION);
+        try {
+            RequestLogService requestLogs = nodeA.getBean(RequestLogService.class);
+            requestLogs.logRequest("alice", "GET", "/api/ok", 200, 3L, "test", "127.0.0.1");
+            requestLogs.logRequest("alice", "GET", "/api/broken", 503, 7L, "test", "127.0.0.1");
+
+            awaitTrue(() -> !delivered.isEmpty());
+            Thread.sleep(200);
+            assertThat(delivered).hasSize(1);
+            assertThat(SimpMessageHeaderAccessor.getSubscriptionId(delivered.get(0).getHeaders())).isEqualTo("errors");
+            assertThat(new String((byte[]) delivered.get(0).getPayload(), StandardCharsets.UTF_8))
+                    .contains("/api/broken");
+        } finally {
+            nodeB.getBean(RequestLogSubscriptionIndex.class).removeSession("session-b");
+        }
+    }
+
+    @Test
+    void revocationsReachTheOtherNode() throws Exception {
+        String token = nodeA.getBean(JwtService.class).generateToken("cluster-user");
+        JwtService jwtOnB = nodeB.getBean(JwtService.class);
+        assertThat(jwtOnB.validate(token)).isTrue();
+
+        nodeA.getBean(JwtService.class).revoke(token);
+
+        // The nodes have separate databases here, so B can only know through the event
+        awaitTrue(() -> !jwtOnB.validate(token));
+    }
+
+    @Test
+    void userChangesEvictTheOtherNodesCache() throws Exception {
+        UserService usersOnB = nodeB.getBean(UserService.class);
+        User user = new User();
+        user.setUsername("cluster-carol");
+        user.setEmail("carol@cluster.test");
+        user.setHashedPassword("not-a-real-hash");
+        Long id = usersOnB.saveUser(user).getId();
+        assertThat(usersOnB.getUserById(id)).isPresent();
+        assertThat(usersOnB.searchByPrefix("cluster-carol", 10)).hasSize(1);
+
+        // Another node deletes the row from the shared database and announces it
+        nodeB.getBean(UserRepository.class).deleteById(id);
+        nodeA.getBean(ClusterEvents.class).publish("user-changed", id.toString());
+
+        awaitTrue(() -> usersOnB.getUserById(id).isEmpty() && usersOnB.searchByPrefix("cluster-carol", 10).isEmpty());
+    }
+
+    @Test
+    void disconnectsPeersThatSendOversizedFrames() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", nodeB.getBean(ClusterEventBus.class).getPort())) {
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeUTF("homeserver-bus/1");
+            out.writeUTF("rogue-node");
+            byte[] secret = "test-secret".getBytes(StandardCharsets.UTF_8);
+            out.writeShort(secret.length);
+            out.write(secret);
+            out.writeInt(1);
+            out.writeByte(1);
+            out.writeUTF("/topic/cluster-test");
+            out.writeUTF("");
+            out.writeInt(Integer.MAX_VALUE);
+            out.flush();
+
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String name, int busPort, int peerPort) {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:cluster-" + name + ";DB_CLOSE_DELAY=-1",
+                        "metrics.collection.initial-delay-ms=3600000",
+                        "cluster.mode=tcp",
+                        "cluster.bus.bind-address=127.0.0.1",
+                        "cluster.bus.port=" + busPort,
+                        "cluster.peers=127.0.0.1:" + peerPort,
+                        "cluster.bus.secret=test-secret",
+                        "archive.shared=true")
+                .run();
+    }
+
+    private static List<Message<?>> capture(ConfigurableApplicationContext node, String channel, String destination) {
+        List<Message<?>> messages = new CopyOnWriteArrayList<>();
+        node.getBean(channel, SubscribableChannel.class).subscribe(message -> {
+            if (destination.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                messages.add(message);
+            }
+        });
+        return messages;
+    }
+
+    private static double connectedPeers(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class)
+                .get("cluster.bus.peers.connected").gauge().value();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.entity.SystemMetrics;
+import com.isaaclins.homeserver.repository.SystemMetricsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The dashboard snapshot is built once for concurrent callers (per node),
+ * rebuilt when new system metrics are stored, and shows one node's metrics
+ * in cluster mode.
+ */
+@SpringBootTest(properties = {
+        "dashboard.snapshot.ttl-ms=60000",
+        "metrics.collection.initial-delay-ms=3600000" // only the test stores metrics
+})
+@ActiveProfiles("test")
+class DashboardSnapshotServiceTest {
+
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+
+    @Autowired
+    private SystemMetricsService systemMetricsService;
+
+    @Autowired
+    private SystemMetricsRepository systemMetricsRepository;
+
+    @Autowired
+    private RequestLogService requestLogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Test
+    void concurrentCallersShareOneBuild() throws Exception {
+        // A service of its own starts without a snapshot, so exactly one build is due
+        DashboardSnapshotService snapshots = new DashboardSnapshotService(systemMetricsService, requestLogService,
+                objectMapper, 60_000);
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<DashboardSnapshotService.DashboardSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return snapshots.getSnapshot();
+                }));
+            }
+            start.countDown();
+
+            DashboardSnapshotService.DashboardSnapshot first = results.get(0).get();
+            for (Future<DashboardSnapshotService.DashboardSnapshot> result : results) {
+                assertThat(result.get()).isSameAs(first);
+            }
+            assertThat(snapshots.getBuildCount()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void otherNodesAreCachedPerNode() throws Exception {
+        DashboardSnapshotService snapshots = new DashboardSnapshotService(systemMetricsService, requestLogService,
+                objectMapper, 60_000);
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<DashboardSnapshotService.DashboardSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return snapshots.getSnapshot("other-node");
+                }));
+            }
+            start.countDown();
+
+            DashboardSnapshotService.DashboardSnapshot first = results.get(0).get();
+            for (Future<DashboardSnapshotService.DashboardSnapshot> result : results) {
+                assertThat(result.get()).isSameAs(first);
+            }
+            assertThat(snapshots.getSnapshot("other-node")).isSameAs(first);
+            assertThat(snapshots.getBuildCount()).isEqualTo(1);
+
+            assertThat(snapshots.getSnapshot("third-node")).isNotSameAs(first);
+            assertThat(snapshots.getBuildCount()).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void newMetricsInvalidateTheSnapshot() {
+        DashboardSnapshotService.DashboardSnapshot before = dashboardSnapshotService.getSnapshot();
+        assertThat(dashboardSnapshotService.getSnapshot()).isSameAs(before);
+
+        systemMetricsService.collectMetrics();
+
+        DashboardSnapshotService.DashboardSnapshot after = dashboardSnapshotService.getSnapshot();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getEtag()).isNotEqualTo(before.getEtag());
+    }
+
+    @Test
+    void showsAnotherNodesMetricsOnlyWhenNamed() {
+        SystemMetrics other = new SystemMetrics(null, LocalDateTime.now(), 1.0, 0.0, 1L, 424242L, 0L, 0L,
+                "other-node");
+        systemMetricsRepository.save(other);
+        systemMetricsService.collectMetrics();
+
+        String remote = new String(dashboardSnapshotService.getSnapshot("other-node").getJson(), StandardCharsets.UTF_8);
+
+        assertThat(remote).contains("\"nodeId\":\"other-node\"").doesNotContain(systemMetricsService.getLocalNodeId());
+    }
+
+    @Test
+    void filtersByNodeOnlyInClusterMode() {
+        SystemMetrics legacy = new SystemMetrics(null, LocalDateTime.now().minusMinutes(2), 1.0, 0.0, 1L, 1L, 0L, 0L,
+                null);
+        SystemMetrics local = new SystemMetrics(null, LocalDateTime.now().minusMinutes(1), 1.0, 0.0, 1L, 2L, 0L, 0L,
+                "this-node");
+        SystemMetrics other = new SystemMetrics(null, LocalDateTime.now(), 1.0, 0.0, 1L, 3L, 0L, 0L, "other-node");
+        systemMetricsRepository.saveAll(List.of(legacy, local, other));
+
+        SystemMetricsService single = metricsService(false);
+        SystemMetricsService clustered = metricsService(true);
+
+        // A single instance owns every row, including those stored before rows had a node id
+        assertThat(single.getMetricsForLast24Hours()).extracting(SystemMetrics::getId)
+                .contains(legacy.getId(), local.getId(), other.getId());
+        assertThat(clustered.getMetricsForLast24Hours()).extracting(SystemMetrics::getId)
+                .contains(local.getId()).doesNotContain(legacy.getId(), other.getId());
+        assertThat(clustered.getLatestMetrics().getId()).isEqualTo(local.getId());
+        assertThat(clustered.getLatestMetrics("other-node").getId()).isEqualTo(other.getId());
+    }
+
+    private SystemMetricsService metricsService(boolean clusterMode) {
+        ClusterEvents clusterEvents = mock(ClusterEvents.class);
+        when(clusterEvents.isEnabled()).thenReturn(clusterMode);
+        return new SystemMetricsService(systemMetricsRepository, new NodeIdentity("this-node"), archiveService,
+                clusterEvents);
+    }
+}
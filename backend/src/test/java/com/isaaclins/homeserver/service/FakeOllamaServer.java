@@ -0,0 +1,100 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal stand-in for Ollama's {@code POST /api/chat}: streams a fixed reply
+ * word by word as newline-delimited JSON, one chunk every
+ * {@code tokenDelayMillis}, finishing with Ollama's done chunk. The model
+ * {@value #MISSING_MODEL} is answered with 404 like an unknown model.
+ */
+class FakeOllamaServer implements AutoCloseable {
+
+    static final String REPLY = "Hello from the fake model, one word at a time.";
+    static final String MISSING_MODEL = "missing";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long tokenDelayMillis;
+
+    FakeOllamaServer(long tokenDelayMillis) throws IOException {
+        this.tokenDelayMillis = tokenDelayMillis;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/chat", this::chat);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void chat(HttpExchange exchange) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        String model = request.path("model").asText();
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        if (MISSING_MODEL.equals(model)) {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("error", "model '" + model + "' not found"));
+            exchange.sendResponseHeaders(404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, 0); // chunked
+        try (OutputStream out = exchange.getResponseBody()) {
+            String[] words = REPLY.split("(?<= )");
+            long start = System.nanoTime();
+            for (String word : words) {
+                sleep();
+                writeChunk(out, model, word, false, null);
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("eval_count", words.length);
+            stats.put("eval_duration", System.nanoTime() - start);
+            writeChunk(out, model, "", true, stats);
+        }
+    }
+
+    private void writeChunk(OutputStream out, String model, String content, boolean done,
+            Map<String, Object> stats) throws IOException {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("model", model);
+        chunk.put("message", Map.of("role", "assistant", "content", content));
+        chunk.put("done", done);
+        if (stats != null) {
+            chunk.putAll(stats);
+        }
+        out.write(objectMapper.writeValueAsBytes(chunk));
+        out.write('\n');
+        out.flush();
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(tokenDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.RequestLogFilter;
+import com.isaaclins.homeserver.entity.RequestLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtered request-log frames reach a session in the order they were
+ * published, although the outbound channel runs on a thread pool.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FilteredRequestLogPublisherTest {
+
+    private static final String SESSION = "ordered-session";
+
+    @Autowired
+    private FilteredRequestLogPublisher publisher;
+
+    @Autowired
+    private RequestLogSubscriptionIndex index;
+
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private SubscribableChannel clientOutboundChannel;
+
+    @Test
+    void deliversEachSessionsEventsInPublishOrder() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        MessageHandler capture = message -> {
+            if (SESSION.equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(3)); // let a pool reorder if it can
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+            }
+        };
+        clientOutboundChannel.subscribe(capture);
+        index.subscribe(SESSION, "all", RequestLogFilter.fromHeaders(Map.<String, String>of()::get));
+        try {
+            List<String> endpoints = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                endpoints.add("/api/ordered/" + i);
+                publisher.deliver(log("/api/ordered/" + i));
+            }
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (received.size() < endpoints.size()) {
+                assertThat(System.currentTimeMillis()).as("received " + received.size()).isLessThan(deadline);
+                Thread.sleep(20);
+            }
+            for (int i = 0; i < endpoints.size(); i++) {
+                assertThat(received.get(i)).contains("\"" + endpoints.get(i) + "\"");
+            }
+        } finally {
+            index.removeSession(SESSION);
+            clientOutboundChannel.unsubscribe(capture);
+        }
+    }
+
+    private static RequestLog log(String endpoint) {
+        RequestLog requestLog = new RequestLog();
+        requestLog.setUsername("alice");
+        requestLog.setMethod("GET");
+        requestLog.setEndpoint(endpoint);
+        requestLog.setStatusCode(200);
+        return requestLog;
+    }
+}
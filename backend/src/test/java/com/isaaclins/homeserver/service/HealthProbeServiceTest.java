@@ -0,0 +1,77 @@
+package com.isaaclins.homeserver.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Health components answer from the cached probes; a probe past its degraded
+ * threshold makes the service DEGRADED without failing readiness, and
+ * startup time does not count as scheduler lag.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "health.disk.degraded-below=100000TB") // no disk is this large
+@ActiveProfiles("test")
+class HealthProbeServiceTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private HealthProbeService healthProbeService;
+
+    @Test
+    void reportsEveryProbeFromCache() {
+        assertThat(healthProbeService.getHealth(HealthProbeService.DB).getStatus()).isEqualTo(Status.UP);
+        assertThat(healthProbeService.getHealth(HealthProbeService.DB).getDetails()).containsKey("latencyMs");
+        assertThat(healthProbeService.getHealth(HealthProbeService.CONNECTION_POOL).getStatus()).isEqualTo(Status.UP);
+        assertThat(healthProbeService.getHealth(HealthProbeService.SCHEDULER).getStatus()).isEqualTo(Status.UP);
+        assertThat(healthProbeService.getHealth(HealthProbeService.BROKER).getStatus()).isEqualTo(Status.UP);
+        assertThat(healthProbeService.getHealth(HealthProbeService.DISK_SPACE).getStatus())
+                .isEqualTo(HealthProbeService.DEGRADED);
+        assertThat(healthProbeService.getOverallStatus()).isEqualTo(HealthProbeService.DEGRADED);
+    }
+
+    @Test
+    void degradedServiceStaysReadyAndLive() {
+        ResponseEntity<String> health = restTemplate.getForEntity("/actuator/health", String.class);
+        assertThat(health.getStatusCode().value()).isEqualTo(200);
+        assertThat(health.getBody()).contains("\"status\":\"DEGRADED\"", "\"connectionPool\"", "\"broker\"");
+
+        ResponseEntity<String> readiness = restTemplate.getForEntity("/actuator/health/readiness", String.class);
+        assertThat(readiness.getStatusCode().value()).isEqualTo(200);
+        assertThat(readiness.getBody()).contains("\"status\":\"DEGRADED\"");
+
+        ResponseEntity<String> liveness = restTemplate.getForEntity("/livez", String.class);
+        assertThat(liveness.getStatusCode().value()).isEqualTo(200);
+        assertThat(liveness.getBody()).contains("\"status\":\"UP\"");
+    }
+
+    @Test
+    void startupTimeIsNotSchedulerLag() throws InterruptedException {
+        HealthProbeService service = new HealthProbeService(mock(DataSource.class), new SyncTaskExecutor(),
+                new SyncTaskExecutor(), new SyncTaskExecutor(), 5000, 10, 250, 0.8, 5, 50, 30000, 1000, 10000,
+                new File("."), DataSize.ofGigabytes(1), DataSize.ofMegabytes(100));
+        Thread.sleep(200); // a slow startup, longer than the 50ms degraded threshold
+
+        assertThat(service.probeScheduler().getStatus()).isEqualTo(Status.UP);
+        service.onApplicationReady();
+        assertThat(service.probeScheduler().getStatus()).isEqualTo(Status.UP);
+        assertThat(service.getHealth(HealthProbeService.SCHEDULER).getStatus()).isEqualTo(Status.UP);
+
+        Thread.sleep(200); // no heartbeat since the application became ready
+        assertThat(service.probeScheduler().getStatus()).isEqualTo(HealthProbeService.DEGRADED);
+    }
+}
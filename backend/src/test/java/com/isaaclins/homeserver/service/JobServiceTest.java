@@ -0,0 +1,225 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.Job;
+import com.isaaclins.homeserver.repository.JobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Jobs are claimed from the queue, retried with backoff and deduplicated
+ * while queued or running; a running job's lease is renewed, and a worker
+ * that outlives its lease cannot overwrite the next attempt; the hourly
+ * cleanups run as jobs.
+ */
+@SpringBootTest(properties = {
+        // Own database: this instance must be the leader, and requeueing leases must not touch other contexts' jobs
+        "spring.datasource.url=jdbc:h2:mem:job-test;DB_CLOSE_DELAY=-1",
+        "jobs.poll-interval-ms=50",
+        "jobs.retry-backoff-ms=10",
+        "jobs.heartbeat-ms=50"
+})
+@ActiveProfiles("test")
+class JobServiceTest {
+
+    private static final String FLAKY = "test-flaky";
+    private static final String BLOCKING = "test-blocking";
+    private static final String STALE = "test-stale";
+    private static final String LONG = "test-long";
+
+    private static final AtomicInteger flakyCalls = new AtomicInteger();
+    private static final CountDownLatch started = new CountDownLatch(1);
+    private static final CountDownLatch release = new CountDownLatch(1);
+    private static final AtomicInteger staleCalls = new AtomicInteger();
+    private static final CountDownLatch staleStarted = new CountDownLatch(1);
+    private static final CountDownLatch staleRelease = new CountDownLatch(1);
+    private static final CountDownLatch longStarted = new CountDownLatch(1);
+    private static final CountDownLatch longRelease = new CountDownLatch(1);
+
+    @TestConfiguration
+    static class Handlers {
+
+        @Bean
+        JobHandler flakyJobHandler() {
+            return new JobHandler() {
+                @Override
+                public String getType() {
+                    return FLAKY;
+                }
+
+                @Override
+                public void handle(Job job) {
+                    if (flakyCalls.incrementAndGet() < 3) {
+                        throw new IllegalStateException("Not yet");
+                    }
+                }
+            };
+        }
+
+        @Bean
+        JobHandler blockingJobHandler() {
+            return new JobHandler() {
+                @Override
+                public String getType() {
+                    return BLOCKING;
+                }
+
+                @Override
+                public void handle(Job job) throws InterruptedException {
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+            };
+        }
+
+        @Bean
+        JobHandler staleJobHandler() {
+            return new JobHandler() {
+                @Override
+                public String getType() {
+                    return STALE;
+                }
+
+                @Override
+                public void handle(Job job) throws InterruptedException {
+                    // The first attempt hangs past its lease; the requeued one succeeds
+                    if (staleCalls.incrementAndGet() == 1) {
+                        staleStarted.countDown();
+                        staleRelease.await(10, TimeUnit.SECONDS);
+                        throw new IllegalStateException("Finished too late");
+                    }
+                }
+            };
+        }
+
+        @Bean
+        JobHandler longJobHandler() {
+            return new JobHandler() {
+                @Override
+                public String getType() {
+                    return LONG;
+                }
+
+                @Override
+                public void handle(Job job) throws InterruptedException {
+                    longStarted.countDown();
+                    longRelease.await(10, TimeUnit.SECONDS);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void retriesFailedJobsUntilTheySucceed() throws InterruptedException {
+        Job job = jobService.enqueue(FLAKY, "payload");
+
+        Job finished = awaitFinished(job.getId());
+
+        assertThat(finished.getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+        assertThat(finished.getAttempts()).isEqualTo(3);
+        assertThat(meterRegistry.find("jobs.completed").tags("type", FLAKY, "outcome", "retried").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.find("jobs.execution").tag("type", FLAKY).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void deduplicatesUntilTheJobFinishes() throws InterruptedException {
+        Job first = jobService.enqueue(BLOCKING, null, JobService.DEFAULT_PRIORITY, "only-one");
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(jobService.enqueue(BLOCKING, null, JobService.DEFAULT_PRIORITY, "only-one").getId())
+                .isEqualTo(first.getId());
+
+        release.countDown();
+        assertThat(awaitFinished(first.getId()).getDedupKey()).isNull();
+        assertThat(jobService.enqueue(BLOCKING, null, JobService.DEFAULT_PRIORITY, "only-one").getId())
+                .isNotEqualTo(first.getId());
+    }
+
+    @Test
+    void staleWorkerCannotOverwriteTheRequeuedAttempt() throws InterruptedException {
+        Job job = jobService.enqueue(STALE, null);
+        assertThat(staleStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Pretend the lease ran out while the first attempt is still running
+        jobRepository.releaseExpiredLeases(LocalDateTime.now().plusMinutes(1));
+        Job finished = awaitFinished(job.getId());
+        staleRelease.countDown();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.find("jobs.completed").tags("type", STALE, "outcome", "lease-lost").counter() == null) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        Job after = jobRepository.findById(job.getId()).orElseThrow();
+        assertThat(finished.getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+        assertThat(after.getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+        assertThat(after.getAttempts()).isEqualTo(2);
+        assertThat(after.getLastError()).isNull();
+        assertThat(meterRegistry.find("jobs.completed").tags("type", STALE, "outcome", "retried").counter())
+                .isNull();
+    }
+
+    @Test
+    void runningJobsKeepTheirLease() throws InterruptedException {
+        Job job = jobService.enqueue(LONG, null);
+        assertThat(longStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Longer than the claim is old, but the heartbeat renewed the lease since
+        Thread.sleep(500);
+        assertThat(jobRepository.releaseExpiredLeases(LocalDateTime.now().minus(Duration.ofMillis(300)))).isZero();
+
+        longRelease.countDown();
+        Job finished = awaitFinished(job.getId());
+        assertThat(finished.getStatus()).isEqualTo(Job.Status.SUCCEEDED);
+        assertThat(finished.getAttempts()).isEqualTo(1);
+        assertThat(finished.getHeartbeatAt()).isAfter(finished.getStartedAt());
+    }
+
+    @Test
+    void runsCleanupsAsRecurringJobs() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!succeeded(RequestLogCleanupJob.TYPE) || !succeeded(MetricsCleanupJob.TYPE)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private boolean succeeded(String type) {
+        return jobRepository.findAll().stream()
+                .anyMatch(job -> job.getType().equals(type) && job.getStatus() == Job.Status.SUCCEEDED);
+    }
+
+    private Job awaitFinished(Long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            Job job = jobRepository.findById(id).orElseThrow();
+            if (job.getStatus() == Job.Status.SUCCEEDED || job.getStatus() == Job.Status.FAILED) {
+                return job;
+            }
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.LeaderLease;
+import com.isaaclins.homeserver.repository.LeaderLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two candidates competing for one lease: only the holder runs fenced work,
+ * a takeover raises the fencing token, and a replaced leader's work is
+ * refused even before it notices.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaderElectionServiceTest {
+
+    @Autowired
+    private LeaderLeaseRepository leaseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void onlyTheLeaseHolderRunsFencedWork() {
+        LeaderElectionService a = candidate("a", "test-lease-single");
+        LeaderElectionService b = candidate("b", "test-lease-single");
+        AtomicInteger runs = new AtomicInteger();
+
+        a.renew();
+        b.renew();
+
+        assertThat(a.isLeader()).isTrue();
+        assertThat(b.isLeader()).isFalse();
+        assertThat(a.runIfLeader(runs::incrementAndGet)).isTrue();
+        assertThat(b.runIfLeader(runs::incrementAndGet)).isFalse();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void releasedLeaseIsTakenOverWithAHigherToken() {
+        LeaderElectionService a = candidate("a", "test-lease-release");
+        LeaderElectionService b = candidate("b", "test-lease-release");
+        a.renew();
+        long firstTerm = a.getFencingToken();
+
+        a.stop();
+        b.renew();
+
+        assertThat(a.isLeader()).isFalse();
+        assertThat(b.isLeader()).isTrue();
+        assertThat(b.getFencingToken()).isGreaterThan(firstTerm);
+    }
+
+    @Test
+    void replacedLeaderIsFencedOff() {
+        LeaderElectionService a = candidate("a", "test-lease-fencing");
+        LeaderElectionService b = candidate("b", "test-lease-fencing");
+        a.renew();
+
+        // a stalls past its lease (say a long GC pause) and b takes over
+        LeaderLease lease = leaseRepository.findById("test-lease-fencing").orElseThrow();
+        lease.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        leaseRepository.save(lease);
+        b.renew();
+
+        assertThat(a.isLeader()).isTrue(); // a has not renewed yet, so it still thinks it leads
+        assertThat(a.runIfLeader(() -> { })).isFalse();
+        assertThat(b.runIfLeader(() -> { })).isTrue();
+
+        a.renew();
+        assertThat(a.isLeader()).isFalse();
+    }
+
+    private LeaderElectionService candidate(String node, String lease) {
+        return new LeaderElectionService(leaseRepository, transactionTemplate, new NodeIdentity(node),
+                new SimpleMeterRegistry(), lease, 15_000, 5_000);
+    }
+}
@@ -0,0 +1,199 @@
+package com.isaaclins.homeserver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isaaclins.homeserver.dto.ChatMessage;
+import com.isaaclins.homeserver.dto.ChatRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Chats stream from a fake Ollama server to their user's STOMP destination,
+ * in order, within the per-model concurrency and queue limits.
+ */
+@SpringBootTest(properties = {
+        "ollama.max-concurrent-per-model=1",
+        "ollama.max-queued-per-model=1",
+        "ollama.models=llama-stream,llama-queue,missing,lane-a,lane-b,lane-c",
+        "ollama.max-models=2"
+})
+@ActiveProfiles("test")
+class OllamaChatServiceTest {
+
+    private static final FakeOllamaServer ollama = startOllama();
+
+    @DynamicPropertySource
+    static void ollamaUrl(DynamicPropertyRegistry registry) {
+        registry.add("ollama.base-url", ollama::baseUrl);
+    }
+
+    @AfterAll
+    static void stopOllama() {
+        ollama.close();
+    }
+
+    @Autowired
+    private OllamaChatService chatService;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private SubscribableChannel brokerChannel;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<JsonNode>> events = new ConcurrentHashMap<>();
+    private MessageHandler handler;
+
+    @BeforeEach
+    void captureChatEvents() {
+        handler = message -> {
+            // Sent as /user/{username}/queue/chat/{chatId}; no session is connected to resolve it further
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            int chatPath = destination != null && destination.startsWith("/user/")
+                    ? destination.indexOf(OllamaChatService.DESTINATION_PREFIX) : -1;
+            if (chatPath > 0) {
+                try {
+                    events.computeIfAbsent(destination.substring(chatPath + OllamaChatService.DESTINATION_PREFIX.length()),
+                            id -> new CopyOnWriteArrayList<>()).add(objectMapper.readTree((byte[]) message.getPayload()));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        brokerChannel.subscribe(handler);
+    }
+
+    @AfterEach
+    void stopCapturing() {
+        brokerChannel.unsubscribe(handler);
+    }
+
+    @Test
+    void streamsTokensInOrderAndRecordsMetrics() throws InterruptedException {
+        String chatId = chatService.submit(request("stream-test-1", "llama-stream"), "alice");
+
+        List<JsonNode> received = awaitLast(chatId);
+
+        StringBuilder reply = new StringBuilder();
+        for (int i = 0; i < received.size(); i++) {
+            assertThat(received.get(i).get("seq").asInt()).isEqualTo(i);
+            if ("token".equals(received.get(i).get("type").asText())) {
+                reply.append(received.get(i).get("content").asText());
+            }
+        }
+        assertThat(reply.toString()).isEqualTo(FakeOllamaServer.REPLY);
+        JsonNode done = received.get(received.size() - 1);
+        assertThat(done.get("type").asText()).isEqualTo("done");
+        assertThat(done.get("tokensPerSecond").asDouble()).isPositive();
+
+        assertThat(meterRegistry.find("ollama.chat.time.to.first.token").tag("model", "llama-stream")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("ollama.chat.tokens.per.second").tag("model", "llama-stream")
+                .summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void queuesBeyondTheConcurrencyLimitAndRejectsOverflow() throws InterruptedException {
+        String first = chatService.submit(request("queue-test-1", "llama-queue"), "alice");
+        String second = chatService.submit(request("queue-test-2", "llama-queue"), "bob");
+        assertThatThrownBy(() -> chatService.submit(request("queue-test-3", "llama-queue"), "carol"))
+                .isInstanceOf(OllamaChatService.QueueFullException.class);
+
+        assertThat(awaitLast(first).get(0).get("type").asText()).isEqualTo("token");
+        List<JsonNode> queued = awaitLast(second);
+        assertThat(queued.get(0).get("type").asText()).isEqualTo("queued");
+        assertThat(queued.get(0).get("position").asInt()).isEqualTo(1);
+        assertThat(queued.get(queued.size() - 1).get("type").asText()).isEqualTo("done");
+    }
+
+    @Test
+    void reportsOllamaErrorsToTheChat() throws InterruptedException {
+        String chatId = chatService.submit(request("error-test-1", FakeOllamaServer.MISSING_MODEL), "alice");
+
+        JsonNode error = awaitLast(chatId).get(0);
+
+        assertThat(error.get("type").asText()).isEqualTo("error");
+        assertThat(error.get("message").asText()).contains("not found");
+    }
+
+    @Test
+    void limitsModelsToTheAllowlistAndTheLaneCap() throws InterruptedException {
+        assertThatThrownBy(() -> chatService.submit(request("lane-test-0", "not-listed"), "alice"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        awaitIdleLanes();
+        String a = chatService.submit(request("lane-test-a", "lane-a"), "alice");
+        String b = chatService.submit(request("lane-test-b", "lane-b"), "alice");
+        assertThatThrownBy(() -> chatService.submit(request("lane-test-c1", "lane-c"), "alice"))
+                .isInstanceOf(OllamaChatService.QueueFullException.class);
+        awaitLast(a);
+        awaitLast(b);
+        awaitIdleLanes();
+
+        String c = chatService.submit(request("lane-test-c2", "lane-c"), "alice");
+
+        List<JsonNode> received = awaitLast(c);
+        assertThat(received.get(received.size() - 1).get("type").asText()).isEqualTo("done");
+        assertThat(meterRegistry.find("ollama.chat.active").tag("model", "lane-c").gauge()).isNotNull();
+        assertThat(meterRegistry.find("ollama.chat.active").tags("model", "lane-a").gauge()).isNull();
+    }
+
+    private static ChatRequest request(String chatId, String model) {
+        return new ChatRequest(chatId, model, List.of(new ChatMessage("user", "Say hello")));
+    }
+
+    private List<JsonNode> awaitLast(String chatId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            List<JsonNode> received = events.getOrDefault(chatId, List.of());
+            if (!received.isEmpty()) {
+                String type = received.get(received.size() - 1).get("type").asText();
+                if (type.equals("done") || type.equals("error")) {
+                    return received;
+                }
+            }
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    // A lane frees its slot just after publishing the chat's last event
+    private void awaitIdleLanes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.find("ollama.chat.active").gauges().stream().anyMatch(g -> g.value() > 0)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static FakeOllamaServer startOllama() {
+        try {
+            return new FakeOllamaServer(20);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.RegistrationCode;
+import com.isaaclins.homeserver.repository.RegistrationCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory registration code store against the H2 test database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RegistrationCodeServiceTest {
+
+    @Autowired
+    private RegistrationCodeService codeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void batchGeneratesUniquePersistedCodesThatCanBeConsumedOnce() {
+        List<RegistrationCode> generated = new ArrayList<>();
+        codeService.generateCodes(2500, Duration.ofMinutes(5), 8, generated::addAll);
+
+        Set<String> codes = new HashSet<>();
+        generated.forEach(c -> codes.add(c.getCode()));
+        assertThat(codes).hasSize(2500).allSatisfy(c -> assertThat(c).hasSize(8).containsOnlyDigits());
+
+        Integer persisted = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM registration_codes WHERE LENGTH(code) = 8", Integer.class);
+        assertThat(persisted).isEqualTo(2500);
+
+        String code = generated.get(0).getCode();
+        assertThat(codeService.consumeCode(code)).isTrue();
+        assertThat(codeService.consumeCode(code)).isFalse();
+
+        codes.forEach(codeService::consumeCode);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM registration_codes WHERE LENGTH(code) = 8", Integer.class)).isZero();
+    }
+
+    @Test
+    void failedRowByRowFallbackKeepsWrittenCodesAndReleasesTheRest() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        TransactionTemplate transactions = mock(TransactionTemplate.class);
+        ClusterEvents clusterEvents = mock(ClusterEvents.class);
+        RegistrationCodeService service = new RegistrationCodeService(
+                mock(RegistrationCodeRepository.class), jdbc, transactions, clusterEvents);
+        doThrow(new DataIntegrityViolationException("duplicate code")).when(transactions).executeWithoutResult(any());
+        when(jdbc.update(anyString(), any(Object[].class)))
+                .thenReturn(1)
+                .thenReturn(1)
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> service.generateCodes(5, Duration.ofMinutes(5), 8, batch -> { }))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(service.listActiveCodes()).hasSize(2);
+    }
+}
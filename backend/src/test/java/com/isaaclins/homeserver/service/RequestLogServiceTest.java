@@ -0,0 +1,90 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.RequestLog;
+import com.isaaclins.homeserver.repository.RequestLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buffered request-log ingestion: entries are queued and written in batches
+ * with sequence-allocated ids, and a failed batch is retried rather than lost.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RequestLogServiceTest {
+
+    private static final String USERNAME = "batch-log-test";
+
+    @Autowired
+    private RequestLogService requestLogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM request_logs WHERE username = ?", USERNAME);
+    }
+
+    @Test
+    void buffersRequestLogsAndWritesThemInBatches() {
+        int rows = 2500;
+        for (int i = 0; i < rows; i++) {
+            requestLogService.logRequest(USERNAME, "GET", "/api/items/" + i, 200, 3L, "test", "127.0.0.1");
+        }
+
+        requestLogService.flushPendingLogs();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM request_logs WHERE username = ?", Long.class, USERNAME))
+                .isEqualTo(rows);
+        assertThat(requestLogService.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void retriesFailedBatchesAndDropsOnlyRowsThatCannotBeWritten() {
+        RequestLogRepository repository = mock(RequestLogRepository.class);
+        List<String> stored = new ArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        when(repository.insertAll(any())).thenAnswer(invocation -> {
+            Iterable<RequestLog> rows = invocation.getArgument(0);
+            List<String> endpoints = new ArrayList<>();
+            rows.forEach(row -> endpoints.add(row.getEndpoint()));
+            if (calls.incrementAndGet() == 1) {
+                throw new QueryTimeoutException("lock wait timeout");
+            }
+            if (endpoints.contains("/bad")) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            stored.addAll(endpoints);
+            return endpoints.size();
+        });
+        RequestLogService service = new RequestLogService(repository, mock(SimpMessagingTemplate.class),
+                mock(FilteredRequestLogPublisher.class), mock(ArchiveService.class), 100, 10, 0);
+        for (String endpoint : List.of("/a", "/bad", "/b")) {
+            service.logRequest(USERNAME, "GET", endpoint, 200, 1L, "test", "127.0.0.1");
+        }
+
+        assertThat(service.flushPendingLogs()).isZero(); // transient failure: kept for the next tick
+        assertThat(service.flushPendingLogs()).isEqualTo(2); // rejected as a batch, then row by row
+
+        assertThat(stored).containsExactly("/a", "/b");
+        assertThat(service.getDroppedCount()).isEqualTo(1);
+    }
+}
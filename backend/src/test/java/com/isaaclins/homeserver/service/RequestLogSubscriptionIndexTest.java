@@ -0,0 +1,96 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.RequestLogFilter;
+import com.isaaclins.homeserver.entity.RequestLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for filtered request-log subscriptions: the index must select
+ * exactly the subscriptions whose filter accepts an event, and subscriptions
+ * with equal filters share one group.
+ */
+class RequestLogSubscriptionIndexTest {
+
+    private static final String[] USERS = { "alice", "bob", "carol" };
+    private static final String[] ROUTES = { "/api", "/api/users", "/api/admin", "/health" };
+
+    @Test
+    void matchesExactlyWhatEvaluatingEveryFilterMatches() {
+        Random random = new Random(7);
+        RequestLogSubscriptionIndex index = new RequestLogSubscriptionIndex();
+        List<RequestLogFilter> filters = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            RequestLogFilter filter = new RequestLogFilter(
+                    random.nextBoolean() ? 0 : (1 << (2 + random.nextInt(4))) | (1 << (2 + random.nextInt(4))),
+                    random.nextInt(3) == 0 ? USERS[random.nextInt(USERS.length)] : null,
+                    random.nextInt(3) == 0 ? ROUTES[random.nextInt(ROUTES.length)] : null,
+                    random.nextInt(3) == 0 ? (long) random.nextInt(300) : null);
+            filters.add(filter);
+            index.subscribe("session" + i, "sub" + i, filter);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            RequestLog event = event(USERS[random.nextInt(USERS.length)],
+                    ROUTES[random.nextInt(ROUTES.length)] + "/" + random.nextInt(5),
+                    100 * (2 + random.nextInt(4)) + random.nextInt(5), (long) random.nextInt(400));
+
+            Set<String> expected = new HashSet<>();
+            for (int f = 0; f < filters.size(); f++) {
+                if (filters.get(f).matches(event)) {
+                    expected.add("session" + f);
+                }
+            }
+            Set<String> actual = new HashSet<>();
+            index.match(event).forEach(group -> group.getSubscribers().forEach(s -> actual.add(s.getSessionId())));
+
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void groupsEqualFiltersAndForgetsClosedSessions() {
+        RequestLogSubscriptionIndex index = new RequestLogSubscriptionIndex();
+        RequestLogFilter serverErrors = RequestLogFilter.fromHeaders(Map.of("status", "5xx")::get);
+        index.subscribe("a", "sub-1", serverErrors);
+        index.subscribe("b", "sub-1", RequestLogFilter.fromHeaders(Map.of("status", "5XX")::get));
+        index.subscribe("b", "sub-2", RequestLogFilter.fromHeaders(Map.of("username", "alice")::get));
+
+        assertThat(index.groupCount()).isEqualTo(2);
+        List<RequestLogSubscriptionIndex.FilterGroup> matched = index.match(event("alice", "/api/users", 503, 10L));
+        assertThat(matched).hasSize(2);
+        assertThat(matched).filteredOn(g -> g.getFilter().equals(serverErrors)).singleElement()
+                .satisfies(g -> assertThat(g.getSubscribers()).hasSize(2));
+
+        index.unsubscribe("b", "sub-2");
+        index.removeSession("a");
+
+        assertThat(index.match(event("alice", "/api/users", 200, 10L))).isEmpty();
+        assertThat(index.match(event("bob", "/api", 500, 10L))).singleElement()
+                .satisfies(g -> assertThat(g.getSubscribers()).containsExactly(
+                        new RequestLogSubscriptionIndex.Subscriber("b", "sub-1")));
+    }
+
+    @Test
+    void rejectsMalformedFilterHeaders() {
+        assertThatThrownBy(() -> RequestLogFilter.fromHeaders(Map.of("status", "6xx")::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RequestLogFilter.fromHeaders(Map.of("min-latency-ms", "fast")::get))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RequestLog event(String username, String endpoint, int status, Long latency) {
+        return new RequestLog(null, LocalDateTime.now(), username, "GET", endpoint, status, latency,
+                "test", "127.0.0.1", null, null);
+    }
+}
@@ -0,0 +1,65 @@
+package com.isaaclins.homeserver.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests land in minute and hour windows; summaries merge only the windows
+ * inside the requested span, and old windows are reused.
+ */
+class TrafficSketchServiceTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long NOW = 1_000 * HOUR + 30 * MINUTE;
+
+    private final TrafficSketchService service = new TrafficSketchService(16, 10, 60, 24);
+
+    @Test
+    void mergesTheRequestedMinutes() {
+        service.record("GET /api/users", "10.0.0.1", "alice", NOW - 10 * MINUTE);
+        service.record("GET /api/users", "10.0.0.2", "bob", NOW - MINUTE);
+        service.record("POST /api/auth/login", "10.0.0.2", "anonymous", NOW);
+
+        TrafficSketchService.TrafficSummary lastFive = service.getSummary(5, 10, NOW);
+        assertThat(lastFive.requests()).isEqualTo(2);
+        assertThat(lastFive.uniqueUsers()).isEqualTo(1); // anonymous is not a user
+        assertThat(lastFive.uniqueIps()).isEqualTo(1);
+
+        TrafficSketchService.TrafficSummary lastHour = service.getSummary(60, 10, NOW);
+        assertThat(lastHour.requests()).isEqualTo(3);
+        assertThat(lastHour.uniqueUsers()).isEqualTo(2);
+        assertThat(lastHour.uniqueIps()).isEqualTo(2);
+        assertThat(lastHour.topRoutes().get(0).item()).isEqualTo("GET /api/users");
+        assertThat(lastHour.topRoutes().get(0).count()).isEqualTo(2);
+        assertThat(lastHour.topIps().get(0).item()).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    void reportsEachHourSeparately() {
+        service.record("GET /api/users", "10.0.0.1", "alice", NOW - 2 * HOUR);
+        service.record("GET /api/users", "10.0.0.1", "alice", NOW);
+        service.record("GET /api/users", "10.0.0.2", "bob", NOW);
+
+        List<TrafficSketchService.HourlyTraffic> hourly = service.getHourly(3, NOW);
+
+        assertThat(hourly).extracting(TrafficSketchService.HourlyTraffic::requests).containsExactly(1L, 0L, 2L);
+        assertThat(hourly.get(2).uniqueUsers()).isEqualTo(2);
+        assertThat(hourly.get(2).hour()).isEqualTo(Instant.ofEpochMilli(1_000 * HOUR));
+    }
+
+    @Test
+    void windowsOlderThanTheRingAreForgotten() {
+        service.record("GET /api/old", "10.0.0.1", "alice", NOW - 60 * MINUTE);
+        service.record("GET /api/new", "10.0.0.1", "alice", NOW); // reuses the old minute's slot
+
+        TrafficSketchService.TrafficSummary summary = service.getSummary(60, 10, NOW);
+
+        assertThat(summary.requests()).isEqualTo(1);
+        assertThat(summary.topRoutes()).extracting(e -> e.item()).containsExactly("GET /api/new");
+    }
+}
@@ -0,0 +1,75 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.UserImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trip test for the bulk user import/export against the H2 test database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserBulkServiceTest {
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'bulk%'");
+    }
+
+    @Test
+    void importsValidRowsAndReportsEachFailure() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"username\":\"bulk1\",\"email\":\"bulk1@example.com\",\"password\":\"password123\"}",
+                "{\"username\":\"bulk2\",\"email\":\"not-an-email\",\"password\":\"password123\"}",
+                "{\"username\":\"bulk1\",\"email\":\"bulk1b@example.com\",\"password\":\"password123\"}",
+                "not json",
+                "{\"username\":\"bulk3\",\"email\":\"bulk3@example.com\",\"password\":\"password123\"}");
+
+        List<UserImportResult> results = new ArrayList<>();
+        Map<String, Long> summary = userBulkService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                UserBulkService.Format.NDJSON, results::add);
+
+        assertThat(summary).containsEntry(UserImportResult.CREATED, 2L)
+                .containsEntry(UserImportResult.INVALID, 2L)
+                .containsEntry(UserImportResult.CONFLICT, 1L);
+        assertThat(results).filteredOn(r -> r.getStatus().equals(UserImportResult.CREATED))
+                .allSatisfy(r -> assertThat(r.getId()).isNotNull());
+
+        // Re-importing the same user conflicts with the existing row; a quoted field may span lines
+        String csv = "username,email,password\nbulk3,bulk3@example.com,password123\n"
+                + "bulk4,bulk4@example.com,\"multi\nline pass\"\n";
+        List<UserImportResult> csvResults = new ArrayList<>();
+        Map<String, Long> again = userBulkService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                UserBulkService.Format.CSV, csvResults::add);
+        assertThat(again).containsEntry(UserImportResult.CONFLICT, 1L).containsEntry(UserImportResult.CREATED, 1L);
+        assertThat(csvResults).extracting(UserImportResult::getLine).containsExactly(2L, 3L);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userBulkService.exportUsers(UserBulkService.Format.CSV, out);
+        String exported = out.toString(StandardCharsets.UTF_8);
+        assertThat(exported).startsWith("id,username,email,isAdmin,createdAt\n");
+        assertThat(exported).contains(",bulk1,bulk1@example.com,").contains(",bulk3,bulk3@example.com,");
+        assertThat(exported).doesNotContain("password123");
+    }
+}
@@ -0,0 +1,69 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the user read-through cache: index consistency on renames,
+ * copy semantics, LRU bounding and hit/miss counting.
+ */
+class UserCacheTest {
+
+    private static User user(long id, String username, String email) {
+        return new User(id, username, email, "password123", LocalDateTime.now(), false);
+    }
+
+    @Test
+    void renameDropsOldIndexKeys() {
+        UserCache cache = new UserCache(10, 300, new SimpleMeterRegistry());
+        cache.put(user(1, "alice", "alice@example.com"));
+        cache.put(user(1, "alice2", "alice2@example.com"));
+
+        assertThat(cache.getByUsername("alice")).isEmpty();
+        assertThat(cache.getByEmail("alice@example.com")).isEmpty();
+        assertThat(cache.getByUsername("alice2")).map(User::getId).contains(1L);
+        assertThat(cache.getByEmail("alice2@example.com")).map(User::getId).contains(1L);
+    }
+
+    @Test
+    void returnedUsersAreCopies() {
+        UserCache cache = new UserCache(10, 300, new SimpleMeterRegistry());
+        cache.put(user(1, "alice", "alice@example.com"));
+
+        cache.getById(1L).ifPresent(u -> u.setUsername("mutated"));
+
+        assertThat(cache.getById(1L)).map(User::getUsername).contains("alice");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        UserCache cache = new UserCache(2, 300, new SimpleMeterRegistry());
+        cache.put(user(1, "alice", "alice@example.com"));
+        cache.put(user(2, "bob", "bob@example.com"));
+        cache.getById(1L);
+        cache.put(user(3, "carol", "carol@example.com"));
+
+        assertThat(cache.getById(2L)).isEmpty();
+        assertThat(cache.getByUsername("bob")).isEmpty();
+        assertThat(cache.getById(1L)).isPresent();
+        assertThat(cache.getById(3L)).isPresent();
+        assertThat(cache.getStats()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void usernameOrEmailLookupCountsOnce() {
+        UserCache cache = new UserCache(10, 300, new SimpleMeterRegistry());
+        cache.put(user(1, "alice", "alice@example.com"));
+
+        assertThat(cache.getByUsernameOrEmail("alice")).map(User::getId).contains(1L);
+        assertThat(cache.getByUsernameOrEmail("alice@example.com")).map(User::getId).contains(1L);
+        assertThat(cache.getByUsernameOrEmail("nobody")).isEmpty();
+
+        assertThat(cache.getStats()).containsEntry("hits", 2L).containsEntry("misses", 1L);
+    }
+}
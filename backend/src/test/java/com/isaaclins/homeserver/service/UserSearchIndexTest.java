@@ -0,0 +1,81 @@
+package com.isaaclins.homeserver.service;
+
+import com.isaaclins.homeserver.dto.UserCursor;
+import com.isaaclins.homeserver.dto.UserSummary;
+import com.isaaclins.homeserver.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A rebuild swaps in a complete index: searches running meanwhile never see
+ * it half filled, and writes made while it loads are kept.
+ */
+class UserSearchIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSearchIndex index = new UserSearchIndex(userRepository);
+
+    @Test
+    void searchesDuringARebuildSeeAWholeIndex() throws InterruptedException {
+        List<UserSummary> users = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            users.add(summary(id, "user" + id));
+        }
+        when(userRepository.findSummaryPage(any(UserCursor.SortField.class), anyBoolean(), any(), anyInt()))
+                .thenReturn(users);
+        index.rebuild();
+
+        AtomicBoolean rebuilding = new AtomicBoolean(true);
+        AtomicInteger shortResults = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (rebuilding.get()) {
+                if (index.search("user", 20).size() < 20) {
+                    shortResults.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200; i++) {
+            index.rebuild();
+        }
+        rebuilding.set(false);
+        reader.join();
+
+        assertThat(shortResults).hasValue(0);
+        assertThat(index.size()).isEqualTo(500);
+    }
+
+    @Test
+    void writesWhileLoadingWinOverTheLoadedRows() {
+        when(userRepository.findSummaryPage(any(UserCursor.SortField.class), anyBoolean(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    // Another request updates and deletes users while the page is being read
+                    index.put(summary(1L, "renamed"));
+                    index.remove(2L);
+                    return List.of(summary(1L, "alice"), summary(2L, "bob"), summary(3L, "carol"));
+                });
+
+        index.rebuild();
+
+        assertThat(index.search("renamed", 10)).extracting(UserSummary::getId).containsExactly(1L);
+        assertThat(index.search("alice", 10)).isEmpty();
+        assertThat(index.search("bob", 10)).isEmpty();
+        assertThat(index.search("carol", 10)).extracting(UserSummary::getId).containsExactly(3L);
+    }
+
+    private static UserSummary summary(Long id, String username) {
+        return new UserSummary(id, username, username + "@search.test", false, LocalDateTime.now());
+    }
+}
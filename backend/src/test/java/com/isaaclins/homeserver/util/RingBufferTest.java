@@ -0,0 +1,90 @@
+package com.isaaclins.homeserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the lock-free ring buffer: FIFO order, rejection when full,
+ * slot reuse across laps and no lost or duplicated elements under
+ * concurrent producers.
+ */
+class RingBufferTest {
+
+    @Test
+    void keepsFifoOrderAndRejectsWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3); // rounded up to 4
+
+        assertThat(buffer.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(List.of(buffer.poll(), buffer.poll(), buffer.poll(), buffer.poll())).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void concurrentProducersNeitherLoseNorDuplicateElements() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        rejected.incrementAndGet();
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        boolean[] seen = new boolean[producers * perProducer];
+        int[] lastPerProducer = new int[producers];
+        Arrays.fill(lastPerProducer, -1);
+        start.countDown();
+        int received = 0;
+        while (received < seen.length) {
+            Integer value = buffer.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            assertThat(seen[value]).isFalse();
+            seen[value] = true;
+            // Each producer's elements come out in the order it offered them
+            int producer = value / perProducer;
+            assertThat(value % perProducer).isGreaterThan(lastPerProducer[producer]);
+            lastPerProducer[producer] = value % perProducer;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(buffer.poll()).isNull();
+    }
+}
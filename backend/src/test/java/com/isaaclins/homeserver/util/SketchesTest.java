@@ -0,0 +1,86 @@
+package com.isaaclins.homeserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for the traffic sketches: Space-Saving keeps the heavy hitters
+ * with bounded overestimates, and HyperLogLog stays within its error bound
+ * and merges like a union.
+ */
+class SketchesTest {
+
+    @Test
+    void spaceSavingFindsHeavyHittersInALongTail() {
+        SpaceSaving sketch = new SpaceSaving(16);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 10 < 3) {
+                sketch.offer("hot-" + (i % 3)); // 10% each
+            } else {
+                sketch.offer("tail-" + random.nextInt(50_000));
+            }
+        }
+
+        List<SpaceSaving.Entry> top = sketch.top(3);
+        assertThat(top).extracting(SpaceSaving.Entry::item).containsExactlyInAnyOrder("hot-0", "hot-1", "hot-2");
+        for (SpaceSaving.Entry entry : top) {
+            assertThat(entry.count()).isGreaterThanOrEqualTo(10_000);
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(10_000);
+        }
+        assertThat(sketch.getTotal()).isEqualTo(100_000);
+    }
+
+    @Test
+    void mergedSpaceSavingCountsBothStreams() {
+        SpaceSaving a = new SpaceSaving(8);
+        SpaceSaving b = new SpaceSaving(8);
+        for (int i = 0; i < 500; i++) {
+            a.offer("GET /api/users");
+            b.offer("GET /api/users");
+            b.offer("POST /api/auth/login");
+        }
+
+        a.merge(b);
+
+        assertThat(a.top(2)).containsExactly(
+                new SpaceSaving.Entry("GET /api/users", 1000, 0),
+                new SpaceSaving.Entry("POST /api/auth/login", 500, 0));
+        assertThat(a.getTotal()).isEqualTo(1500);
+    }
+
+    @Test
+    void hyperLogLogEstimatesWithinItsErrorBound() {
+        HyperLogLog small = new HyperLogLog(12);
+        HyperLogLog large = new HyperLogLog(12);
+        for (int i = 0; i < 1_000; i++) {
+            small.add("10.0.0." + i);
+            small.add("10.0.0." + i); // duplicates don't count
+        }
+        for (int i = 0; i < 1_000_000; i++) {
+            large.add("user-" + i);
+        }
+
+        assertThat((double) small.estimate()).isCloseTo(1_000, within(20.0));
+        assertThat((double) large.estimate()).isCloseTo(1_000_000, within(50_000.0));
+    }
+
+    @Test
+    void mergedHyperLogLogCountsTheUnion() {
+        HyperLogLog a = new HyperLogLog(12);
+        HyperLogLog b = new HyperLogLog(12);
+        for (int i = 0; i < 20_000; i++) {
+            a.add("ip-" + i);
+            b.add("ip-" + (i + 10_000)); // half overlaps
+        }
+
+        a.merge(b);
+
+        assertThat((double) a.estimate()).isCloseTo(30_000, within(1_500.0));
+    }
+}
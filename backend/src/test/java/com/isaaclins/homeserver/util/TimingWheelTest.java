@@ -0,0 +1,46 @@
+package com.isaaclins.homeserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the hashed timing wheel: items expire no earlier than their
+ * deadline (including deadlines spanning several wheel rotations) and
+ * cancelled items never expire.
+ */
+class TimingWheelTest {
+
+    @Test
+    void expiresItemsOnlyOnceTheirDeadlineHasPassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("soon", 25);
+        wheel.schedule("later", 95); // more than two rotations of a 4 x 10ms wheel
+
+        assertThat(wheel.advance(20)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly("soon");
+        assertThat(wheel.advance(90)).isEmpty();
+        assertThat(wheel.advance(100)).containsExactly("later");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledItemsDoNotExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        TimingWheel.Timeout<String> first = wheel.schedule("first", 15);
+        wheel.schedule("second", 15);
+
+        assertThat(wheel.cancel(first)).isTrue();
+        assertThat(wheel.cancel(first)).isFalse();
+        assertThat(wheel.advance(20)).containsExactly("second");
+    }
+
+    @Test
+    void pastDeadlinesExpireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        wheel.advance(50);
+        wheel.schedule("overdue", 5);
+
+        assertThat(wheel.advance(60)).containsExactly("overdue");
+    }
+}
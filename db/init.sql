@@ -11,7 +11,8 @@ CREATE TABLE users (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     is_admin BOOLEAN NOT NULL DEFAULT FALSE,
     UNIQUE KEY username_unique (username),
-    UNIQUE KEY email_unique (email)
+    UNIQUE KEY email_unique (email),
+    KEY idx_users_created_at (created_at, id)
 );
 
 DROP TABLE IF EXISTS registration_codes;
@@ -23,7 +24,7 @@ CREATE TABLE registration_codes (
 
 DROP TABLE IF EXISTS system_metrics;
 CREATE TABLE system_metrics (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     timestamp TIMESTAMP NOT NULL,
     cpu_usage DOUBLE NOT NULL,
     gpu_usage DOUBLE NOT NULL,
@@ -31,12 +32,14 @@ CREATE TABLE system_metrics (
     ram_total BIGINT NOT NULL,
     network_bytes_received BIGINT NOT NULL,
     network_bytes_sent BIGINT NOT NULL,
-    INDEX timestamp_idx (timestamp)
+    node_id VARCHAR(255),
+    INDEX timestamp_idx (timestamp),
+    INDEX idx_system_metrics_node_timestamp (node_id, timestamp)
 );
 
 DROP TABLE IF EXISTS request_logs;
 CREATE TABLE request_logs (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     timestamp TIMESTAMP NOT NULL,
     username VARCHAR(255) NOT NULL,
     method VARCHAR(10) NOT NULL,
@@ -45,6 +48,67 @@ CREATE TABLE request_logs (
     response_time_ms BIGINT,
     user_agent TEXT,
     ip_address VARCHAR(45),
+    statement_count INT,
+    db_time_ms BIGINT,
     INDEX timestamp_idx (timestamp),
     INDEX username_idx (username)
 );
+
+-- Id blocks for batched inserts (Hibernate pooled-lo sequence emulation)
+DROP TABLE IF EXISTS system_metrics_seq;
+CREATE TABLE system_metrics_seq (
+    next_val BIGINT
+);
+INSERT INTO system_metrics_seq VALUES (1);
+
+DROP TABLE IF EXISTS request_logs_seq;
+CREATE TABLE request_logs_seq (
+    next_val BIGINT
+);
+INSERT INTO request_logs_seq VALUES (1);
+
+DROP TABLE IF EXISTS revoked_tokens;
+CREATE TABLE revoked_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_id VARCHAR(255) NOT NULL UNIQUE,
+    subject VARCHAR(255),
+    revoked_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Stamped on the primary and read back from a read replica to measure lag
+DROP TABLE IF EXISTS replication_heartbeat;
+CREATE TABLE replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
+
+-- Cluster leader lease (see LeaderElectionService)
+DROP TABLE IF EXISTS leader_leases;
+CREATE TABLE leader_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    holder VARCHAR(255) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Persistent background job queue (see JobService)
+DROP TABLE IF EXISTS jobs;
+CREATE TABLE jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(100) NOT NULL,
+    payload VARCHAR(2000),
+    priority INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    max_attempts INT NOT NULL,
+    dedup_key VARCHAR(255) UNIQUE,
+    run_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP NULL,
+    heartbeat_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    locked_by VARCHAR(255),
+    last_error VARCHAR(2000),
+    INDEX status_run_at_idx (status, run_at)
+);
@@ -109,13 +109,18 @@ export default function DashboardPage() {
     setLoading(true);
     try {
       const api = process.env.NEXT_PUBLIC_API_URL ?? "http://localhost:8080";
-      const res = await fetch(`${api}/api/users`, {
-        headers: { Authorization: `Bearer ${user.token}` }
-      });
-      if (res.ok) {
-        const arr = await res.json();
-        setUsersList(arr);
+      // The list is paged; follow X-Next-Cursor until the last page
+      const all: UserInfo[] = [];
+      let cursor: string | null = "";
+      while (cursor !== null) {
+        const res = await fetch(`${api}/api/users?limit=500&cursor=${encodeURIComponent(cursor)}`, {
+          headers: { Authorization: `Bearer ${user.token}` }
+        });
+        if (!res.ok) return;
+        all.push(...(await res.json()));
+        cursor = res.headers.get("X-Next-Cursor");
       }
+      setUsersList(all);
     } catch (err) {
       console.error(err);
     } finally {
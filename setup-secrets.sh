@@ -66,7 +66,7 @@ JWT_SECRET=${JWT_SECRET}
 JWT_EXPIRATION=86400000
 
 # Actuator Configuration
-MANAGEMENT_ENDPOINTS=health,info,metrics
+MANAGEMENT_ENDPOINTS=health,info,metrics,prometheus
 MANAGEMENT_HEALTH_DETAILS=always
 
 # =======================================================
@@ -247,10 +247,19 @@ API_USER_ID=$(echo "$create_body" | grep -o '"id":[0-9]*' | cut -d':' -f2)
 
 # Step 5.2: Get all users (should include our users)
 log "Get all users"
-all_users_resp=$(request "GET" "$BASE_URL/api/users")
-all_users_status="${all_users_resp: -3}"
-all_users_body="${all_users_resp%???}"
-check "$all_users_status" "200" "Get all users"
+# The list is paged; follow X-Next-Cursor until the last page
+all_users_body=""
+next_cursor=""
+while :; do
+  headers_file=$(mktemp)
+  page_resp=$(curl -s -w "%{http_code}" -D "$headers_file" "$BASE_URL/api/users?limit=500&cursor=$next_cursor")
+  page_status="${page_resp: -3}"
+  all_users_body+="${page_resp%???}"
+  next_cursor=$(grep -i '^X-Next-Cursor:' "$headers_file" | cut -d' ' -f2 | tr -d '\r')
+  rm -f "$headers_file"
+  [[ "$page_status" == "200" && -n "$next_cursor" ]] || break
+done
+check "$page_status" "200" "Get all users"
 
 # Verify our users are in the list
 if echo "$all_users_body" | grep -q "updated_$NEW_USER" && echo "$all_users_body" | grep -q "apiuser_$TIMESTAMP"; then